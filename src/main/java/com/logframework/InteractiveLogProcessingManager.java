@@ -4,6 +4,7 @@ import com.logframework.filter.*;
 import com.logframework.aggregator.*;
 import com.logframework.reporter.*;
 
+import com.logframework.io.LogFileDiscovery;
 import com.logframework.util.ConfigLoader;
 import org.fusesource.jansi.Ansi.Color;
 import org.fusesource.jansi.AnsiConsole;
@@ -169,13 +170,9 @@ public class InteractiveLogProcessingManager {
                     break;
                 } else if (Files.isDirectory(path)) {
                     try {
-                        List<String> logFiles = Files.list(path)
-                            .filter(p -> p.toString().endsWith(".log") || p.toString().endsWith(".txt"))
-                            .map(Path::toString)
-                            .sorted()
-                            .collect(Collectors.toList());
+                        List<String> logFiles = new LogFileDiscovery(configLoader).discover(path);
                         if (logFiles.isEmpty()) {
-                            printMessage("No .log or .txt files found in directory", Color.YELLOW);
+                            printMessage("No matching files found in directory (see discovery.* in log-processor.config)", Color.YELLOW);
                             continue;
                         }
                         selectedFiles.addAll(logFiles);
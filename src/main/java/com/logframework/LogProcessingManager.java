@@ -1,30 +1,99 @@
 package com.logframework;
 
-import com.logframework.model.LogEntry;
 import com.logframework.parser.*;
+import com.logframework.parser.format.LogFormatCompiler;
 import com.logframework.filter.LogFilter;
 import com.logframework.aggregator.LogAggregator;
+import com.logframework.checkpoint.Checkpoint;
+import com.logframework.checkpoint.CheckpointStore;
+import com.logframework.checkpoint.FileCheckpoint;
+import com.logframework.dto.ResultDTO;
+import com.logframework.io.FileSegment;
+import com.logframework.io.FileSplitter;
+import com.logframework.io.FileTailer;
+import com.logframework.io.LineReader;
+import com.logframework.io.LogInputs;
+import com.logframework.pipeline.EventSink;
+import com.logframework.pipeline.ProcessingChain;
+import com.logframework.pipeline.SourceProcessor;
+import com.logframework.pipeline.StagedPipeline;
+import com.logframework.pipeline.ThreadPerFilePipeline;
 import com.logframework.reporter.*;
 import com.logframework.util.ConfigLoader;
 
 import java.io.IOException;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.logging.*;
-import java.util.regex.Pattern;
 
 public class LogProcessingManager {
     private static final Logger logger = Logger.getLogger(LogProcessingManager.class.getName());
 
+    /**
+     * How {@link #processLogFiles(List)} uses its threads.
+     */
+    public enum ProcessingMode {
+        /** Each worker thread reads, parses, filters and aggregates its own files or segments. */
+        INLINE,
+        /** A reader, parser stages and one aggregation stage run as a {@link StagedPipeline}. */
+        STAGED,
+        /** One (virtual, on Java 21+) thread per file feeds one aggregation stage, see {@link ThreadPerFilePipeline}. */
+        VIRTUAL
+    }
+
+    /**
+     * How the filters and aggregators see the parsed entries in {@link ProcessingMode#INLINE} mode.
+     */
+    public enum ProcessingEngine {
+        /** Batches of {@link com.logframework.model.LogEntry} objects. */
+        ROW,
+        /** Columnar {@link com.logframework.model.LogBatch}es, if every filter and aggregator supports them. */
+        COLUMNAR
+    }
+
     private final List<LogParser> parsers;
+    private final FormatDetector formatDetector;
     private final List<LogFilter> filters;
     private final List<LogAggregator> aggregators;
     private final List<LogReporter> reporters;
 
     private String outputDirectory = "reports"; // Default output directory
+    private int parallelism = 1; // Number of worker threads, 1 = serial
+    private long splitSize = 64L * 1024 * 1024; // Files above this size are split across workers
+    private long followPollInterval = 1000; // Milliseconds between polls in follow mode
+    private long followIdleFlush = 2000; // Quiet time after which a pending multi-line event is flushed
+    private volatile boolean following;
+    private final Object aggregationLock = new Object();
+    private ProcessingMode processingMode = ProcessingMode.INLINE;
+    private ProcessingEngine processingEngine = ProcessingEngine.ROW;
+    private int batchSize = ProcessingChain.DEFAULT_BATCH_SIZE; // Entries per batch through filters and aggregators
+    private int pipelineQueueCapacity = 64; // Batches buffered in front of each pipeline stage
+    private int maxConcurrentFiles = 256; // Files read at the same time in virtual thread mode
+    private int maxEventChars = 1024 * 1024; // Multi-line events are truncated beyond these limits
+    private int maxEventLines = 10_000;
+    private int detectionSampleLines = FormatDetector.DEFAULT_SAMPLE_LINES; // Non-blank lines sampled to select a parser
+    private boolean reuseEntries; // Parse into recycled entries when no aggregator retains them
+    private boolean adaptiveFilterOrder = true; // Reorder filters by measured cost and selectivity
+    private boolean prefilterEvents = true; // Skip parsing events the filters reject on their raw text
+    private volatile StagedPipeline activePipeline;
+    private CheckpointStore checkpointStore; // null = every run reads all data
+    private boolean checkpointRestored;
 
     public LogProcessingManager() {
         this(new ConfigLoader());
@@ -32,6 +101,7 @@ public class LogProcessingManager {
 
     public LogProcessingManager(ConfigLoader configLoader) {
         this.parsers = new ArrayList<>();
+        this.formatDetector = new FormatDetector(parsers);
         this.filters = new ArrayList<>();
         this.aggregators = new ArrayList<>();
         this.reporters = new ArrayList<>();
@@ -39,6 +109,28 @@ public class LogProcessingManager {
         outputDirectory = configLoader.getProperty("reporter.outputFolder", "reports");
         logger.info("Output directory set to: " + outputDirectory);
 
+        setParallelism(parseIntProperty(configLoader, "processing.threads", 1));
+        setSplitSize(parseSizeProperty(configLoader, "processing.splitSize", splitSize));
+        setFollowPollInterval(parseIntProperty(configLoader, "follow.pollIntervalMillis", (int) followPollInterval));
+        setFollowIdleFlush(parseIntProperty(configLoader, "follow.idleFlushMillis", (int) followIdleFlush));
+        setProcessingMode(parseEnumProperty(configLoader, "processing.mode", processingMode));
+        setProcessingEngine(parseEnumProperty(configLoader, "processing.engine", processingEngine));
+        setBatchSize(parseIntProperty(configLoader, "processing.batchSize", batchSize));
+        setPipelineQueueCapacity(parseIntProperty(configLoader, "pipeline.queueCapacity", pipelineQueueCapacity));
+        setMaxConcurrentFiles(parseIntProperty(configLoader, "processing.maxConcurrentFiles", maxConcurrentFiles));
+        setCheckpointFile(configLoader.getProperty("checkpoint.file", "").trim());
+        setEventLimits((int) Math.min(Integer.MAX_VALUE, parseSizeProperty(configLoader, "multiline.maxEventChars", maxEventChars)),
+                parseIntProperty(configLoader, "multiline.maxEventLines", maxEventLines));
+        setDetectionSampleLines(parseIntProperty(configLoader, "detection.sampleLines", detectionSampleLines));
+        setReuseEntries(Boolean.parseBoolean(configLoader.getProperty("processing.reuseEntries", "false").trim()));
+        setAdaptiveFilterOrder(Boolean.parseBoolean(configLoader.getProperty("filters.adaptiveOrder", "true").trim()));
+        setPrefilterEvents(Boolean.parseBoolean(configLoader.getProperty("filters.prefilterEvents", "true").trim()));
+
+        // Formats compiled from patterns are more specific than the built-in parsers, so they are tried first
+        for (LogParser parser : LogFormatCompiler.fromConfig(configLoader)) {
+            registerParser(parser);
+        }
+
         String parserClasses = configLoader.getProperty("parsers", "");
         if (!parserClasses.isEmpty()) {
             for (String className : parserClasses.split(",")) {
@@ -65,66 +157,535 @@ public class LogProcessingManager {
 
     /**
      * Enhanced processLogFiles with multi-line support while maintaining streaming.
-     * Main method for processing logs, filtering and aggregating data
+     * Main method for processing logs, filtering and aggregating data.
+     * With a checkpoint file configured, only data appended since the previous run is read
+     * and the aggregators continue from the state saved by that run.
      */
     public void processLogFiles(List<String> filePaths) {
+        ProcessingChain chain = newProcessingChain();
+        boolean inline = processingMode == ProcessingMode.INLINE;
+        boolean parallel = inline && parallelism > 1 && chain.isMergeable();
+        if (inline && parallelism > 1 && !parallel) {
+            logger.warning("Not all aggregators support merging, falling back to serial processing.");
+        }
+
+        Checkpoint previous = checkpointStore != null ? restoreCheckpoint() : null;
+        Checkpoint next = checkpointStore != null ? newCheckpoint(previous) : null;
+
+        List<FileProgress> progress = new ArrayList<>();
+        Queue<Consumer<EventSink>> pending = new ConcurrentLinkedQueue<>();
         for (String filePath : filePaths) {
-            LogParser selectedParser = null;
-            Pattern startPattern = null;
-            StringBuilder multiLineBuffer = new StringBuilder();
-
-            try (var lines = Files.lines(Path.of(filePath))) {
-                for (String line : (Iterable<String>) lines::iterator) {
-
-                    // Select parser on first non-empty line
-                    if (selectedParser == null) {
-                        if (!line.trim().isEmpty()) {
-                            selectedParser = selectParser(line);
-                            if (selectedParser != null) {
-                                System.out.printf("Processing %s with %s\n", filePath, selectedParser.getParserName());
-
-                                // Initialize multi-line support if needed
-                                if (selectedParser.isMultiLine()) {
-                                    startPattern = Pattern.compile(selectedParser.getStartPattern());
-                                }
-                            } else {
-                                System.err.println("No suitable parser found for: " + filePath);
-                                break;
-                            }
-                        }
-                        continue;
-                    }
+            if (next != null) {
+                pending.addAll(planIncrementalWork(filePath, previous, progress, parallel));
+            } else if (parallel) {
+                pending.addAll(planWork(filePath));
+            } else {
+                pending.add(sink -> processLogFile(filePath, sink));
+            }
+        }
+        if (processingMode == ProcessingMode.STAGED) {
+            processInPipeline(pending, chain);
+        } else if (processingMode == ProcessingMode.VIRTUAL) {
+            processWithThreadPerFile(pending, chain);
+        } else if (parallel) {
+            processInParallel(pending, chain);
+        } else {
+            Consumer<EventSink> work;
+            while ((work = pending.poll()) != null) {
+                work.accept(chain);
+            }
+            chain.flush();
+        }
+
+        if (next != null) {
+            saveCheckpoint(next, progress);
+        }
+        System.out.printf("\nAggregation complete for %d files\n", filePaths.size());
+    }
+
+    /**
+     * Runs the work units on a fixed pool of worker threads. Files larger than the split size
+     * have been cut into segments already, so a single huge file is spread over all workers
+     * as well. Each worker pulls work from the shared queue into its own partial chain;
+     * partials are merged back in worker order at the end.
+     */
+    private void processInParallel(Queue<Consumer<EventSink>> pending, ProcessingChain chain) {
+        int workerCount = Math.min(parallelism, pending.size());
+        if (workerCount <= 1) {
+            Consumer<EventSink> work;
+            while ((work = pending.poll()) != null) {
+                work.accept(chain);
+            }
+            chain.flush();
+            return;
+        }
+        logger.info("Processing " + pending.size() + " work units with " + workerCount + " worker threads.");
 
-                    if (selectedParser != null) {
-                        if (selectedParser.isMultiLine()) {
-                            // MULTI-LINE PROCESSING
-                            processMultiLineEntry(line, startPattern, multiLineBuffer, selectedParser, filePath);
-                        } else {
-                            // SINGLE-LINE PROCESSING
-                            processSingleLineEntry(line, selectedParser, filePath);
-                        }
+        ExecutorService executor = Executors.newFixedThreadPool(workerCount);
+        try {
+            List<Future<ProcessingChain>> partials = new ArrayList<>();
+            for (int i = 0; i < workerCount; i++) {
+                partials.add(executor.submit(() -> {
+                    ProcessingChain partial = chain.newPartial();
+                    Consumer<EventSink> work;
+                    while ((work = pending.poll()) != null) {
+                        work.accept(partial);
                     }
+                    return partial;
+                }));
+            }
+            for (Future<ProcessingChain> partial : partials) {
+                partial.get().mergeInto(chain);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warning("Interrupted while waiting for worker threads.");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Worker thread failed while processing log files", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs the work units through a {@link StagedPipeline} with one parser stage per thread.
+     */
+    private void processInPipeline(Queue<Consumer<EventSink>> pending, ProcessingChain chain) {
+        StagedPipeline pipeline = new StagedPipeline(chain, parallelism, batchSize, pipelineQueueCapacity);
+        logger.info("Processing " + pending.size() + " work units in a staged pipeline with "
+                + parallelism + " parser stages.");
+        activePipeline = pipeline;
+        try {
+            pipeline.run(pending);
+        } finally {
+            activePipeline = null;
+        }
+    }
+
+    /**
+     * Runs every work unit on its own thread, at most maxConcurrentFiles at a time.
+     */
+    private void processWithThreadPerFile(Queue<Consumer<EventSink>> pending, ProcessingChain chain) {
+        new ThreadPerFilePipeline(chain, maxConcurrentFiles, batchSize, pipelineQueueCapacity).run(pending);
+    }
+
+    /**
+     * Restores the aggregator state saved by the previous run, once per manager, and returns
+     * that checkpoint. Returns null if there is no usable checkpoint.
+     */
+    private Checkpoint restoreCheckpoint() {
+        Checkpoint saved = checkpointStore.load();
+        boolean restoreState = !checkpointRestored;
+        checkpointRestored = true; // Later calls continue from the in-memory state
+        if (saved == null) {
+            return null;
+        }
+        if (!CheckpointStore.signature(filters, aggregators).equals(saved.getSignature())
+                || saved.getAggregatorStates().size() != aggregators.size()) {
+            logger.warning("Ignoring checkpoint " + checkpointStore.getCheckpointFile()
+                    + ", it was written with different filters or aggregators.");
+            return null;
+        }
+        if (restoreState) {
+            for (int i = 0; i < aggregators.size(); i++) {
+                try {
+                    aggregators.get(i).restoreState(saved.getAggregatorStates().get(i));
+                } catch (RuntimeException e) {
+                    throw new IllegalStateException("Could not restore " + aggregators.get(i).getClass().getName()
+                            + " from checkpoint " + checkpointStore.getCheckpointFile()
+                            + "; delete it to start over", e);
+                }
+            }
+            System.out.printf("Resuming from checkpoint %s\n", checkpointStore.getCheckpointFile());
+        }
+        return saved;
+    }
+
+    private Checkpoint newCheckpoint(Checkpoint previous) {
+        Checkpoint next = new Checkpoint();
+        next.setSignature(CheckpointStore.signature(filters, aggregators));
+        if (previous != null) {
+            next.getFiles().putAll(previous.getFiles()); // Keep files not part of this run, e.g. rotated away
+        }
+        return next;
+    }
+
+    /**
+     * Records the read positions and saves the checkpoint, unless a file was not read
+     * completely: its events are already in the aggregators, so neither keeping its old offset
+     * nor advancing it would be right, and the whole run is read again next time instead.
+     */
+    private void saveCheckpoint(Checkpoint next, List<FileProgress> progress) {
+        for (FileProgress file : progress) {
+            if (!file.isComplete()) {
+                logger.warning("Checkpoint not saved, " + file.current.getPath()
+                        + " was not read completely; the next run continues from the previous checkpoint.");
+                checkpointRestored = false; // Drop this run's partial state on the next run
+                return;
+            }
+        }
+        for (FileProgress file : progress) {
+            recordCheckpoint(next, file.saved, file.current, file.offset);
+        }
+        List<String> states = new ArrayList<>();
+        for (LogAggregator aggregator : aggregators) {
+            String state = aggregator.saveState();
+            if (state == null) {
+                logger.warning("Checkpoint not saved, " + aggregator.getClass().getName()
+                        + " does not support checkpoints.");
+                return;
+            }
+            states.add(state);
+        }
+        next.setAggregatorStates(states);
+        try {
+            checkpointStore.save(next);
+        } catch (IOException e) {
+            logger.warning("Failed to save checkpoint " + checkpointStore.getCheckpointFile() + " - " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the work units that cover only the data added to a file since the previous run
+     * and adds the new read position to the progress list; it goes into the next checkpoint
+     * once the units have run. Plain files are read up to the end of their last complete line;
+     * a trailing partial line is left for the next run. Compressed files cannot be resumed, so
+     * they are skipped while unchanged and processed completely otherwise. A file that cannot
+     * be checked is skipped and keeps its previous read position.
+     */
+    private List<Consumer<EventSink>> planIncrementalWork(String filePath, Checkpoint previous,
+                                                                List<FileProgress> progress, boolean split) {
+        try {
+            FileCheckpoint current = CheckpointStore.identify(filePath);
+            boolean compressed = LogInputs.isCompressed(filePath);
+            FileCheckpoint saved = previous != null ? CheckpointStore.find(previous, current, compressed) : null;
+
+            if (compressed) {
+                FileProgress file = new FileProgress(saved, current, current.getSize());
+                progress.add(file);
+                if (saved != null) {
+                    System.out.printf("Skipping %s, unchanged since last checkpoint\n", filePath);
+                    return List.of();
+                }
+                return List.of(file.track(sink -> processLogFile(filePath, sink)));
+            }
+
+            long end = FileSplitter.findLastLineEnd(filePath);
+            List<String> sample = FileSplitter.readSample(filePath, end, detectionSampleLines);
+            if (sample.stream().allMatch(line -> line.trim().isEmpty())) {
+                progress.add(new FileProgress(saved, current, saved != null ? saved.getOffset() : 0));
+                return List.of(); // Nothing complete to detect the format from yet
+            }
+            long start = saved != null ? saved.getOffset() : 0;
+            FileProgress file = new FileProgress(saved, current, end);
+            progress.add(file);
+            if (start >= end) {
+                System.out.printf("Skipping %s, no new data since last checkpoint\n", filePath);
+                return List.of();
+            }
+
+            LogParser parser = formatDetector.detect(filePath, sample);
+            if (parser == null) {
+                System.err.println("No suitable parser found for: " + filePath);
+                return List.of();
+            }
+            if (saved != null) {
+                System.out.printf("Resuming %s with %s at offset %d\n", filePath, parser.getParserName(), start);
+            } else {
+                System.out.printf("Processing %s with %s\n", filePath, parser.getParserName());
+            }
+
+            Predicate<CharSequence> startLine = parser.isMultiLine() ? parser.getStartLinePredicate() : null;
+            List<FileSegment> segments = split
+                    ? FileSplitter.split(filePath, start, end, splitSize, startLine)
+                    : List.of(new FileSegment(filePath, start, end));
+            List<Consumer<EventSink>> units = new ArrayList<>();
+            for (FileSegment segment : segments) {
+                units.add(file.track(sink -> processSegment(segment, parser, sink)));
+            }
+            return units;
+        } catch (IOException e) {
+            // Reading it completely would count data the aggregators got from earlier runs again
+            logger.warning("Failed to check " + filePath + " against the checkpoint, skipping it until the next run - "
+                    + e.getMessage());
+            return List.of();
+        }
+    }
+
+    private static void recordCheckpoint(Checkpoint next, FileCheckpoint saved, FileCheckpoint current, long offset) {
+        if (saved != null && !saved.getPath().equals(current.getPath())) {
+            next.getFiles().remove(saved.getPath(), saved); // The file was renamed, e.g. by rotation
+        }
+        current.setOffset(offset);
+        next.getFiles().put(current.getPath(), current);
+    }
+
+    /**
+     * Returns the work units for a file: the whole file, or one unit per segment when the
+     * file is larger than the split size. The parser is selected here from the same sample of
+     * first lines as on the serial path.
+     */
+    private List<Consumer<EventSink>> planWork(String filePath) {
+        try {
+            if (LogInputs.isCompressed(filePath) || Files.size(Path.of(filePath)) <= splitSize) {
+                return List.of(sink -> processLogFile(filePath, sink));
+            }
+            List<String> sample = FileSplitter.readSample(filePath, Long.MAX_VALUE, detectionSampleLines);
+            LogParser parser = formatDetector.detect(filePath, sample);
+            if (parser == null) {
+                return List.of(sink -> processLogFile(filePath, sink));
+            }
+            System.out.printf("Processing %s with %s\n", filePath, parser.getParserName());
+
+            Predicate<CharSequence> startLine = parser.isMultiLine() ? parser.getStartLinePredicate() : null;
+            List<Consumer<EventSink>> units = new ArrayList<>();
+            for (FileSegment segment : FileSplitter.split(filePath, 0, splitSize, startLine)) {
+                units.add(sink -> processSegment(segment, parser, sink));
+            }
+            return units;
+        } catch (IOException e) {
+            logger.warning("Failed to split file: " + filePath + " - " + e.getMessage());
+            return List.of(sink -> processLogFile(filePath, sink));
+        }
+    }
+
+    /**
+     * Returns false if the file could not be read completely.
+     */
+    private boolean processLogFile(String filePath, EventSink sink) {
+        try {
+            LogInputs.read(filePath, (sourceName, reader) -> processSource(sourceName, reader, sink));
+            return true;
+        } catch (IOException e) {
+            logger.warning("Failed to read file: " + filePath);
+            return false;
+        }
+    }
+
+    private void processSource(String sourceName, LineReader reader, EventSink sink) throws IOException {
+        processLines(reader, newSourceProcessor(sourceName, sink));
+    }
+
+    private SourceProcessor newSourceProcessor(String sourceName, EventSink sink) {
+        SourceProcessor processor = new SourceProcessor(sourceName,
+                sample -> formatDetector.detect(sourceName, sample), sink);
+        processor.setEventLimits(maxEventChars, maxEventLines);
+        processor.setSampleLines(detectionSampleLines);
+        return processor;
+    }
+
+    /**
+     * Returns false if the segment could not be read completely.
+     */
+    private boolean processSegment(FileSegment segment, LogParser parser, EventSink sink) {
+        logger.fine("Processing segment " + segment + " with " + parser.getParserName());
+        try (LineReader reader = segment.openLineReader()) {
+            SourceProcessor processor = new SourceProcessor(segment.getFilePath(), parser, sink);
+            processor.setEventLimits(maxEventChars, maxEventLines);
+            processLines(reader, processor);
+            return true;
+        } catch (IOException e) {
+            logger.warning("Failed to read segment: " + segment + " - " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Read position of one file for the next checkpoint. It is recorded only when every work
+     * unit of the file has run without a read error; units may run on any thread.
+     */
+    private static final class FileProgress {
+        private final FileCheckpoint saved;
+        private final FileCheckpoint current;
+        private final long offset;
+        private final AtomicInteger remaining = new AtomicInteger();
+        private volatile boolean failed;
+
+        FileProgress(FileCheckpoint saved, FileCheckpoint current, long offset) {
+            this.saved = saved;
+            this.current = current;
+            this.offset = offset;
+        }
+
+        /**
+         * Wraps a work unit that returns false when it could not read all of its data.
+         */
+        Consumer<EventSink> track(Predicate<EventSink> unit) {
+            remaining.incrementAndGet();
+            return sink -> {
+                if (!unit.test(sink)) {
+                    failed = true;
                 }
+                remaining.decrementAndGet(); // Not reached if the unit throws, which leaves the file incomplete
+            };
+        }
 
-                // Handle the last multi-line entry after the stream ends
-                if (selectedParser != null && selectedParser.isMultiLine() && multiLineBuffer.length() > 0) {
-                    processCompleteEvent(multiLineBuffer.toString(), selectedParser, filePath);
+        boolean isComplete() {
+            return !failed && remaining.get() == 0;
+        }
+    }
+
+    /**
+     * State of one file in follow mode. Lines are collected and their batch is aggregated at
+     * the end of every poll, all under the aggregation lock, so {@link #getResults()} never
+     * sees an entry half-way through the aggregators.
+     */
+    private class FollowedFile implements FileTailer.Listener {
+        private final FileTailer tailer;
+        private final ProcessingChain chain;
+        private SourceProcessor processor;
+        private long lastDataTime = System.currentTimeMillis();
+
+        FollowedFile(String filePath, ProcessingChain chain) {
+            this.tailer = new FileTailer(filePath);
+            this.chain = chain;
+            this.processor = newSourceProcessor(filePath, chain);
+        }
+
+        void poll() {
+            try {
+                long now = System.currentTimeMillis();
+                if (tailer.poll(this) > 0) {
+                    lastDataTime = now;
+                    synchronized (aggregationLock) {
+                        processor.selectParserEarly(); // Do not wait for a full sample from a slow writer
+                    }
+                } else if (processor.hasPendingEvent() && now - lastDataTime >= followIdleFlush) {
+                    // The writer went quiet, so the pending multi-line event is complete
+                    synchronized (aggregationLock) {
+                        processor.flush();
+                    }
                 }
+                synchronized (aggregationLock) {
+                    chain.flush(); // Aggregate the batch collected during this poll
+                }
+            } catch (IOException e) {
+                logger.warning("Failed to read followed file: " + tailer.getFilePath() + " - " + e.getMessage());
+            }
+        }
+
+        @Override
+        public void onLine(CharSequence line) {
+            synchronized (aggregationLock) {
+                processor.accept(line);
+            }
+        }
 
+        @Override
+        public void onRestart(String reason) {
+            logger.info("Restarting " + tailer.getFilePath() + " from the beginning: " + reason);
+            synchronized (aggregationLock) {
+                processor.flush();
+                chain.flush();
+            }
+            if ("rotated".equals(reason)) {
+                processor = newSourceProcessor(tailer.getFilePath(), chain);
+            }
+        }
+
+        void close() {
+            synchronized (aggregationLock) {
+                processor.flush();
+                chain.flush();
+            }
+            try {
+                tailer.close();
             } catch (IOException e) {
-                logger.warning("Failed to read file: " + filePath);
+                logger.fine("Failed to close followed file: " + e.getMessage());
             }
         }
-        System.out.printf("\nAggregation complete for %d files\n", filePaths.size());
+    }
+
+    private void processLines(LineReader reader, SourceProcessor processor) throws IOException {
+        CharSequence line;
+        while ((line = reader.readLine()) != null) {
+            if (!processor.accept(line)) {
+                return;
+            }
+        }
+
+        // Handle the last multi-line entry after the stream ends
+        processor.flush();
+    }
+
+    /**
+     * Follows the given files like {@code tail -F}, feeding newly appended lines through the
+     * parser, filter and aggregator chain as they are written. Existing content is processed
+     * first. Blocks until {@link #stopFollowing()} is called from another thread.
+     *
+     * Aggregators keep changing while this runs, so read them through {@link #getResults()}
+     * or {@link #generateReport()}, which take a consistent snapshot.
+     */
+    public void followLogFiles(List<String> filePaths) {
+        following = true;
+        List<FollowedFile> followedFiles = new ArrayList<>();
+        ProcessingChain chain = newProcessingChain();
+        for (String filePath : filePaths) {
+            followedFiles.add(new FollowedFile(filePath, chain));
+        }
+
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            Set<Path> directories = new HashSet<>();
+            for (String filePath : filePaths) {
+                Path directory = Path.of(filePath).toAbsolutePath().getParent();
+                if (directories.add(directory)) {
+                    directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_MODIFY);
+                }
+            }
+            logger.info("Following " + filePaths.size() + " files in " + directories.size() + " directories.");
+
+            while (following) {
+                for (FollowedFile followedFile : followedFiles) {
+                    followedFile.poll();
+                }
+                // Poll all files on every wake-up; the timeout also covers missed or unsupported events
+                WatchKey key = watchService.poll(followPollInterval, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+            }
+        } catch (IOException e) {
+            logger.warning("Failed to follow files: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warning("Interrupted while following files.");
+        } finally {
+            for (FollowedFile followedFile : followedFiles) {
+                followedFile.close();
+            }
+            following = false;
+        }
+    }
+
+    /**
+     * Stops a running {@link #followLogFiles(List)} after its current poll.
+     */
+    public void stopFollowing() {
+        following = false;
+    }
+
+    /**
+     * Returns the current result of every aggregator. Safe to call while files are being followed.
+     */
+    public List<ResultDTO> getResults() {
+        synchronized (aggregationLock) {
+            List<ResultDTO> results = new ArrayList<>();
+            for (LogAggregator aggregator : aggregators) {
+                results.add(aggregator.getResult());
+            }
+            return results;
+        }
     }
 
     public void generateReport() {
         String runDirectory = createRunDirectory();
 
-        for (LogAggregator aggregator : aggregators) {
+        for (ResultDTO result : getResults()) {
             for (LogReporter reporter : reporters) {
                 reporter.setOutputDirectory(runDirectory);
-                reporter.report(aggregator.getResult());
+                reporter.report(result);
             }
         }
     }
@@ -132,6 +693,7 @@ public class LogProcessingManager {
 
     public void registerParser(LogParser parser) {
         parsers.add(parser);
+        formatDetector.clearCache();
         logger.fine("Registered parser: " + parser.getClass().getName());
     }
 
@@ -150,6 +712,162 @@ public class LogProcessingManager {
         logger.fine("Added reporter: " + reporter.getClass().getName());
     }
 
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+        logger.info("Parallelism set to: " + this.parallelism);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the size in bytes above which a file is split into segments for parallel processing.
+     */
+    public void setSplitSize(long splitSize) {
+        this.splitSize = Math.max(1, splitSize);
+        logger.info("Split size set to: " + this.splitSize + " bytes");
+    }
+
+    public long getSplitSize() {
+        return splitSize;
+    }
+
+    public void setProcessingMode(ProcessingMode processingMode) {
+        this.processingMode = processingMode;
+        logger.info("Processing mode set to: " + processingMode);
+    }
+
+    public ProcessingMode getProcessingMode() {
+        return processingMode;
+    }
+
+    /**
+     * Selects the engine of {@link ProcessingMode#INLINE} processing. The staged and virtual
+     * modes always hand row batches to their aggregation stage.
+     */
+    public void setProcessingEngine(ProcessingEngine processingEngine) {
+        this.processingEngine = processingEngine;
+    }
+
+    public ProcessingEngine getProcessingEngine() {
+        return processingEngine;
+    }
+
+    /**
+     * Sets how many entries go through the filters and aggregators at once, which is also the
+     * number of events per batch between staged pipeline stages.
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Lets parsers fill recycled entries instead of allocating one per event. Only takes
+     * effect when no aggregator retains entries, and only for inline processing, where
+     * entries do not cross threads.
+     */
+    public void setReuseEntries(boolean reuseEntries) {
+        this.reuseEntries = reuseEntries;
+    }
+
+    public boolean isReuseEntries() {
+        return reuseEntries;
+    }
+
+    /**
+     * Lets every thread reorder the filters so that cheap filters rejecting many entries run
+     * first. Filters must match together, so results do not depend on the order.
+     */
+    public void setAdaptiveFilterOrder(boolean adaptiveFilterOrder) {
+        this.adaptiveFilterOrder = adaptiveFilterOrder;
+    }
+
+    public boolean isAdaptiveFilterOrder() {
+        return adaptiveFilterOrder;
+    }
+
+    /**
+     * Lets the filters reject events on their raw text, so that events which cannot match are
+     * never parsed. The tests are conservative and do not change the results.
+     */
+    public void setPrefilterEvents(boolean prefilterEvents) {
+        this.prefilterEvents = prefilterEvents;
+    }
+
+    public boolean isPrefilterEvents() {
+        return prefilterEvents;
+    }
+
+    /**
+     * Sets how many files are read at the same time in {@link ProcessingMode#VIRTUAL} mode.
+     */
+    public void setMaxConcurrentFiles(int maxConcurrentFiles) {
+        this.maxConcurrentFiles = Math.max(1, maxConcurrentFiles);
+    }
+
+    public int getMaxConcurrentFiles() {
+        return maxConcurrentFiles;
+    }
+
+    /**
+     * Limits the characters and lines of one multi-line event, such as a stack trace; the rest
+     * of a longer event is dropped so a runaway trace cannot exhaust the heap.
+     */
+    public void setEventLimits(int maxEventChars, int maxEventLines) {
+        this.maxEventChars = Math.max(1, maxEventChars);
+        this.maxEventLines = Math.max(1, maxEventLines);
+    }
+
+    public void setPipelineQueueCapacity(int pipelineQueueCapacity) {
+        this.pipelineQueueCapacity = Math.max(2, pipelineQueueCapacity);
+    }
+
+    /**
+     * Returns the number of batches waiting in front of each stage of the running staged
+     * pipeline, or an empty map if none is running.
+     */
+    public Map<String, Integer> getPipelineQueueDepths() {
+        StagedPipeline pipeline = activePipeline;
+        return pipeline != null ? pipeline.getQueueDepths() : Collections.emptyMap();
+    }
+
+    public void setFollowPollInterval(long followPollInterval) {
+        this.followPollInterval = Math.max(1, followPollInterval);
+    }
+
+    /**
+     * Sets how many non-blank lines at the start of a source are sampled to select its parser.
+     */
+    public void setDetectionSampleLines(int detectionSampleLines) {
+        this.detectionSampleLines = Math.max(1, detectionSampleLines);
+    }
+
+    public void setFollowIdleFlush(long followIdleFlush) {
+        this.followIdleFlush = followIdleFlush;
+    }
+
+    /**
+     * Sets the file in which read positions and aggregator state are kept between runs.
+     * Null or empty disables checkpoints.
+     */
+    public void setCheckpointFile(String checkpointFile) {
+        if (checkpointFile == null || checkpointFile.isEmpty()) {
+            this.checkpointStore = null;
+        } else {
+            this.checkpointStore = new CheckpointStore(checkpointFile);
+            logger.info("Checkpoint file set to: " + checkpointFile);
+        }
+    }
+
+    public String getCheckpointFile() {
+        return checkpointStore != null ? checkpointStore.getCheckpointFile() : null;
+    }
+
     public List<LogAggregator> getAggregators() {
         logger.fine("Retrieving aggregators list.");
         return Collections.unmodifiableList(aggregators);
@@ -160,72 +878,79 @@ public class LogProcessingManager {
         return Collections.unmodifiableList(reporters);
     }
 
-    private void processSingleLogFile(String filePath) {
-        logger.info("Processing file: " + filePath);
-        LogParser selectedParser = null;
-        try (var lines = Files.lines(Path.of(filePath))) {
-            for (String line : (Iterable<String>) lines::iterator) {
-                if (selectedParser == null) {
-                    selectedParser = trySelectParser(line, filePath);
-                    if (selectedParser == null) {
-                        logger.warning("No suitable parser found for: " + filePath);
-                        break;
-                    }
-                }
-                if (selectedParser != null) {
-                    processLogLine(selectedParser, line, filePath);
-                }
-            }
-            logger.fine("Finished processing file: " + filePath);
-        } catch (IOException e) {
-            logger.warning("Failed to read file: " + filePath + " - " + e.getMessage());
-        }
+    /**
+     * Starts a run: returns the chain over the registered filters and aggregators, with its
+     * own field dictionaries, configured from the manager's settings, with the fields it reads
+     * pushed down to the parsers.
+     */
+    private ProcessingChain newProcessingChain() {
+        ProcessingChain chain = new ProcessingChain(filters, aggregators, batchSize);
+        chain.setReuseEntries(reuseEntries);
+        chain.setColumnar(processingEngine == ProcessingEngine.COLUMNAR);
+        chain.setAdaptiveFilterOrder(adaptiveFilterOrder);
+        chain.setPrefilterEvents(prefilterEvents);
+        pushDownRequiredFields(chain);
+        return chain;
     }
 
-    private LogParser trySelectParser(String line, String filePath) {
-        if (!line.trim().isEmpty()) {
-            LogParser parser = selectParser(line);
-            if (parser != null) {
-                logger.info("Selected parser " + parser.getParserName() + " for file: " + filePath);
-            } else {
-                logger.warning("No suitable parser found for: " + filePath);
-            }
-            return parser;
+    /**
+     * Tells the parsers which fields the filters and aggregators read, so they can skip the
+     * rest. Every registered parser gets the same set, since any of them may be selected.
+     */
+    private void pushDownRequiredFields(ProcessingChain chain) {
+        Set<String> requiredFields = chain.getRequiredFields();
+        logger.fine("Fields required by filters and aggregators: " + (requiredFields == null ? "all" : requiredFields));
+        for (LogParser parser : parsers) {
+            parser.setRequiredFields(requiredFields);
         }
-        logger.fine("Empty or whitespace line encountered while selecting parser for file: " + filePath);
-        return null;
     }
 
-    private LogParser selectParser(String line) {
-        for (LogParser parser : parsers) {
-            if (parser.canParse(line)) {
-                logger.fine("Parser " + parser.getParserName() + " can parse the line.");
-                return parser;
-            }
+    private static int parseIntProperty(ConfigLoader configLoader, String key, int defaultValue) {
+        String value = configLoader.getProperty(key, String.valueOf(defaultValue)).trim();
+        if ("auto".equalsIgnoreCase(value)) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            logger.warning("Invalid value for " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
         }
-        logger.warning("No parser could parse the line: " + line);
-        return null;
     }
 
-    private void processLogLine(LogParser parser, String line, String filePath) {
-        LogEntry entry = parser.parse(line);
-        if (entry != null) {
-            entry.setSource(filePath);
-            boolean matches = filters.stream().allMatch(filter -> filter.matches(entry));
-            if (matches) {
-                for (LogAggregator aggregator : aggregators) {
-                    aggregator.process(entry);
-                }
-                logger.finer("Log entry matched filters and was processed by aggregators.");
-            } else {
-                logger.finer("Log entry did not match filters and was skipped.");
-            }
-        } else {
-            logger.finer("Parsed log entry is null for line: " + line);
+    private static <E extends Enum<E>> E parseEnumProperty(ConfigLoader configLoader, String key, E defaultValue) {
+        String value = configLoader.getProperty(key, defaultValue.name()).trim();
+        try {
+            return Enum.valueOf(defaultValue.getDeclaringClass(), value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.warning("Invalid value for " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
         }
     }
 
-
+    /**
+     * Parses a byte size such as 65536, 512k, 64m or 2g.
+     */
+    private static long parseSizeProperty(ConfigLoader configLoader, String key, long defaultValue) {
+        String value = configLoader.getProperty(key, String.valueOf(defaultValue)).trim().toLowerCase();
+        long multiplier = 1;
+        if (value.endsWith("k")) {
+            multiplier = 1024L;
+        } else if (value.endsWith("m")) {
+            multiplier = 1024L * 1024;
+        } else if (value.endsWith("g")) {
+            multiplier = 1024L * 1024 * 1024;
+        }
+        if (multiplier > 1) {
+            value = value.substring(0, value.length() - 1);
+        }
+        try {
+            return Long.parseLong(value) * multiplier;
+        } catch (NumberFormatException e) {
+            logger.warning("Invalid value for " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
 
     public String getOutputDirectory() {
         logger.fine("Retrieving output directory: " + outputDirectory);
@@ -243,53 +968,4 @@ public class LogProcessingManager {
         }
         return report;
     }
-
-    /**
-     * Handles multi-line log entry processing with streaming.
-     */
-    private void processMultiLineEntry(String line, Pattern startPattern, StringBuilder buffer, 
-                                     LogParser parser, String filePath) {
-        boolean isStartLine = startPattern.matcher(line).find();
-        
-        // If this is a start line and we have content in the buffer, process the previous event
-        if (isStartLine && buffer.length() > 0) {
-            processCompleteEvent(buffer.toString(), parser, filePath);
-            buffer.setLength(0); // Clear buffer for new event
-        }
-        
-        // Add current line to buffer
-        buffer.append(line).append(System.lineSeparator());
-    }
-
-    /**
-     * Handles single-line log entry processing (your existing logic).
-     */
-    private void processSingleLineEntry(String line, LogParser parser, String filePath) {
-        LogEntry entry = parser.parse(line);
-        if (entry != null) {
-            entry.setSource(filePath);
-            boolean matches = filters.stream().allMatch(filter -> filter.matches(entry));
-            if (matches) {
-                for (LogAggregator aggregator : aggregators) {
-                    aggregator.process(entry); // Using your exact method signature
-                }
-            }
-        }
-    }
-
-    /**
-     * Processes a complete multi-line event.
-     */
-    private void processCompleteEvent(String eventContent, LogParser parser, String filePath) {
-        LogEntry entry = parser.parse(eventContent.trim());
-        if (entry != null) {
-            entry.setSource(filePath);
-            boolean matches = filters.stream().allMatch(filter -> filter.matches(entry));
-            if (matches) {
-                for (LogAggregator aggregator : aggregators) {
-                    aggregator.process(entry); // Using your exact method signature
-                }
-            }
-        }
-    }
 }
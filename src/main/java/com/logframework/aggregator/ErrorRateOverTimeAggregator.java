@@ -1,8 +1,12 @@
 package com.logframework.aggregator;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.logframework.dto.ResultDTO;
 import com.logframework.filter.Description;
 import com.logframework.filter.Parameter;
+import com.logframework.model.LogBatch;
 import com.logframework.model.LogEntry;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
@@ -18,6 +22,7 @@ import java.util.logging.Logger;
 )
 public class ErrorRateOverTimeAggregator implements LogAggregator {
     private static final Logger logger = Logger.getLogger(ErrorRateOverTimeAggregator.class.getName());
+    private static final ObjectMapper STATE_MAPPER = new ObjectMapper();
 
     // Map of time bucket (e.g., "2025-09-18T16:15") to [totalCount, errorCount]
     private final Map<String, int[]> bucketCounts = new TreeMap<>();
@@ -28,9 +33,23 @@ public class ErrorRateOverTimeAggregator implements LogAggregator {
     )
     private DateTimeFormatter bucketDuration = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH");
 
+    // Whether entries within the same second always share a bucket, see processBatch
+    private boolean secondsResolution = true;
+
     public void setBucketDuration(String bucketDuration) {
         logger.info("Setting bucketDuration pattern to: " + bucketDuration);
         this.bucketDuration = DateTimeFormatter.ofPattern(bucketDuration);
+        this.secondsResolution = !hasSubSecondFields(bucketDuration);
+    }
+
+    @Override
+    public Set<String> getRequiredFields() {
+        return Set.of("timestamp", "level");
+    }
+
+    @Override
+    public boolean retainsEntries() {
+        return false;
     }
 
     @Override
@@ -51,6 +70,93 @@ public class ErrorRateOverTimeAggregator implements LogAggregator {
         logger.finest("Processed entry for bucket: " + bucket + " | Total: " + counts[0] + ", Errors: " + counts[1]);
     }
 
+    /**
+     * Log timestamps mostly arrive in order, so consecutive entries of the same second reuse
+     * the previous bucket instead of formatting the timestamp and looking the bucket up again.
+     */
+    @Override
+    public void processBatch(LogEntry[] entries, int count) {
+        long lastSecond = 0;
+        int lastOffset = 0;
+        int[] lastCounts = null;
+        for (int i = 0; i < count; i++) {
+            LogEntry entry = entries[i];
+            if (!entry.hasTimestamp()) {
+                continue;
+            }
+            long second = entry.getEpochSecond();
+            int offset = entry.getOffsetSeconds();
+            int[] counts;
+            if (lastCounts != null && secondsResolution && second == lastSecond && offset == lastOffset) {
+                counts = lastCounts;
+            } else {
+                counts = bucketCounts.computeIfAbsent(entry.getTimestamp().format(bucketDuration), k -> new int[3]);
+                lastSecond = second;
+                lastOffset = offset;
+                lastCounts = counts;
+            }
+            counts[0]++;
+            if ("ERROR".equalsIgnoreCase(entry.getLevel())) {
+                counts[1]++;
+            }
+        }
+    }
+
+    @Override
+    public boolean supportsColumns() {
+        return true;
+    }
+
+    /**
+     * Same as {@link #processBatch(LogEntry[], int)} over the selected rows; the timestamp is
+     * only built when the bucket may change.
+     */
+    @Override
+    public void processColumns(LogBatch batch) {
+        int[] selection = batch.getSelection();
+        int count = batch.getSelectedCount();
+        long lastSecond = 0;
+        int lastOffset = 0;
+        int[] lastCounts = null;
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            if (!batch.hasTimestamp(row)) {
+                continue;
+            }
+            long second = batch.getEpochSecond(row);
+            int offset = batch.getOffsetSeconds(row);
+            int[] counts;
+            if (lastCounts != null && secondsResolution && second == lastSecond && offset == lastOffset) {
+                counts = lastCounts;
+            } else {
+                counts = bucketCounts.computeIfAbsent(batch.getTimestamp(row).format(bucketDuration), k -> new int[3]);
+                lastSecond = second;
+                lastOffset = offset;
+                lastCounts = counts;
+            }
+            counts[0]++;
+            if ("ERROR".equalsIgnoreCase(batch.getLevel(row))) {
+                counts[1]++;
+            }
+        }
+    }
+
+    /**
+     * Checks a DateTimeFormatter pattern for fraction, nano or milli-of-day fields outside quotes.
+     */
+    private static boolean hasSubSecondFields(String pattern) {
+        boolean quoted = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted && (c == 'S' || c == 'n' || c == 'N' || c == 'A')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public ResultDTO getResult() {
         logger.info("Generating ResultDTO for ErrorRateOverTimeAggregator.");
@@ -70,4 +176,45 @@ public class ErrorRateOverTimeAggregator implements LogAggregator {
         }
         return new ResultDTO("Error Rate Over Time", headers, data);
     }
-}
\ No newline at end of file
+
+    @Override
+    public LogAggregator newPartial() {
+        ErrorRateOverTimeAggregator partial = new ErrorRateOverTimeAggregator();
+        partial.bucketDuration = bucketDuration;
+        partial.secondsResolution = secondsResolution;
+        return partial;
+    }
+
+    @Override
+    public void merge(LogAggregator partial) {
+        ErrorRateOverTimeAggregator other = (ErrorRateOverTimeAggregator) partial;
+        for (Map.Entry<String, int[]> e : other.bucketCounts.entrySet()) {
+            int[] counts = bucketCounts.computeIfAbsent(e.getKey(), k -> new int[3]);
+            counts[0] += e.getValue()[0];
+            counts[1] += e.getValue()[1];
+        }
+        logger.fine("Merged " + other.bucketCounts.size() + " time buckets from partial aggregator.");
+    }
+
+    @Override
+    public String saveState() {
+        try {
+            return STATE_MAPPER.writeValueAsString(bucketCounts);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize time buckets", e);
+        }
+    }
+
+    @Override
+    public void restoreState(String state) {
+        Map<String, int[]> restored;
+        try {
+            restored = STATE_MAPPER.readValue(state, new TypeReference<TreeMap<String, int[]>>() {});
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid time bucket state", e);
+        }
+        bucketCounts.clear();
+        bucketCounts.putAll(restored);
+        logger.fine("Restored " + bucketCounts.size() + " time buckets from checkpoint.");
+    }
+}
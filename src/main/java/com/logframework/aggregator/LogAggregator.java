@@ -1,9 +1,90 @@
 package com.logframework.aggregator;
 
 import com.logframework.dto.ResultDTO;
+import com.logframework.model.LogBatch;
 import com.logframework.model.LogEntry;
 
+import java.util.Set;
+
 public interface LogAggregator {
     void process(LogEntry entry); // NEW: single entry
     ResultDTO getResult();
+
+    /**
+     * Processes the first count entries of the array.
+     */
+    default void processBatch(LogEntry[] entries, int count) {
+        for (int i = 0; i < count; i++) {
+            process(entries[i]);
+        }
+    }
+
+    /**
+     * Indicates whether {@link #processColumns(LogBatch)} is implemented, see
+     * {@code LogFilter.supportsColumns()}.
+     */
+    default boolean supportsColumns() {
+        return false;
+    }
+
+    /**
+     * Columnar variant of {@link #processBatch(LogEntry[], int)}: processes the selected rows.
+     */
+    default void processColumns(LogBatch batch) {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support columnar batches");
+    }
+
+    /**
+     * Returns the entry fields this aggregator reads, see {@code LogFilter.getRequiredFields()}.
+     *
+     * @return the fields, or null if unknown, which keeps every field
+     */
+    default Set<String> getRequiredFields() {
+        return null;
+    }
+
+    /**
+     * Indicates whether this aggregator keeps a reference to an entry after the call that
+     * received it returns. Only when no aggregator does can the pipeline hand out recycled
+     * entries, which are overwritten by the next events.
+     */
+    default boolean retainsEntries() {
+        return true; // Default: assume entries are kept
+    }
+
+    /**
+     * Creates an empty aggregator with the same configuration as this one.
+     * Parallel processing gives each worker its own partial and merges them back
+     * with {@link #merge(LogAggregator)} once all files are done.
+     *
+     * @return a fresh partial, or null if this aggregator cannot be merged
+     */
+    default LogAggregator newPartial() {
+        return null; // Default: not mergeable, forces serial processing
+    }
+
+    /**
+     * Folds the state of a partial created by {@link #newPartial()} into this aggregator.
+     */
+    default void merge(LogAggregator partial) {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support merging partial results");
+    }
+
+    /**
+     * Serializes the aggregated state so a later run can continue from it.
+     *
+     * @return the state, or null if this aggregator cannot be checkpointed
+     */
+    default String saveState() {
+        return null; // Default: no checkpoint support, every run starts from scratch
+    }
+
+    /**
+     * Replaces the aggregated state with one returned by {@link #saveState()}.
+     *
+     * @throws IllegalArgumentException if the state cannot be restored
+     */
+    default void restoreState(String state) {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support checkpoints");
+    }
 }
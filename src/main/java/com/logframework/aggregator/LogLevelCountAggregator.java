@@ -1,5 +1,10 @@
 package com.logframework.aggregator;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logframework.model.FieldDictionaries;
+import com.logframework.model.LogBatch;
 import com.logframework.model.LogEntry;
 import java.util.*;
 
@@ -10,7 +15,22 @@ import com.logframework.filter.Description;
     "Aggregates and counts the number of log entries for each log level (e.g., INFO, ERROR, DEBUG). ")
     
 public class LogLevelCountAggregator implements LogAggregator {
-    private Map<String, Long> levelCounts = new HashMap<>();
+    private static final ObjectMapper STATE_MAPPER = new ObjectMapper();
+
+    private Map<String, Long> levelCounts = new HashMap<>(); // Levels counted without a code
+    private long[] codeCounts = new long[16]; // By code of the level dictionary of codeDictionaries
+    private FieldDictionaries codeDictionaries; // null = nothing counted by code
+    private int maxCode = -1; // Highest code counted
+
+    @Override
+    public Set<String> getRequiredFields() {
+        return Set.of("level");
+    }
+
+    @Override
+    public boolean retainsEntries() {
+        return false;
+    }
 
     @Override
     public void process(LogEntry entry) {
@@ -19,14 +39,159 @@ public class LogLevelCountAggregator implements LogAggregator {
         }
     }
 
+    /**
+     * Counts dictionary encoded levels in an array indexed by code; other levels are counted in
+     * runs of the same level, updating the map once per run. Codes are only turned into level
+     * names when the counts are read, merged or saved.
+     */
+    @Override
+    public void processBatch(LogEntry[] entries, int count) {
+        String runLevel = null;
+        long runLength = 0;
+        for (int i = 0; i < count; i++) {
+            int code = entries[i].getCode("level");
+            if (code >= 0) {
+                countCode(code, entries[i].getDictionaries());
+                continue;
+            }
+            String level = entries[i].getLevel();
+            if (level == null) {
+                continue;
+            }
+            if (!level.equals(runLevel)) {
+                if (runLevel != null) {
+                    levelCounts.merge(runLevel, runLength, Long::sum);
+                }
+                runLevel = level;
+                runLength = 0;
+            }
+            runLength++;
+        }
+        if (runLevel != null) {
+            levelCounts.merge(runLevel, runLength, Long::sum);
+        }
+    }
+
+    @Override
+    public boolean supportsColumns() {
+        return true;
+    }
+
+    /**
+     * Counts the selected rows by level code, falling back to the level for rows without one.
+     */
+    @Override
+    public void processColumns(LogBatch batch) {
+        int[] selection = batch.getSelection();
+        int count = batch.getSelectedCount();
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            int code = batch.getLevelCode(row);
+            if (code >= 0) {
+                countCode(code, batch.getDictionaries());
+            } else if (batch.getLevel(row) != null) {
+                levelCounts.merge(batch.getLevel(row), 1L, Long::sum);
+            }
+        }
+    }
+
+    private void countCode(int code, FieldDictionaries dictionaries) {
+        if (dictionaries != codeDictionaries) {
+            foldCodeCounts(); // Codes of other dictionaries, such as those of the next run, stand for other levels
+            codeDictionaries = dictionaries;
+        }
+        if (code >= codeCounts.length) {
+            codeCounts = Arrays.copyOf(codeCounts, Math.max(code + 1, codeCounts.length * 2));
+        }
+        codeCounts[code]++;
+        maxCode = Math.max(maxCode, code);
+    }
+
+    /**
+     * Moves the counts by code into the map, turning the codes back into level names.
+     */
+    private void foldCodeCounts() {
+        for (int code = 0; code <= maxCode; code++) {
+            if (codeCounts[code] > 0) {
+                levelCounts.merge(codeDictionaries.getLevel().value(code), codeCounts[code], Long::sum);
+                codeCounts[code] = 0;
+            }
+        }
+        maxCode = -1;
+        codeDictionaries = null;
+    }
+
+    /**
+     * Returns the counts by level name, including those counted by code.
+     */
+    private Map<String, Long> countsByLevel() {
+        Map<String, Long> counts = new HashMap<>(levelCounts);
+        for (int code = 0; code <= maxCode; code++) {
+            if (codeCounts[code] > 0) {
+                counts.merge(codeDictionaries.getLevel().value(code), codeCounts[code], Long::sum);
+            }
+        }
+        return counts;
+    }
+
     @Override
     public ResultDTO getResult() {
         List<String> headers = Arrays.asList("Log Level", "Count");
         List<List<String>> data = new ArrayList<>();
-        for (Map.Entry<String, Long> e : levelCounts.entrySet()) {
+        for (Map.Entry<String, Long> e : countsByLevel().entrySet()) {
             data.add(Arrays.asList(e.getKey(), e.getValue().toString()));
         }
         return new ResultDTO("Log Level Counts", headers, data);
     }
 
+    @Override
+    public LogAggregator newPartial() {
+        return new LogLevelCountAggregator();
+    }
+
+    /**
+     * Partials of the same run share its dictionaries, so their counts by code are added as
+     * they are; other codes are merged by level name.
+     */
+    @Override
+    public void merge(LogAggregator partial) {
+        LogLevelCountAggregator other = (LogLevelCountAggregator) partial;
+        other.levelCounts.forEach((level, count) -> levelCounts.merge(level, count, Long::sum));
+        if (other.maxCode < 0) {
+            return;
+        }
+        if (codeDictionaries != null && other.codeDictionaries != codeDictionaries) {
+            foldCodeCounts();
+        }
+        codeDictionaries = other.codeDictionaries;
+        if (other.maxCode >= codeCounts.length) {
+            codeCounts = Arrays.copyOf(codeCounts, Math.max(other.maxCode + 1, codeCounts.length * 2));
+        }
+        for (int code = 0; code <= other.maxCode; code++) {
+            codeCounts[code] += other.codeCounts[code];
+        }
+        maxCode = Math.max(maxCode, other.maxCode);
+    }
+
+    @Override
+    public String saveState() {
+        try {
+            return STATE_MAPPER.writeValueAsString(countsByLevel());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize level counts", e);
+        }
+    }
+
+    @Override
+    public void restoreState(String state) {
+        try {
+            levelCounts = STATE_MAPPER.readValue(state, new TypeReference<HashMap<String, Long>>() {});
+            Arrays.fill(codeCounts, 0);
+            maxCode = -1;
+            codeDictionaries = null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid level count state", e);
+        }
+    }
+
 }
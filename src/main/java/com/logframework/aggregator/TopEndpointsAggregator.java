@@ -1,5 +1,9 @@
 package com.logframework.aggregator;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logframework.model.LogBatch;
 import com.logframework.model.LogEntry;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -17,6 +21,7 @@ import java.util.logging.Logger;
 public class TopEndpointsAggregator implements LogAggregator {
 
     private static final Logger logger = Logger.getLogger(TopEndpointsAggregator.class.getName());
+    private static final ObjectMapper STATE_MAPPER = new ObjectMapper();
 
     @Parameter("Number of top endpoints to return.")
     @Default("10")
@@ -29,6 +34,16 @@ public class TopEndpointsAggregator implements LogAggregator {
         this.topN = topN;
     }
 
+    @Override
+    public Set<String> getRequiredFields() {
+        return Set.of("path");
+    }
+
+    @Override
+    public boolean retainsEntries() {
+        return false;
+    }
+
     @Override
     public void process(LogEntry entry) {
         Object pathObj = entry.getAttribute("path");
@@ -41,11 +56,44 @@ public class TopEndpointsAggregator implements LogAggregator {
         }
     }
 
+    /**
+     * Counts the batch without the per-entry logging.
+     */
+    @Override
+    public void processBatch(LogEntry[] entries, int count) {
+        Map<String, Long> counts = endpointCounts;
+        for (int i = 0; i < count; i++) {
+            Object pathObj = entries[i].getAttribute("path");
+            if (pathObj != null) {
+                counts.merge(pathObj.toString(), 1L, Long::sum);
+            }
+        }
+    }
+
+    @Override
+    public boolean supportsColumns() {
+        return true;
+    }
+
+    @Override
+    public void processColumns(LogBatch batch) {
+        Map<String, Long> counts = endpointCounts;
+        LogBatch.Text path = new LogBatch.Text();
+        int[] selection = batch.getSelection();
+        int count = batch.getSelectedCount();
+        for (int i = 0; i < count; i++) {
+            if (batch.getPath(selection[i], path)) {
+                counts.merge(path.toString(), 1L, Long::sum);
+            }
+        }
+    }
+
     @Override
     public ResultDTO getResult() {
         logger.info("Generating result for TopEndpointsAggregator with topN = " + topN);
         Map<String, Long> topEndpoints = endpointCounts.entrySet().stream()
-                .sorted(Collections.reverseOrder(Map.Entry.comparingByValue()))
+                .sorted(Collections.reverseOrder(Map.Entry.<String, Long>comparingByValue())
+                        .thenComparing(Map.Entry.comparingByKey())) // Ties by path, so merged and serial runs agree
                 .limit(topN)
                 .collect(Collectors.toMap(
                         Map.Entry::getKey,
@@ -63,4 +111,37 @@ public class TopEndpointsAggregator implements LogAggregator {
         return new ResultDTO("Top " + topN + " Endpoints", headers, data);
     }
 
+    @Override
+    public LogAggregator newPartial() {
+        TopEndpointsAggregator partial = new TopEndpointsAggregator();
+        partial.topN = topN;
+        return partial;
+    }
+
+    @Override
+    public void merge(LogAggregator partial) {
+        TopEndpointsAggregator other = (TopEndpointsAggregator) partial;
+        other.endpointCounts.forEach((path, count) -> endpointCounts.merge(path, count, Long::sum));
+        logger.fine("Merged " + other.endpointCounts.size() + " endpoints from partial aggregator.");
+    }
+
+    @Override
+    public String saveState() {
+        try {
+            return STATE_MAPPER.writeValueAsString(endpointCounts);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize endpoint counts", e);
+        }
+    }
+
+    @Override
+    public void restoreState(String state) {
+        try {
+            endpointCounts = STATE_MAPPER.readValue(state, new TypeReference<HashMap<String, Long>>() {});
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid endpoint count state", e);
+        }
+        logger.fine("Restored " + endpointCounts.size() + " endpoints from checkpoint.");
+    }
+
 }
@@ -0,0 +1,25 @@
+package com.logframework.checkpoint;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything a run needs to continue where the previous one stopped: the read position of
+ * every file and the serialized state of every aggregator at that point.
+ */
+public class Checkpoint {
+    private String signature;
+    private Map<String, FileCheckpoint> files = new LinkedHashMap<>();
+    private List<String> aggregatorStates = new ArrayList<>();
+
+    public String getSignature() { return signature; }
+    public void setSignature(String signature) { this.signature = signature; }
+
+    public Map<String, FileCheckpoint> getFiles() { return files; }
+    public void setFiles(Map<String, FileCheckpoint> files) { this.files = files; }
+
+    public List<String> getAggregatorStates() { return aggregatorStates; }
+    public void setAggregatorStates(List<String> aggregatorStates) { this.aggregatorStates = aggregatorStates; }
+}
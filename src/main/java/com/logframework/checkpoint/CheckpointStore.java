@@ -0,0 +1,170 @@
+package com.logframework.checkpoint;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.logframework.aggregator.LogAggregator;
+import com.logframework.filter.LogFilter;
+import com.logframework.filter.Parameter;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and writes the checkpoint file that lets a run skip data processed by earlier runs.
+ * Files are recognised by their file key (inode) and a hash of their first bytes, so a
+ * rotated file that was renamed is still matched to its earlier read position.
+ */
+public class CheckpointStore {
+    private static final Logger logger = Logger.getLogger(CheckpointStore.class.getName());
+
+    private static final int HEAD_LENGTH = 4096;
+
+    private final Path checkpointFile;
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    public CheckpointStore(String checkpointFile) {
+        this.checkpointFile = Path.of(checkpointFile);
+    }
+
+    public String getCheckpointFile() {
+        return checkpointFile.toString();
+    }
+
+    /**
+     * Returns the saved checkpoint, or null if there is none or it cannot be read.
+     */
+    public Checkpoint load() {
+        if (!Files.exists(checkpointFile)) {
+            logger.info("No checkpoint found at " + checkpointFile);
+            return null;
+        }
+        try {
+            return objectMapper.readValue(checkpointFile.toFile(), Checkpoint.class);
+        } catch (IOException e) {
+            logger.warning("Ignoring unreadable checkpoint " + checkpointFile + " - " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file first and moves it into place, so a crash
+     * never leaves a half-written checkpoint behind.
+     */
+    public void save(Checkpoint checkpoint) throws IOException {
+        Path parent = checkpointFile.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, checkpointFile.getFileName().toString(), ".tmp");
+        try {
+            objectMapper.writeValue(temp.toFile(), checkpoint);
+            Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        logger.info("Saved checkpoint for " + checkpoint.getFiles().size() + " files to " + checkpointFile);
+    }
+
+    /**
+     * Describes the current identity of a file; the offset is left at 0.
+     */
+    public static FileCheckpoint identify(String filePath) throws IOException {
+        Path path = Path.of(filePath);
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        FileCheckpoint identity = new FileCheckpoint();
+        identity.setPath(filePath);
+        identity.setFileKey(attributes.fileKey() != null ? attributes.fileKey().toString() : null);
+        identity.setSize(attributes.size());
+        identity.setHeadLength((int) Math.min(HEAD_LENGTH, attributes.size()));
+        identity.setHeadHash(headHash(path, identity.getHeadLength()));
+        return identity;
+    }
+
+    /**
+     * Finds the saved state of a file, first under its path and then, for rotated files that
+     * were renamed, among all saved files. Returns null if the file has not been seen before.
+     *
+     * @param mustMatchSize whether the file must be unchanged, as for compressed files
+     */
+    public static FileCheckpoint find(Checkpoint checkpoint, FileCheckpoint current, boolean mustMatchSize)
+            throws IOException {
+        FileCheckpoint saved = checkpoint.getFiles().get(current.getPath());
+        if (saved != null && isSameFile(saved, current, mustMatchSize)) {
+            return saved;
+        }
+        for (FileCheckpoint candidate : checkpoint.getFiles().values()) {
+            if (candidate != saved && isSameFile(candidate, current, mustMatchSize)) {
+                logger.info("Matched " + current.getPath() + " to earlier checkpoint of " + candidate.getPath());
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isSameFile(FileCheckpoint saved, FileCheckpoint current, boolean mustMatchSize)
+            throws IOException {
+        if (saved.getFileKey() != null && current.getFileKey() != null
+                && !saved.getFileKey().equals(current.getFileKey())) {
+            return false;
+        }
+        if (current.getSize() < saved.getOffset() || (mustMatchSize && current.getSize() != saved.getSize())) {
+            return false; // Truncated or rewritten
+        }
+        if (saved.getHeadLength() == current.getHeadLength()) {
+            return saved.getHeadHash().equals(current.getHeadHash());
+        }
+        // The file has grown past the head saved last time, so hash the same number of bytes again
+        return current.getSize() >= saved.getHeadLength()
+                && saved.getHeadHash().equals(headHash(Path.of(current.getPath()), saved.getHeadLength()));
+    }
+
+    private static String headHash(Path path, int length) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (head.hasRemaining() && channel.read(head) > 0) {
+                // Keep reading until the head is full
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(head.array(), 0, head.position());
+        return Long.toHexString(crc.getValue());
+    }
+
+    /**
+     * Describes the filter and aggregator configuration from their classes and {@link Parameter}
+     * fields. A checkpoint written with a different configuration is not resumed.
+     */
+    public static String signature(List<LogFilter> filters, List<LogAggregator> aggregators) {
+        StringBuilder signature = new StringBuilder();
+        for (Object stage : filters) {
+            appendStage(signature, stage);
+        }
+        for (Object stage : aggregators) {
+            appendStage(signature, stage);
+        }
+        return signature.toString();
+    }
+
+    private static void appendStage(StringBuilder signature, Object stage) {
+        signature.append(stage.getClass().getName()).append('{');
+        for (Field field : stage.getClass().getDeclaredFields()) {
+            if (field.isAnnotationPresent(Parameter.class)) {
+                try {
+                    field.setAccessible(true);
+                    signature.append(field.getName()).append('=').append(field.get(stage)).append(';');
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    signature.append(field.getName()).append("=?;");
+                }
+            }
+        }
+        signature.append('}');
+    }
+}
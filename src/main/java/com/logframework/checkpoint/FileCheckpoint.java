@@ -0,0 +1,36 @@
+package com.logframework.checkpoint;
+
+/**
+ * What a previous run knew about one file: how to recognise it again and how far it was read.
+ */
+public class FileCheckpoint {
+    private String path;
+    private String fileKey;   // e.g. device and inode, null where the file system has none
+    private long size;
+    private int headLength;
+    private String headHash;  // CRC32 of the first headLength bytes
+    private long offset;      // end of the last complete line processed
+
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+
+    public String getFileKey() { return fileKey; }
+    public void setFileKey(String fileKey) { this.fileKey = fileKey; }
+
+    public long getSize() { return size; }
+    public void setSize(long size) { this.size = size; }
+
+    public int getHeadLength() { return headLength; }
+    public void setHeadLength(int headLength) { this.headLength = headLength; }
+
+    public String getHeadHash() { return headHash; }
+    public void setHeadHash(String headHash) { this.headHash = headHash; }
+
+    public long getOffset() { return offset; }
+    public void setOffset(long offset) { this.offset = offset; }
+
+    @Override
+    public String toString() {
+        return String.format("%s[key=%s, size=%d, offset=%d]", path, fileKey, size, offset);
+    }
+}
@@ -1,7 +1,76 @@
 package com.logframework.filter;
 
+import com.logframework.model.LogBatch;
 import com.logframework.model.LogEntry;
+import com.logframework.parser.LogParser;
+
+import java.util.Set;
+import java.util.function.Predicate;
 
 public interface LogFilter {
     boolean matches(LogEntry entry);
+
+    /**
+     * Keeps the entries among the first count that match, moving them to the front of the
+     * array in their original order. Slots after the returned count are left undefined.
+     *
+     * @return the number of matching entries
+     */
+    default int matchBatch(LogEntry[] entries, int count) {
+        int matched = 0;
+        for (int i = 0; i < count; i++) {
+            if (matches(entries[i])) {
+                entries[matched++] = entries[i];
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Returns a test of the raw events the parser turns into entries, run before parsing so
+     * that events which cannot match are not parsed at all. The test may accept events whose
+     * entries this filter then rejects, but must accept every event whose entry it would
+     * match. Each call returns a new predicate for use by one thread.
+     *
+     * @return the test, or null if this filter cannot judge the parser's events, the default
+     */
+    default Predicate<CharSequence> newEventPredicate(LogParser parser) {
+        return null;
+    }
+
+    /**
+     * Indicates whether {@link #matchColumns(LogBatch)} can evaluate this filter. The columnar
+     * engine is only used when every filter and aggregator supports it.
+     */
+    default boolean supportsColumns() {
+        return false;
+    }
+
+    /**
+     * Columnar variant of {@link #matchBatch(LogEntry[], int)}: removes the rows that do not
+     * match from the batch's selection, keeping the order of the others.
+     */
+    default void matchColumns(LogBatch batch) {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support columnar batches");
+    }
+
+    /**
+     * Returns the entry fields this filter reads: "timestamp", "level", "message", "source"
+     * or attribute names. Parsers skip fields no filter or aggregator reads.
+     *
+     * @return the fields, or null if unknown, which keeps every field
+     */
+    default Set<String> getRequiredFields() {
+        return null;
+    }
+
+    /**
+     * Returns an instance that a parallel worker can use on its own thread.
+     * Filters are stateless once configured and keep no reference to the entries they test,
+     * so the default shares this instance; filters that keep mutable state must return a
+     * fresh copy.
+     */
+    default LogFilter copy() {
+        return this;
+    }
 }
@@ -1,6 +1,14 @@
 package com.logframework.filter;
 
+import com.logframework.model.FieldDictionaries;
+import com.logframework.model.FieldDictionary;
+import com.logframework.model.LogBatch;
 import com.logframework.model.LogEntry;
+import com.logframework.parser.LogParser;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.logging.Logger;
 
@@ -22,16 +30,36 @@ public class RegexFilter implements LogFilter {
     private String regex;
 
     private Pattern pattern;
+    private RequiredLiterals literals; // null = the regex requires no known literal
+    private byte[] verdicts = new byte[0]; // By dictionary code of the field's value, see VERDICT_*
+    private FieldDictionaries verdictDictionaries; // Dictionaries the codes of the verdicts belong to
+
+    private static final byte VERDICT_UNKNOWN = 0;
+    private static final byte VERDICT_MATCH = 1;
+    private static final byte VERDICT_NO_MATCH = 2;
+
+    private static final Set<String> COLUMN_FIELDS = Set.of("level", "method", "message", "path", "source");
 
     public void setField(String field) {
         logger.info("Setting field to: " + field);
         this.field = field;
+        this.verdicts = new byte[0];
     }
 
     public void setRegex(String regex) {
         logger.info("Setting regex pattern to: " + regex);
         this.regex = regex;
         this.pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+        this.literals = RequiredLiterals.of(regex);
+        this.verdicts = new byte[0];
+        if (literals != null) {
+            logger.fine("Regex requires " + literals);
+        }
+    }
+
+    @Override
+    public Set<String> getRequiredFields() {
+        return field == null || regex == null ? Set.of() : Set.of(field);
     }
 
     @Override
@@ -41,27 +69,192 @@ public class RegexFilter implements LogFilter {
             return true; // If not configured, do not filter out anything
         }
 
-        Object value = null;
+        Object value = fieldValue(entry);
+        if (value == null) {
+            logger.fine("LogEntry missing field '" + field + "', skipping.");
+            return false;
+        }
+        boolean result = find(pattern.matcher(""), value.toString());
+        logger.finer("Filtering entry: field='" + field + "', value='" + value + "', matches=" + result);
+        return result;
+    }
+
+    /**
+     * Reuses one matcher for the whole batch. For dictionary encoded fields the regex runs once
+     * per distinct value and the verdict is looked up by the value's code afterwards.
+     */
+    @Override
+    public int matchBatch(LogEntry[] entries, int count) {
+        if (field == null || regex == null) {
+            logger.warning("Field or regex not set. Skipping filter.");
+            return count;
+        }
+        Matcher matcher = pattern.matcher("");
+        boolean encoded = FieldDictionary.isEncoded(field);
+        int matched = 0;
+        for (int i = 0; i < count; i++) {
+            int code = encoded ? entries[i].getCode(field) : -1;
+            boolean matches;
+            if (code >= 0) {
+                useDictionaries(entries[i].getDictionaries());
+                matches = matchesCode(code, entries[i], matcher);
+            } else {
+                Object value = fieldValue(entries[i]);
+                matches = value != null && find(matcher, value.toString());
+            }
+            if (matches) {
+                entries[matched++] = entries[i];
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Drops the cached verdicts when codes of other dictionaries come in, such as those of
+     * the next run, as the same codes stand for other values there. Null, for batches without
+     * codes, keeps the verdicts.
+     */
+    private void useDictionaries(FieldDictionaries dictionaries) {
+        if (dictionaries != null && dictionaries != verdictDictionaries) {
+            verdicts = new byte[0];
+            verdictDictionaries = dictionaries;
+        }
+    }
+
+    private boolean matchesCode(int code, LogEntry entry, Matcher matcher) {
+        byte verdict = verdict(code);
+        return verdict == VERDICT_UNKNOWN ? learn(code, fieldValue(entry), matcher) : verdict == VERDICT_MATCH;
+    }
+
+    /**
+     * Returns the cached verdict for a code, growing the cache as needed.
+     */
+    private byte verdict(int code) {
+        if (code >= verdicts.length) {
+            verdicts = Arrays.copyOf(verdicts, Math.max(code + 1, verdicts.length * 2));
+        }
+        return verdicts[code];
+    }
+
+    /**
+     * Matches the value of an encoded field and caches the verdict under its code.
+     */
+    private boolean learn(int code, Object value, Matcher matcher) {
+        boolean matches = value != null && find(matcher, value.toString());
+        verdicts[code] = matches ? VERDICT_MATCH : VERDICT_NO_MATCH;
+        return matches;
+    }
+
+    /**
+     * Screens the value with the literals the regex requires before running it; a regex made
+     * of literals only is not run at all.
+     */
+    private boolean find(Matcher matcher, CharSequence value) {
+        RequiredLiterals required = literals;
+        if (required != null) {
+            if (!required.foundIn(value)) {
+                return false;
+            }
+            if (required.isExact()) {
+                return true;
+            }
+        }
+        return matcher.reset(value).find();
+    }
+
+    /**
+     * When the parser copies the field verbatim, an event without any of the literals the
+     * regex requires cannot match. The source is not part of the event.
+     */
+    @Override
+    public Predicate<CharSequence> newEventPredicate(LogParser parser) {
+        RequiredLiterals required = literals;
+        if (field == null || required == null || "source".equals(field) || !parser.isVerbatim(field)) {
+            return null;
+        }
+        return required::foundIn;
+    }
+
+    /**
+     * The level, method, message, path and source have columns.
+     */
+    @Override
+    public boolean supportsColumns() {
+        return field == null || regex == null || COLUMN_FIELDS.contains(field);
+    }
+
+    /**
+     * Encoded columns are matched by code as in {@link #matchBatch(LogEntry[], int)}; the
+     * message and path are matched where they lie in the batch's arena, without copying them.
+     */
+    @Override
+    public void matchColumns(LogBatch batch) {
+        if (field == null || regex == null) {
+            logger.warning("Field or regex not set. Skipping filter.");
+            return;
+        }
+        useDictionaries(batch.getDictionaries());
+        Matcher matcher = pattern.matcher("");
+        LogBatch.Text text = new LogBatch.Text();
+        int[] selection = batch.getSelection();
+        int count = batch.getSelectedCount();
+        int matched = 0;
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            if (matchesRow(batch, row, matcher, text)) {
+                selection[matched++] = row;
+            }
+        }
+        batch.setSelectedCount(matched);
+    }
+
+    private boolean matchesRow(LogBatch batch, int row, Matcher matcher, LogBatch.Text text) {
         switch (field) {
             case "level":
-                value = entry.getLevel();
-                break;
+                return matchesColumn(batch.getLevelCode(row), batch.getLevel(row), matcher);
+            case "method":
+                return matchesColumn(batch.getMethodCode(row), batch.getMethod(row), matcher);
             case "message":
-                value = entry.getMessage();
-                break;
-            case "source":
-                value = entry.getSource();
-                break;
+                return batch.getMessage(row, text) && find(matcher, text);
+            case "path":
+                return batch.getPath(row, text) && find(matcher, text);
             default:
-                value = entry.getAttribute(field);
+                String source = batch.getSource(row);
+                return source != null && find(matcher, source);
         }
+    }
 
-        if (value == null) {
-            logger.fine("LogEntry missing field '" + field + "', skipping.");
-            return false;
+    private boolean matchesColumn(int code, String value, Matcher matcher) {
+        if (code < 0) {
+            return value != null && find(matcher, value);
+        }
+        byte verdict = verdict(code);
+        return verdict == VERDICT_UNKNOWN ? learn(code, value, matcher) : verdict == VERDICT_MATCH;
+    }
+
+    /**
+     * The verdict cache is per instance, so every worker gets its own copy.
+     */
+    @Override
+    public LogFilter copy() {
+        RegexFilter copy = new RegexFilter();
+        copy.field = field;
+        copy.regex = regex;
+        copy.pattern = pattern;
+        copy.literals = literals;
+        return copy;
+    }
+
+    private Object fieldValue(LogEntry entry) {
+        switch (field) {
+            case "level":
+                return entry.getLevel();
+            case "message":
+                return entry.getMessage();
+            case "source":
+                return entry.getSource();
+            default:
+                return entry.getAttribute(field);
         }
-        boolean result = pattern.matcher(value.toString()).find();
-        logger.finer("Filtering entry: field='" + field + "', value='" + value + "', matches=" + result);
-        return result;
     }
 }
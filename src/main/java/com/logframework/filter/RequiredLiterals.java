@@ -0,0 +1,450 @@
+package com.logframework.filter;
+
+import com.logframework.util.CharSequences;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Literals of which every match of a regex contains at least one, found by a light analysis
+ * of the pattern: each top-level alternative contributes its longest run of literal
+ * characters that no quantifier makes optional. Values without any of the literals cannot
+ * match, so they are rejected without running the regex. When the whole regex is an
+ * alternation of literals, optionally between {@code .*}, finding a literal is the match.
+ * <p>
+ * Literals are compared like a regex compiled with {@link java.util.regex.Pattern#CASE_INSENSITIVE}:
+ * ASCII letters without regard to case, other characters exactly. Patterns the analysis does
+ * not understand, such as lookarounds or inline flags, yield no literals. Instances are
+ * immutable and shared between threads.
+ */
+final class RequiredLiterals {
+    private static final int ASCII = 128;
+
+    private final String[] literals; // ASCII letters in lower case
+    private final boolean exact;
+    private final int minLength;
+
+    // A single literal is searched with Boyer-Moore-Horspool shifts by folded character
+    private final int[] shifts;
+    private final int nonAsciiShift;
+
+    // Several literals are searched by their first characters
+    private final boolean[] firstChars;
+    private final boolean nonAsciiFirstChar;
+
+    private RequiredLiterals(Set<String> literals, boolean exact) {
+        this.literals = literals.toArray(new String[0]);
+        this.exact = exact;
+        this.minLength = Arrays.stream(this.literals).mapToInt(String::length).min().orElse(0);
+        if (this.literals.length == 1) {
+            String literal = this.literals[0];
+            int last = literal.length() - 1;
+            shifts = new int[ASCII];
+            Arrays.fill(shifts, literal.length());
+            int nonAscii = literal.length();
+            for (int i = 0; i < last; i++) {
+                char c = literal.charAt(i);
+                if (c < ASCII) {
+                    shifts[c] = last - i;
+                } else {
+                    nonAscii = last - i;
+                }
+            }
+            nonAsciiShift = nonAscii;
+            firstChars = null;
+            nonAsciiFirstChar = false;
+        } else {
+            shifts = null;
+            nonAsciiShift = 0;
+            firstChars = new boolean[ASCII];
+            boolean nonAscii = false;
+            for (String literal : this.literals) {
+                char c = literal.charAt(0);
+                if (c < ASCII) {
+                    firstChars[c] = true;
+                } else {
+                    nonAscii = true;
+                }
+            }
+            nonAsciiFirstChar = nonAscii;
+        }
+    }
+
+    /**
+     * Analyzes the regex.
+     *
+     * @return the literals, or null if the analysis finds none that a match must contain
+     */
+    static RequiredLiterals of(String regex) {
+        Set<String> literals = new LinkedHashSet<>();
+        Boolean exact = analyze(regex, literals);
+        return exact == null ? null : new RequiredLiterals(literals, exact);
+    }
+
+    List<String> getLiterals() {
+        return List.of(literals);
+    }
+
+    /**
+     * Indicates whether finding a literal is the same as matching the regex.
+     */
+    boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * Indicates whether the text contains one of the literals.
+     */
+    boolean foundIn(CharSequence text) {
+        return shifts != null ? findSingle(text) : findAny(text);
+    }
+
+    private boolean findSingle(CharSequence text) {
+        String literal = literals[0];
+        int last = literal.length() - 1;
+        char lastChar = literal.charAt(last);
+        for (int pos = 0, end = text.length() - last; pos < end; ) {
+            char c = CharSequences.toLowerAscii(text.charAt(pos + last));
+            if (c == lastChar && matchesAt(text, pos, literal, last)) {
+                return true;
+            }
+            pos += c < ASCII ? shifts[c] : nonAsciiShift;
+        }
+        return false;
+    }
+
+    private boolean findAny(CharSequence text) {
+        for (int pos = 0, end = text.length() - minLength; pos <= end; pos++) {
+            char c = CharSequences.toLowerAscii(text.charAt(pos));
+            if (c < ASCII ? !firstChars[c] : !nonAsciiFirstChar) {
+                continue;
+            }
+            for (String literal : literals) {
+                if (literal.charAt(0) == c && pos + literal.length() <= text.length()
+                        && matchesAt(text, pos, literal, literal.length())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compares the first length characters of the literal with the text at pos.
+     */
+    private static boolean matchesAt(CharSequence text, int pos, String literal, int length) {
+        for (int i = 0; i < length; i++) {
+            if (CharSequences.toLowerAscii(text.charAt(pos + i)) != literal.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds one literal per top-level alternative.
+     *
+     * @return whether the literals are exact, or null if an alternative has no literal
+     */
+    private static Boolean analyze(String regex, Set<String> literals) {
+        if (regex.contains("\\Q") || hasSpecialGroup(regex)) {
+            return null;
+        }
+        boolean exact = true;
+        for (String alternative : alternatives(regex)) {
+            String body = alternative;
+            if (body.startsWith(".*")) {
+                body = body.substring(2);
+            }
+            if (body.endsWith(".*") && !isEscaped(body, body.length() - 2)) {
+                body = body.substring(0, body.length() - 2);
+            }
+            if (body.startsWith("(") && groupEnd(body, 0) == body.length() - 1) {
+                // A whole group, such as (Exception|Error), is analyzed as its content
+                int start = body.startsWith("(?:") ? 3 : 1;
+                Boolean groupExact = analyze(body.substring(start, body.length() - 1), literals);
+                if (groupExact == null) {
+                    return null;
+                }
+                exact &= groupExact;
+                continue;
+            }
+            String literal = longestLiteral(body);
+            if (literal == null) {
+                return null;
+            }
+            exact &= literal.length() == literalLength(body);
+            literals.add(literal);
+        }
+        return exact;
+    }
+
+    /**
+     * Returns the longest required run of literal characters in lower case, or null.
+     */
+    private static String longestLiteral(String regex) {
+        String longest = "";
+        StringBuilder run = new StringBuilder();
+        int i = 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            int atomEnd;
+            char literal;
+            boolean isLiteral;
+            if (c == '\\') {
+                if (i + 1 == regex.length()) {
+                    return null;
+                }
+                literal = regex.charAt(i + 1);
+                isLiteral = !Character.isLetterOrDigit(literal); // \d, \b, \t, \x41 and the like are not literals
+                atomEnd = escapeEnd(regex, i);
+            } else if (c == '(') {
+                literal = 0;
+                isLiteral = false;
+                atomEnd = groupEnd(regex, i) + 1;
+            } else if (c == '[') {
+                literal = 0;
+                isLiteral = false;
+                atomEnd = classEnd(regex, i) + 1;
+            } else {
+                literal = c;
+                isLiteral = ".^$*+?{|)]}".indexOf(c) < 0;
+                atomEnd = i + 1;
+            }
+            if (atomEnd <= i) {
+                return null; // Unbalanced, which the compiled pattern does not allow
+            }
+            int quantifierEnd = quantifierEnd(regex, atomEnd);
+            boolean optional = quantifierEnd > atomEnd && isOptional(regex, atomEnd);
+            if (isLiteral && !optional) {
+                run.append(CharSequences.toLowerAscii(literal));
+            }
+            if (!isLiteral || quantifierEnd > atomEnd) {
+                if (run.length() > longest.length()) {
+                    longest = run.toString();
+                }
+                run.setLength(0);
+            }
+            i = quantifierEnd;
+        }
+        if (run.length() > longest.length()) {
+            longest = run.toString();
+        }
+        return longest.isEmpty() ? null : longest;
+    }
+
+    /**
+     * Returns the number of literal characters if the regex consists of unquantified literal
+     * characters only, or -1.
+     */
+    private static int literalLength(String regex) {
+        int length = 0;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                if (++i == regex.length() || Character.isLetterOrDigit(regex.charAt(i))) {
+                    return -1;
+                }
+            } else if (".^$*+?{}()[]|".indexOf(c) >= 0) {
+                return -1;
+            }
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Splits the regex at the alternation bars outside groups and character classes.
+     */
+    private static List<String> alternatives(String regex) {
+        List<String> alternatives = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i = escapeEnd(regex, i) - 1;
+            } else if (c == '(') {
+                i = Math.max(i, groupEnd(regex, i));
+            } else if (c == '[') {
+                i = Math.max(i, classEnd(regex, i));
+            } else if (c == '|') {
+                alternatives.add(regex.substring(start, i));
+                start = i + 1;
+            }
+        }
+        alternatives.add(regex.substring(start));
+        return alternatives;
+    }
+
+    /**
+     * Finds groups other than plain and non-capturing ones: lookarounds, named groups and
+     * inline flags, which may change what the rest of the pattern means.
+     */
+    private static boolean hasSpecialGroup(String regex) {
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i = escapeEnd(regex, i) - 1;
+            } else if (c == '[') {
+                i = Math.max(i, classEnd(regex, i));
+            } else if (c == '(' && i + 1 < regex.length() && regex.charAt(i + 1) == '?'
+                    && (i + 2 == regex.length() || regex.charAt(i + 2) != ':')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the index of the parenthesis closing the group at start, or -1.
+     */
+    private static int groupEnd(String regex, int start) {
+        int depth = 0;
+        for (int i = start; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i = escapeEnd(regex, i) - 1;
+            } else if (c == '[') {
+                i = classEnd(regex, i);
+                if (i < 0) {
+                    return -1;
+                }
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the bracket closing the character class at start, or -1. Nested
+     * classes, as in {@code [a-z&&[^x]]}, are skipped with it.
+     */
+    private static int classEnd(String regex, int start) {
+        int depth = 0;
+        for (int i = start; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i = escapeEnd(regex, i) - 1;
+            } else if (c == '[') {
+                depth++;
+                if (i + 1 < regex.length() && regex.charAt(i + 1) == '^') {
+                    i++;
+                }
+                if (i + 1 < regex.length() && regex.charAt(i + 1) == ']') {
+                    i++; // A leading ']' is literal
+                }
+            } else if (c == ']' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the end of the quantifier at pos, including a lazy or possessive suffix, or pos
+     * if there is none.
+     */
+    private static int quantifierEnd(String regex, int pos) {
+        if (pos >= regex.length()) {
+            return pos;
+        }
+        char c = regex.charAt(pos);
+        int end;
+        if (c == '*' || c == '+' || c == '?') {
+            end = pos + 1;
+        } else if (c == '{') {
+            int close = regex.indexOf('}', pos);
+            end = close < 0 ? pos : close + 1;
+        } else {
+            return pos;
+        }
+        if (end < regex.length() && (regex.charAt(end) == '?' || regex.charAt(end) == '+')) {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * Indicates whether the quantifier at pos allows zero repetitions.
+     */
+    private static boolean isOptional(String regex, int pos) {
+        char c = regex.charAt(pos);
+        if (c == '{') {
+            int i = pos + 1;
+            while (i < regex.length() && regex.charAt(i) == '0') {
+                i++;
+            }
+            return i < regex.length() && !Character.isDigit(regex.charAt(i));
+        }
+        return c != '+';
+    }
+
+    /**
+     * Returns the end of the escape sequence at pos, including the arguments of escapes such
+     * as {@code \x41}, {@code \u0041}, {@code \cA}, {@code \p{Alpha}} or {@code \k<name>}.
+     */
+    private static int escapeEnd(String regex, int pos) {
+        int end = Math.min(pos + 2, regex.length());
+        if (end < pos + 2) {
+            return end;
+        }
+        switch (regex.charAt(pos + 1)) {
+            case 'c':
+                return Math.min(end + 1, regex.length());
+            case '0':
+                while (end < regex.length() && end < pos + 5 && regex.charAt(end) >= '0' && regex.charAt(end) <= '7') {
+                    end++;
+                }
+                return end;
+            case 'u':
+                return Math.min(end + 4, regex.length());
+            case 'x':
+                return bracedEnd(regex, end, '{', '}', 2);
+            case 'p':
+            case 'P':
+                return bracedEnd(regex, end, '{', '}', 1);
+            case 'N':
+                return bracedEnd(regex, end, '{', '}', 0);
+            case 'k':
+                return bracedEnd(regex, end, '<', '>', 0);
+            default:
+                if (Character.isDigit(regex.charAt(pos + 1))) {
+                    while (end < regex.length() && Character.isDigit(regex.charAt(end))) {
+                        end++; // A back reference; the digits that follow may belong to it
+                    }
+                }
+                return end;
+        }
+    }
+
+    /**
+     * Returns the end of an argument between open and close at pos, or pos plus length if the
+     * argument is not braced.
+     */
+    private static int bracedEnd(String regex, int pos, char open, char close, int length) {
+        if (pos < regex.length() && regex.charAt(pos) == open) {
+            int end = regex.indexOf(close, pos);
+            return end < 0 ? regex.length() : end + 1;
+        }
+        return Math.min(pos + length, regex.length());
+    }
+
+    private static boolean isEscaped(String regex, int pos) {
+        int backslashes = 0;
+        for (int i = pos - 1; i >= 0 && regex.charAt(i) == '\\'; i--) {
+            backslashes++;
+        }
+        return backslashes % 2 == 1;
+    }
+
+    @Override
+    public String toString() {
+        return (exact ? "exactly " : "") + String.join(" | ", literals);
+    }
+}
@@ -1,8 +1,13 @@
 package com.logframework.filter;
 
+import com.logframework.model.LogBatch;
 import com.logframework.model.LogEntry;
+import com.logframework.parser.LogParser;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 import java.util.logging.Logger;
 
 @Description("Filters log entries to only include those within a specified time range.")
@@ -18,11 +23,19 @@ public class TimeRangeFilter implements LogFilter {
     private OffsetDateTime start;
     private OffsetDateTime end;
 
+    // The bounds as epoch seconds and nanos, for the batch methods
+    private long startSecond = Long.MIN_VALUE;
+    private int startNano;
+    private long endSecond = Long.MAX_VALUE;
+    private int endNano = Integer.MAX_VALUE;
+
     public void setStartTime(String startTime) {
         logger.info("Setting startTime to: " + startTime);
         this.startTime = startTime;
         if (startTime != null && !startTime.isEmpty()) {
             this.start = OffsetDateTime.parse(startTime, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+            this.startSecond = start.toEpochSecond();
+            this.startNano = start.getNano();
         }
     }
 
@@ -31,9 +44,16 @@ public class TimeRangeFilter implements LogFilter {
         this.endTime = endTime;
         if (endTime != null && !endTime.isEmpty()) {
             this.end = OffsetDateTime.parse(endTime, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+            this.endSecond = end.toEpochSecond();
+            this.endNano = end.getNano();
         }
     }
 
+    @Override
+    public Set<String> getRequiredFields() {
+        return Set.of("timestamp");
+    }
+
     @Override
     public boolean matches(LogEntry entry) {
         OffsetDateTime ts = entry.getTimestamp();
@@ -47,4 +67,64 @@ public class TimeRangeFilter implements LogFilter {
         logger.finer("Filtering entry: timestamp=" + ts + ", afterStart=" + afterStart + ", beforeEnd=" + beforeEnd + ", matches=" + result);
         return result;
     }
+
+    /**
+     * Compares epoch seconds and nanos directly, without the per-entry logging.
+     */
+    @Override
+    public int matchBatch(LogEntry[] entries, int count) {
+        int matched = 0;
+        for (int i = 0; i < count; i++) {
+            LogEntry entry = entries[i];
+            if (entry.hasTimestamp() && inRange(entry.getEpochSecond(), entry.getNano())) {
+                entries[matched++] = entries[i];
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Reads the timestamp ahead with the parser's timestamp reader and rejects events whose
+     * second lies outside the range; events in the boundary seconds are left to the parsed
+     * check.
+     */
+    @Override
+    public Predicate<CharSequence> newEventPredicate(LogParser parser) {
+        if (start == null && end == null) {
+            return null;
+        }
+        ToLongFunction<CharSequence> timestamps = parser.newTimestampReader();
+        if (timestamps == null) {
+            return null;
+        }
+        return event -> {
+            long second = timestamps.applyAsLong(event);
+            return second == LogParser.UNKNOWN_SECOND || (second >= startSecond && second <= endSecond);
+        };
+    }
+
+    @Override
+    public boolean supportsColumns() {
+        return true;
+    }
+
+    @Override
+    public void matchColumns(LogBatch batch) {
+        int[] selection = batch.getSelection();
+        int count = batch.getSelectedCount();
+        int matched = 0;
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            if (batch.hasTimestamp(row) && inRange(batch.getEpochSecond(row), batch.getNano(row))) {
+                selection[matched++] = row;
+            }
+        }
+        batch.setSelectedCount(matched);
+    }
+
+    private boolean inRange(long second, int nano) {
+        boolean afterStart = second > startSecond || (second == startSecond && nano >= startNano);
+        boolean beforeEnd = second < endSecond || (second == endSecond && nano <= endNano);
+        return afterStart && beforeEnd;
+    }
 }
@@ -0,0 +1,74 @@
+package com.logframework.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A CharSequence view over pure ASCII bytes, so a line can be inspected without
+ * decoding it into a String first. Only the parts that are kept get copied.
+ */
+final class AsciiLine implements CharSequence {
+    private ByteBuffer buffer;
+    private int offset;
+    private int length;
+
+    void set(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new StringIndexOutOfBoundsException(index);
+        }
+        return (char) buffer.get(offset + index);
+    }
+
+    /**
+     * Returns the index of the first c in [from, to), or -1, using the selected {@link ByteScanner}.
+     */
+    int indexOf(char c, int from, int to) {
+        if (c >= 0x80) {
+            return -1;
+        }
+        int index = ByteScanner.get().indexOf(buffer, offset + from, offset + to, (byte) c);
+        return index < 0 ? -1 : index - offset;
+    }
+
+    /**
+     * Copies the line's bytes into the array at the offset.
+     */
+    void copyTo(byte[] target, int targetOffset) {
+        buffer.get(offset, target, targetOffset, length);
+    }
+
+    /**
+     * Returns a String copy, since callers asking for a sub-sequence (e.g. regex groups)
+     * keep the result beyond the lifetime of this view.
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new StringIndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        }
+        return copy(offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return copy(offset, length);
+    }
+
+    private String copy(int from, int count) {
+        byte[] bytes = new byte[count];
+        buffer.duplicate().position(from).get(bytes, 0, count);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
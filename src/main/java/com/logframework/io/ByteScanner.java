@@ -0,0 +1,74 @@
+package com.logframework.io;
+
+import java.nio.ByteBuffer;
+import java.util.logging.Logger;
+
+/**
+ * Finds delimiters in byte buffers several bytes at a time. The line readers and the file
+ * tailer use it to find line ends and non-ASCII bytes, and tokenizers use
+ * {@link #indexOf(CharSequence, char, int, int)} to find delimiters in lines handed out by the readers.
+ * <p>
+ * When the build includes {@code VectorByteScanner} (the {@code vector} Maven profile) and the
+ * runtime resolves the {@code jdk.incubator.vector} module, heap and mapped buffers are scanned
+ * with the Vector API, 32 or 64 bytes at a time depending on the CPU. Otherwise 8 bytes are
+ * tested at a time in a long.
+ */
+public abstract class ByteScanner {
+    private static final Logger logger = Logger.getLogger(ByteScanner.class.getName());
+
+    private static final ByteScanner INSTANCE = select();
+
+    ByteScanner() {
+    }
+
+    /**
+     * Returns the scanner selected for this runtime.
+     */
+    public static ByteScanner get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the index of the first byte equal to value in [from, to) of the buffer, or -1.
+     * Indexes are absolute; the buffer's position and limit are ignored.
+     */
+    public abstract int indexOf(ByteBuffer buffer, int from, int to, byte value);
+
+    /**
+     * Indicates whether every byte in [from, to) of the buffer is below 0x80.
+     */
+    public abstract boolean isAscii(ByteBuffer buffer, int from, int to);
+
+    public abstract String getName();
+
+    /**
+     * Returns the index of the first c in [from, to) of the line, or -1. Lines that are views
+     * over ASCII bytes are scanned with the selected scanner; others are scanned char by char.
+     */
+    public static int indexOf(CharSequence line, char c, int from, int to) {
+        if (line instanceof AsciiLine) {
+            return ((AsciiLine) line).indexOf(c, from, to);
+        }
+        for (int i = from; i < to; i++) {
+            if (line.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static ByteScanner select() {
+        try {
+            ByteScanner scanner = (ByteScanner) Class.forName("com.logframework.io.VectorByteScanner")
+                    .getDeclaredConstructor().newInstance();
+            logger.fine("Scanning bytes with the " + scanner.getName());
+            return scanner;
+        } catch (ClassNotFoundException e) {
+            logger.fine("Built without the Vector API scanner");
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            // The class is there but jdk.incubator.vector was not added to the runtime
+            logger.fine("Vector API is not available on this runtime: " + e);
+        }
+        return new SwarByteScanner();
+    }
+}
@@ -0,0 +1,85 @@
+package com.logframework.io;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Collects copies of events that are only valid during a call, such as the reused lines of
+ * a {@link LineReader}, so they can be parsed as a batch. ASCII events are copied into one
+ * byte arena and handed out as views over it, so tokenizers keep scanning them with the
+ * {@link ByteScanner}; other events are copied into Strings. The views are valid until
+ * {@link #clear()}. Not thread-safe.
+ */
+public final class EventBuffer {
+    private final CharSequence[] events;
+    private final AsciiLine[] views;
+    private ByteBuffer arena = ByteBuffer.allocate(64 * 1024);
+    private int size;
+
+    public EventBuffer(int capacity) {
+        this.events = new CharSequence[Math.max(1, capacity)];
+        this.views = new AsciiLine[events.length];
+    }
+
+    /**
+     * Copies the event into the buffer, which must not be full.
+     */
+    public void add(CharSequence event) {
+        int length = event.length();
+        if (arena.capacity() - arena.position() < length) {
+            // Views handed out so far keep the old arena
+            arena = ByteBuffer.allocate(Math.max(length, arena.capacity() * 2));
+        }
+        int start = arena.position();
+        if (!copyAscii(event, start, length)) {
+            arena.position(start);
+            events[size++] = event.toString();
+            return;
+        }
+        arena.position(start + length);
+        AsciiLine view = views[size];
+        if (view == null) {
+            view = views[size] = new AsciiLine();
+        }
+        view.set(arena, start, length);
+        events[size++] = view;
+    }
+
+    private boolean copyAscii(CharSequence event, int start, int length) {
+        if (event instanceof AsciiLine) {
+            ((AsciiLine) event).copyTo(arena.array(), arena.arrayOffset() + start);
+            return true;
+        }
+        byte[] bytes = arena.array();
+        int offset = arena.arrayOffset() + start;
+        for (int i = 0; i < length; i++) {
+            char c = event.charAt(i);
+            if (c >= 0x80) {
+                return false;
+            }
+            bytes[offset + i] = (byte) c;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the events added since the last {@link #clear()}, at the front of the array.
+     */
+    public CharSequence[] getEvents() {
+        return events;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == events.length;
+    }
+
+    public void clear() {
+        Arrays.fill(events, 0, size, null);
+        size = 0;
+        arena.clear();
+    }
+}
@@ -0,0 +1,36 @@
+package com.logframework.io;
+
+import java.io.IOException;
+
+/**
+ * A byte range [start, end) of a log file. Segments produced by {@link FileSplitter}
+ * always start at the beginning of a line (or of a multi-line event).
+ */
+public class FileSegment {
+    private final String filePath;
+    private final long start;
+    private final long end;
+
+    public FileSegment(String filePath, long start, long end) {
+        this.filePath = filePath;
+        this.start = start;
+        this.end = end;
+    }
+
+    public String getFilePath() { return filePath; }
+    public long getStart() { return start; }
+    public long getEnd() { return end; }
+    public long length() { return end - start; }
+
+    /**
+     * Opens a reader that returns only the lines inside this segment.
+     */
+    public LineReader openLineReader() throws IOException {
+        return new MappedLineReader(filePath, start, end);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[%d-%d]", filePath, start, end);
+    }
+}
@@ -0,0 +1,190 @@
+package com.logframework.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.function.Predicate;
+
+/**
+ * Splits large log files into byte ranges that can be processed independently.
+ * Every boundary falls right after a newline; for multi-line formats the boundary
+ * is moved forward to the next line matching the parser's start pattern, so that
+ * no event is cut in half.
+ */
+public final class FileSplitter {
+    private static final Logger logger = Logger.getLogger(FileSplitter.class.getName());
+
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+    private FileSplitter() {
+    }
+
+    /**
+     * A decoded line together with the byte offset just past its terminator.
+     */
+    public static class Line {
+        private final String text;
+        private final long end;
+
+        Line(String text, long end) {
+            this.text = text;
+            this.end = end;
+        }
+
+        public String getText() { return text; }
+        public long getEnd() { return end; }
+    }
+
+    /**
+     * Returns the lines at the start of the file, up to the one holding the maxNonBlank-th
+     * non-blank line, for format detection. Nothing at or after endOffset is read.
+     */
+    public static List<String> readSample(String filePath, long endOffset, int maxNonBlank) throws IOException {
+        List<String> sample = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            long end = Math.min(endOffset, channel.size());
+            long position = 0;
+            int nonBlank = 0;
+            while (position < end && nonBlank < maxNonBlank) {
+                Line line = readLine(channel, position, end);
+                sample.add(line.getText());
+                if (!line.getText().trim().isEmpty()) {
+                    nonBlank++;
+                }
+                position = line.getEnd();
+            }
+        }
+        return sample;
+    }
+
+    /**
+     * Returns the offset just past the last '\n' in the file, i.e. the end of the last
+     * complete line, or 0 if the file has no complete line yet.
+     */
+    public static long findLastLineEnd(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+            long end = channel.size();
+            while (end > 0) {
+                long start = Math.max(0, end - SCAN_BUFFER_SIZE);
+                buffer.clear().limit((int) (end - start));
+                while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) > 0) {
+                    // Fill the whole chunk
+                }
+                for (int i = buffer.position() - 1; i >= 0; i--) {
+                    if (buffer.get(i) == '\n') {
+                        return start + i + 1;
+                    }
+                }
+                end = start;
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Splits [startOffset, file size) into segments of roughly targetSize bytes.
+     *
+     * @param startLine start-of-event test for multi-line parsers, or null
+     */
+    public static List<FileSegment> split(String filePath, long startOffset, long targetSize,
+                                          Predicate<CharSequence> startLine) throws IOException {
+        return split(filePath, startOffset, Files.size(Path.of(filePath)), targetSize, startLine);
+    }
+
+    /**
+     * Splits [startOffset, endOffset) into segments of roughly targetSize bytes.
+     *
+     * @param startLine start-of-event test for multi-line parsers, or null
+     */
+    public static List<FileSegment> split(String filePath, long startOffset, long endOffset, long targetSize,
+                                          Predicate<CharSequence> startLine) throws IOException {
+        List<FileSegment> segments = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            long segmentStart = startOffset;
+            while (endOffset - segmentStart > targetSize) {
+                long boundary = nextLineStart(channel, segmentStart + targetSize, endOffset);
+                if (startLine != null) {
+                    boundary = nextEventStart(channel, boundary, endOffset, startLine);
+                }
+                if (boundary >= endOffset) {
+                    break;
+                }
+                segments.add(new FileSegment(filePath, segmentStart, boundary));
+                segmentStart = boundary;
+            }
+            segments.add(new FileSegment(filePath, segmentStart, endOffset));
+        }
+        logger.fine("Split " + filePath + " into " + segments.size() + " segments.");
+        return segments;
+    }
+
+    /**
+     * Returns the offset of the first line starting at or after the given position.
+     */
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long offset = position - 1; // position itself is a line start if the byte before it is '\n'
+        while (offset < size) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    private static long nextEventStart(FileChannel channel, long position, long size,
+                                       Predicate<CharSequence> startLine) throws IOException {
+        while (position < size) {
+            Line line = readLine(channel, position, size);
+            if (startLine.test(line.getText())) {
+                return position;
+            }
+            position = line.getEnd();
+        }
+        return size;
+    }
+
+    private static Line readLine(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        long offset = position;
+        while (offset < size) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    bytes.write(buffer.array(), 0, i);
+                    return new Line(decode(bytes), offset + i + 1);
+                }
+            }
+            bytes.write(buffer.array(), 0, read);
+            offset += read;
+        }
+        return new Line(decode(bytes), size);
+    }
+
+    private static String decode(ByteArrayOutputStream bytes) {
+        String text = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+    }
+}
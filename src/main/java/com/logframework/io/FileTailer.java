@@ -0,0 +1,148 @@
+package com.logframework.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.logging.Logger;
+
+/**
+ * Follows a growing log file, returning only the bytes appended since the last poll.
+ * A line is handed out once its '\n' has been written; a trailing partial line is kept
+ * until it is completed. Rotation (the path now points to a different file) is handled by
+ * draining the old file to its end before switching; truncation restarts at offset 0.
+ */
+public class FileTailer implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(FileTailer.class.getName());
+
+    private static final int READ_BUFFER_SIZE = 256 * 1024;
+
+    /**
+     * Receives the lines and restarts of a followed file.
+     */
+    public interface Listener {
+        void onLine(CharSequence line);
+
+        /**
+         * Called when the file was rotated or truncated, before the lines of the new content.
+         */
+        void onRestart(String reason);
+    }
+
+    private final Path path;
+    private final LineDecoder lineDecoder = new LineDecoder();
+    private final ByteScanner scanner = ByteScanner.get();
+
+    private FileChannel channel;
+    private Object fileKey;
+    private long position;
+    private ByteBuffer pending = ByteBuffer.allocate(READ_BUFFER_SIZE); // unread bytes, in write mode
+
+    public FileTailer(String filePath) {
+        this.path = Path.of(filePath);
+    }
+
+    public String getFilePath() {
+        return path.toString();
+    }
+
+    /**
+     * Returns the offset up to which complete lines have been handed out.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Reads everything appended since the last poll.
+     *
+     * @return the number of bytes read
+     */
+    public long poll(Listener listener) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return 0; // Not created yet, or between rotation steps
+        }
+
+        long read = 0;
+        if (channel == null) {
+            open(attributes);
+        } else if (attributes.fileKey() != null && !attributes.fileKey().equals(fileKey)) {
+            read += readAppended(listener);
+            emitPartialLine(listener);
+            channel.close();
+            logger.info("Detected rotation of " + path);
+            open(attributes);
+            listener.onRestart("rotated");
+        } else if (attributes.size() < position + pending.position()) {
+            logger.info("Detected truncation of " + path);
+            position = 0;
+            pending.clear();
+            listener.onRestart("truncated");
+        }
+        return read + readAppended(listener);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void open(BasicFileAttributes attributes) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        fileKey = attributes.fileKey();
+        position = 0;
+        pending.clear();
+    }
+
+    private long readAppended(Listener listener) throws IOException {
+        long total = 0;
+        while (true) {
+            if (!pending.hasRemaining()) {
+                ByteBuffer grown = ByteBuffer.allocate(pending.capacity() * 2);
+                pending.flip();
+                grown.put(pending);
+                pending = grown;
+            }
+            int read = channel.read(pending, position + pending.position());
+            if (read <= 0) {
+                return total;
+            }
+            total += read;
+            emitCompleteLines(listener);
+        }
+    }
+
+    private void emitCompleteLines(Listener listener) {
+        int limit = pending.position();
+        int lineStart = 0;
+        for (int newline = scanner.indexOf(pending, 0, limit, (byte) '\n'); newline >= 0;
+             newline = scanner.indexOf(pending, lineStart, limit, (byte) '\n')) {
+            listener.onLine(lineDecoder.line(pending, lineStart, newline, scanner.isAscii(pending, lineStart, newline)));
+            lineStart = newline + 1;
+        }
+        if (lineStart > 0) {
+            position += lineStart;
+            pending.flip().position(lineStart);
+            pending.compact();
+        }
+    }
+
+    private void emitPartialLine(Listener listener) {
+        int limit = pending.position();
+        if (limit > 0) {
+            listener.onLine(lineDecoder.line(pending, 0, limit, scanner.isAscii(pending, 0, limit)));
+            position += limit;
+            pending.clear();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.logframework.io;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Turns the bytes of one line into a CharSequence for the line readers. ASCII lines
+ * become a reused view over the buffer; anything else is decoded as UTF-8 into a
+ * reused char buffer, replacing malformed input instead of failing.
+ */
+final class LineDecoder {
+    private final AsciiLine asciiLine = new AsciiLine();
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private CharBuffer decoded = CharBuffer.allocate(1024);
+
+    /**
+     * Returns bytes [from, to) of the buffer as a line, dropping a trailing '\r'.
+     *
+     * @param ascii whether the caller saw only bytes below 0x80 in the range
+     */
+    CharSequence line(ByteBuffer buffer, int from, int to, boolean ascii) {
+        if (to > from && buffer.get(to - 1) == '\r') {
+            to--;
+        }
+        if (ascii) {
+            asciiLine.set(buffer, from, to - from);
+            return asciiLine;
+        }
+        return decode(buffer, from, to);
+    }
+
+    private CharSequence decode(ByteBuffer buffer, int from, int to) {
+        ByteBuffer bytes = buffer.duplicate();
+        bytes.limit(to).position(from);
+        int capacity = to - from; // UTF-8 never decodes to more chars than bytes
+        if (decoded.capacity() < capacity) {
+            decoded = CharBuffer.allocate(Math.max(capacity, decoded.capacity() * 2));
+        }
+        decoded.clear();
+        decoder.reset();
+        CoderResult result = decoder.decode(bytes, decoded, true);
+        if (result.isOverflow()) {
+            throw new IllegalStateException("Decode buffer too small for line of " + capacity + " bytes");
+        }
+        decoder.flush(decoded);
+        decoded.flip();
+        return decoded;
+    }
+}
@@ -0,0 +1,17 @@
+package com.logframework.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Pull-style source of log lines.
+ */
+public interface LineReader extends Closeable {
+
+    /**
+     * Returns the next line without its terminator, or null at the end of the input.
+     * The returned sequence may be a view over the reader's buffer and is only valid
+     * until the next call; copy it (e.g. with toString()) to keep it.
+     */
+    CharSequence readLine() throws IOException;
+}
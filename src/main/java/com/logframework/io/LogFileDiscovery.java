@@ -0,0 +1,296 @@
+package com.logframework.io;
+
+import com.logframework.util.ConfigLoader;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Finds the log files below a directory. Directories are walked in parallel on a fork/join
+ * pool, so trees with hundreds of thousands of entries are listed quickly even on network
+ * file systems. Files are selected by include and exclude globs and an optional
+ * modification-time window, and returned largest first so that parallel workers pick up
+ * the big files early instead of finishing with one straggler.
+ * <p>
+ * Globs without a '/' are matched against the file name ({@code *.log}); globs with a '/'
+ * are matched against the path relative to the root ({@code app/**}{@code /*.gz}). A
+ * directory whose name or relative path matches an exclude glob is not entered.
+ */
+public class LogFileDiscovery {
+    private static final Logger logger = Logger.getLogger(LogFileDiscovery.class.getName());
+
+    private List<String> includes = LogInputs.SUPPORTED_EXTENSIONS.stream()
+            .map(extension -> "*" + extension)
+            .collect(Collectors.toList());
+    private List<String> excludes = new ArrayList<>();
+    private boolean recursive = true;
+    private Duration maxAge; // null = no lower bound on the modification time
+    private Duration minAge; // null = no upper bound, e.g. 5m skips files still being written
+    private int threads = Math.min(8, Runtime.getRuntime().availableProcessors());
+
+    public LogFileDiscovery() {
+    }
+
+    /**
+     * Reads the {@code discovery.*} keys, keeping the defaults for missing ones.
+     */
+    public LogFileDiscovery(ConfigLoader configLoader) {
+        List<String> configuredIncludes = configLoader.getList("discovery.include");
+        if (!configuredIncludes.isEmpty()) {
+            setIncludes(configuredIncludes);
+        }
+        setExcludes(configLoader.getList("discovery.exclude"));
+        setRecursive(Boolean.parseBoolean(configLoader.getProperty("discovery.recursive", "true").trim()));
+        setMaxAge(durationProperty(configLoader, "discovery.maxAge"));
+        setMinAge(durationProperty(configLoader, "discovery.minAge"));
+        String threadValue = configLoader.getProperty("discovery.threads", "auto").trim();
+        if (!"auto".equalsIgnoreCase(threadValue)) {
+            try {
+                setThreads(Integer.parseInt(threadValue));
+            } catch (NumberFormatException e) {
+                logger.warning("Invalid value for discovery.threads: " + threadValue + ", using " + threads);
+            }
+        }
+    }
+
+    public void setIncludes(List<String> includes) {
+        this.includes = new ArrayList<>(includes);
+    }
+
+    public void setExcludes(List<String> excludes) {
+        this.excludes = new ArrayList<>(excludes);
+    }
+
+    public void setRecursive(boolean recursive) {
+        this.recursive = recursive;
+    }
+
+    /**
+     * Only files modified within this duration before now are returned; null for no limit.
+     */
+    public void setMaxAge(Duration maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Only files last modified at least this long ago are returned; null for no limit.
+     */
+    public void setMinAge(Duration minAge) {
+        this.minAge = minAge;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Returns the matching files below the directory, largest first.
+     */
+    public List<String> discover(Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            throw new IOException("Not a directory: " + root);
+        }
+        long started = System.currentTimeMillis();
+        Instant now = Instant.now();
+        Walk walk = new Walk(root, now);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new DirectoryTask(walk, root));
+        } finally {
+            pool.shutdown();
+        }
+
+        List<FoundFile> found = new ArrayList<>(walk.found);
+        found.sort(Comparator.comparingLong((FoundFile file) -> file.size).reversed()
+                .thenComparing(file -> file.path));
+        List<String> paths = new ArrayList<>(found.size());
+        for (FoundFile file : found) {
+            paths.add(file.path);
+        }
+        logger.info("Discovered " + paths.size() + " files in " + walk.directories.get() + " directories below "
+                + root + " in " + (System.currentTimeMillis() - started) + " ms.");
+        return paths;
+    }
+
+    /**
+     * Parses durations such as 90s, 15m, 24h, 7d or ISO-8601 (PT24H); empty means none.
+     */
+    public static Duration parseDuration(String value) {
+        String text = value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+        if (text.isEmpty()) {
+            return null;
+        }
+        if (text.startsWith("p")) {
+            return Duration.parse(text.toUpperCase(Locale.ROOT));
+        }
+        long amount;
+        try {
+            amount = Long.parseLong(text.substring(0, text.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new DateTimeParseException("Invalid duration: " + value, value, 0);
+        }
+        switch (text.charAt(text.length() - 1)) {
+            case 's':
+                return Duration.ofSeconds(amount);
+            case 'm':
+                return Duration.ofMinutes(amount);
+            case 'h':
+                return Duration.ofHours(amount);
+            case 'd':
+                return Duration.ofDays(amount);
+            default:
+                throw new DateTimeParseException("Invalid duration: " + value, value, text.length() - 1);
+        }
+    }
+
+    private static Duration durationProperty(ConfigLoader configLoader, String key) {
+        String value = configLoader.getProperty(key, "");
+        try {
+            return parseDuration(value);
+        } catch (DateTimeParseException e) {
+            logger.warning("Invalid value for " + key + ": " + value + ", ignoring it");
+            return null;
+        }
+    }
+
+    private static class FoundFile {
+        final String path;
+        final long size;
+
+        FoundFile(String path, long size) {
+            this.path = path;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Shared state of one discovery run.
+     */
+    private class Walk {
+        final Path root;
+        final List<PathMatcher> nameIncludes = new ArrayList<>();
+        final List<PathMatcher> pathIncludes = new ArrayList<>();
+        final List<PathMatcher> nameExcludes = new ArrayList<>();
+        final List<PathMatcher> pathExcludes = new ArrayList<>();
+        final Instant oldest;
+        final Instant newest;
+        final Queue<FoundFile> found = new ConcurrentLinkedQueue<>();
+        final AtomicInteger directories = new AtomicInteger();
+
+        Walk(Path root, Instant now) {
+            this.root = root;
+            FileSystem fileSystem = root.getFileSystem();
+            for (String glob : includes) {
+                (glob.contains("/") ? pathIncludes : nameIncludes).add(fileSystem.getPathMatcher("glob:" + glob));
+            }
+            for (String glob : excludes) {
+                (glob.contains("/") ? pathExcludes : nameExcludes).add(fileSystem.getPathMatcher("glob:" + glob));
+            }
+            this.oldest = maxAge != null ? now.minus(maxAge) : null;
+            this.newest = minAge != null ? now.minus(minAge) : null;
+        }
+
+        boolean isExcluded(Path path) {
+            return matchesAny(path, nameExcludes, pathExcludes);
+        }
+
+        boolean isIncluded(Path path) {
+            return matchesAny(path, nameIncludes, pathIncludes);
+        }
+
+        private boolean matchesAny(Path path, List<PathMatcher> nameMatchers, List<PathMatcher> pathMatchers) {
+            Path name = path.getFileName();
+            for (PathMatcher matcher : nameMatchers) {
+                if (matcher.matches(name)) {
+                    return true;
+                }
+            }
+            if (!pathMatchers.isEmpty()) {
+                Path relative = root.relativize(path);
+                for (PathMatcher matcher : pathMatchers) {
+                    if (matcher.matches(relative)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        boolean isInWindow(BasicFileAttributes attributes) {
+            Instant modified = attributes.lastModifiedTime().toInstant();
+            return (oldest == null || !modified.isBefore(oldest)) && (newest == null || !modified.isAfter(newest));
+        }
+    }
+
+    /**
+     * Lists one directory, forking a task for every subdirectory.
+     */
+    @SuppressWarnings("serial") // Never serialized, like every fork/join task
+    private class DirectoryTask extends RecursiveAction {
+        private final Walk walk;
+        private final Path directory;
+
+        DirectoryTask(Walk walk, Path directory) {
+            this.walk = walk;
+            this.directory = directory;
+        }
+
+        @Override
+        protected void compute() {
+            walk.directories.incrementAndGet();
+            List<DirectoryTask> subdirectories = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    BasicFileAttributes attributes;
+                    try {
+                        // Symbolic links to directories are not followed, which rules out cycles
+                        attributes = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                        if (attributes.isSymbolicLink()) {
+                            attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                            if (attributes.isDirectory()) {
+                                continue;
+                            }
+                        }
+                    } catch (IOException e) {
+                        logger.fine("Skipping " + entry + " - " + e.getMessage());
+                        continue;
+                    }
+                    if (walk.isExcluded(entry)) {
+                        continue;
+                    }
+                    if (attributes.isDirectory()) {
+                        if (recursive) {
+                            subdirectories.add(new DirectoryTask(walk, entry));
+                        }
+                    } else if (attributes.isRegularFile() && walk.isIncluded(entry) && walk.isInWindow(attributes)) {
+                        walk.found.add(new FoundFile(entry.toString(), attributes.size()));
+                    }
+                }
+            } catch (IOException e) {
+                logger.warning("Failed to list directory: " + directory + " - " + e.getMessage());
+            }
+            invokeAll(subdirectories);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.logframework.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Opens log files for reading. Plain files are memory-mapped; gzip files (including
+ * concatenated multi-member ones) and zip bundles are decompressed on the fly, so
+ * archived logs never have to be extracted to disk first. Each zip entry is a
+ * separate source with its own parser selection.
+ */
+public final class LogInputs {
+    private static final Logger logger = Logger.getLogger(LogInputs.class.getName());
+
+    public static final List<String> SUPPORTED_EXTENSIONS = List.of(".log", ".txt", ".gz", ".zip");
+
+    private static final int COMPRESSED_BUFFER_SIZE = 256 * 1024;
+
+    private LogInputs() {
+    }
+
+    /**
+     * Receives every source found in a log file.
+     */
+    @FunctionalInterface
+    public interface SourceHandler {
+        void handle(String sourceName, LineReader reader) throws IOException;
+    }
+
+    public static boolean isSupported(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        return SUPPORTED_EXTENSIONS.stream().anyMatch(name::endsWith);
+    }
+
+    /**
+     * Indicates whether the file is read through a decompressing stream, which rules
+     * out memory mapping and byte-range splitting.
+     */
+    public static boolean isCompressed(String filePath) {
+        String name = filePath.toLowerCase(Locale.ROOT);
+        return name.endsWith(".gz") || name.endsWith(".zip");
+    }
+
+    /**
+     * Passes each source in the file to the handler: one for plain and gzip files,
+     * one per regular entry for zip files (named {@code bundle.zip!/entry}).
+     */
+    public static void read(String filePath, SourceHandler handler) throws IOException {
+        String name = filePath.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".zip")) {
+            readZip(filePath, handler);
+        } else if (name.endsWith(".gz")) {
+            try (LineReader reader = new StreamLineReader(openGzip(Files.newInputStream(Path.of(filePath))))) {
+                handler.handle(filePath, reader);
+            }
+        } else {
+            try (LineReader reader = new MappedLineReader(filePath)) {
+                handler.handle(filePath, reader);
+            }
+        }
+    }
+
+    private static void readZip(String filePath, SourceHandler handler) throws IOException {
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(Path.of(filePath)))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                logger.fine("Reading zip entry " + entry.getName() + " from " + filePath);
+                InputStream entryStream = new FilterInputStream(zip) {
+                    @Override
+                    public void close() {
+                        // Keep the zip stream open for the next entry
+                    }
+                };
+                if (entry.getName().toLowerCase(Locale.ROOT).endsWith(".gz")) {
+                    entryStream = openGzip(entryStream);
+                }
+                try (LineReader reader = new StreamLineReader(entryStream)) {
+                    handler.handle(filePath + "!/" + entry.getName(), reader);
+                }
+                zip.closeEntry();
+            }
+        }
+    }
+
+    private static InputStream openGzip(InputStream in) throws IOException {
+        // GZIPInputStream reads the following members of concatenated gzip files on its own
+        return new GZIPInputStream(in, COMPRESSED_BUFFER_SIZE);
+    }
+}
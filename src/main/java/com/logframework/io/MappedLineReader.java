@@ -0,0 +1,124 @@
+package com.logframework.io;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+
+/**
+ * Reads lines from a memory-mapped file (or a byte range of it) without decoding
+ * the whole file into Strings. Line ends are found by scanning bytes for '\n' with a
+ * {@link ByteScanner} (a preceding '\r' is dropped). Pure ASCII lines are returned as views over the
+ * mapped buffer; other lines are decoded as UTF-8, replacing malformed bytes
+ * instead of failing the rest of the file.
+ */
+public class MappedLineReader implements LineReader {
+    private static final Logger logger = Logger.getLogger(MappedLineReader.class.getName());
+
+    private static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final int MAX_WINDOW_SIZE = Integer.MAX_VALUE - 8;
+
+    private final FileChannel channel;
+    private final long end;
+    private final int windowSize;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long windowEnd;
+    private long lineStart;
+    private long scanPosition;
+    private boolean lineIsAscii = true;
+
+    private final LineDecoder lineDecoder = new LineDecoder();
+    private final ByteScanner scanner = ByteScanner.get();
+
+    public MappedLineReader(String filePath) throws IOException {
+        this(filePath, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Reads the lines in [start, end) of the file; end is capped at the file size.
+     */
+    public MappedLineReader(String filePath, long start, long end) throws IOException {
+        this(filePath, start, end, DEFAULT_WINDOW_SIZE);
+    }
+
+    MappedLineReader(String filePath, long start, long end, int windowSize) throws IOException {
+        this.channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ);
+        this.end = Math.min(end, channel.size());
+        this.windowSize = windowSize;
+        this.lineStart = start;
+        this.scanPosition = start;
+        this.windowStart = start;
+        this.windowEnd = start;
+    }
+
+    @Override
+    public CharSequence readLine() throws IOException {
+        while (true) {
+            if (scanPosition >= windowEnd) {
+                if (windowEnd >= end) {
+                    break;
+                }
+                remap();
+            }
+            int limit = (int) (windowEnd - windowStart);
+            int from = (int) (scanPosition - windowStart);
+            int newline = scanner.indexOf(window, from, limit, (byte) '\n');
+            if (lineIsAscii && !scanner.isAscii(window, from, newline < 0 ? limit : newline)) {
+                lineIsAscii = false;
+            }
+            if (newline >= 0) {
+                CharSequence line = lineAt((int) (lineStart - windowStart), newline);
+                lineStart = windowStart + newline + 1;
+                scanPosition = lineStart;
+                lineIsAscii = true;
+                return line;
+            }
+            scanPosition = windowEnd;
+        }
+
+        // Last line without a terminator
+        if (lineStart < end) {
+            CharSequence line = lineAt((int) (lineStart - windowStart), (int) (end - windowStart));
+            lineStart = end;
+            return line;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the byte offset just past the last line returned.
+     */
+    public long getPosition() {
+        return lineStart;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    /**
+     * Maps the next window, starting at the current line so that it is never split.
+     * A line longer than a window grows the window instead.
+     */
+    private void remap() throws IOException {
+        long size = Math.max(windowSize, 2 * (scanPosition - lineStart));
+        size = Math.min(Math.min(size, MAX_WINDOW_SIZE), end - lineStart);
+        if (lineStart + size <= scanPosition) {
+            throw new IOException("Line longer than " + MAX_WINDOW_SIZE + " bytes at offset " + lineStart);
+        }
+        window = channel.map(FileChannel.MapMode.READ_ONLY, lineStart, size);
+        windowStart = lineStart;
+        windowEnd = lineStart + size;
+        logger.finest("Mapped window [" + windowStart + ", " + windowEnd + ")");
+    }
+
+    private CharSequence lineAt(int from, int to) {
+        return lineDecoder.line(window, from, to, lineIsAscii);
+    }
+}
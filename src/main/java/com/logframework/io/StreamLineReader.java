@@ -0,0 +1,104 @@
+package com.logframework.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads lines from an InputStream (e.g. a decompressing stream) using the same
+ * byte-level scanning as {@link MappedLineReader}: lines end at '\n', ASCII lines
+ * are views over the read buffer and other lines are decoded leniently as UTF-8.
+ */
+public class StreamLineReader implements LineReader {
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private final InputStream in;
+    private byte[] buffer;
+    private ByteBuffer view;
+    private int lineStart;
+    private int scanPosition;
+    private int limit;
+    private boolean lineIsAscii = true;
+    private boolean endOfStream;
+    private long consumed; // bytes before buffer[0]
+
+    private final LineDecoder lineDecoder = new LineDecoder();
+    private final ByteScanner scanner = ByteScanner.get();
+
+    public StreamLineReader(InputStream in) {
+        this(in, DEFAULT_BUFFER_SIZE);
+    }
+
+    public StreamLineReader(InputStream in, int bufferSize) {
+        this.in = in;
+        this.buffer = new byte[bufferSize];
+        this.view = ByteBuffer.wrap(buffer);
+    }
+
+    @Override
+    public CharSequence readLine() throws IOException {
+        while (true) {
+            int newline = scanner.indexOf(view, scanPosition, limit, (byte) '\n');
+            if (lineIsAscii && !scanner.isAscii(view, scanPosition, newline < 0 ? limit : newline)) {
+                lineIsAscii = false;
+            }
+            if (newline >= 0) {
+                CharSequence line = lineDecoder.line(view, lineStart, newline, lineIsAscii);
+                lineStart = newline + 1;
+                scanPosition = lineStart;
+                lineIsAscii = true;
+                return line;
+            }
+            scanPosition = limit;
+            if (endOfStream || !fill()) {
+                break;
+            }
+        }
+
+        // Last line without a terminator
+        if (lineStart < limit) {
+            CharSequence line = lineDecoder.line(view, lineStart, limit, lineIsAscii);
+            lineStart = limit;
+            return line;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of uncompressed bytes consumed up to the end of the last line returned.
+     */
+    public long getPosition() {
+        return consumed + lineStart;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Moves the partial line to the front of the buffer (growing it if the line fills
+     * the whole buffer) and reads more bytes after it.
+     */
+    private boolean fill() throws IOException {
+        if (lineStart > 0) {
+            System.arraycopy(buffer, lineStart, buffer, 0, limit - lineStart);
+            consumed += lineStart;
+            limit -= lineStart;
+            scanPosition -= lineStart;
+            lineStart = 0;
+        } else if (limit == buffer.length) {
+            byte[] grown = new byte[buffer.length * 2];
+            System.arraycopy(buffer, 0, grown, 0, limit);
+            buffer = grown;
+            view = ByteBuffer.wrap(buffer);
+        }
+        int read = in.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfStream = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+}
@@ -0,0 +1,99 @@
+package com.logframework.io;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Scans buffers with the incubating Vector API, one vector of the CPU's preferred width
+ * at a time. Only compiled with the {@code vector} Maven profile and only used when the
+ * runtime adds the {@code jdk.incubator.vector} module, see {@link ByteScanner}.
+ * <p>
+ * Mapped and other direct buffers are bulk-copied into a per-thread array chunk by chunk and
+ * scanned there: the Vector API's entry point for off-heap memory differs between JDK
+ * releases, while {@link ByteVector#fromArray} does not. A search starts with a small chunk,
+ * as the next line end is usually close, and doubles it up to {@link #MAX_CHUNK}.
+ */
+final class VectorByteScanner extends SwarByteScanner {
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+    private static final int FIRST_CHUNK = Math.max(128, SPECIES.length());
+    private static final int MAX_CHUNK = 4096;
+    private static final ThreadLocal<byte[]> CHUNKS = ThreadLocal.withInitial(() -> new byte[MAX_CHUNK]);
+
+    @Override
+    public int indexOf(ByteBuffer buffer, int from, int to, byte value) {
+        if (buffer.hasArray()) {
+            int index = indexOf(buffer.array(), buffer.arrayOffset() + from, to - from, value);
+            return index < 0 ? -1 : from + index;
+        }
+        byte[] chunk = CHUNKS.get();
+        int chunkSize = FIRST_CHUNK;
+        for (int start = from; start < to; start += chunkSize, chunkSize = Math.min(chunkSize * 2, MAX_CHUNK)) {
+            int length = Math.min(chunkSize, to - start);
+            buffer.get(start, chunk, 0, length);
+            int index = indexOf(chunk, 0, length, value);
+            if (index >= 0) {
+                return start + index;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean isAscii(ByteBuffer buffer, int from, int to) {
+        if (buffer.hasArray()) {
+            return isAscii(buffer.array(), buffer.arrayOffset() + from, to - from);
+        }
+        byte[] chunk = CHUNKS.get();
+        for (int start = from; start < to; start += MAX_CHUNK) {
+            int length = Math.min(MAX_CHUNK, to - start);
+            buffer.get(start, chunk, 0, length);
+            if (!isAscii(chunk, 0, length)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the index of the first byte equal to value in array[offset, offset + length),
+     * relative to offset, or -1.
+     */
+    private static int indexOf(byte[] array, int offset, int length, byte value) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            VectorMask<Byte> found = ByteVector.fromArray(SPECIES, array, offset + i).eq(value);
+            if (found.anyTrue()) {
+                return i + found.firstTrue();
+            }
+        }
+        for (; i < length; i++) {
+            if (array[offset + i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isAscii(byte[] array, int offset, int length) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            if (ByteVector.fromArray(SPECIES, array, offset + i).lt((byte) 0).anyTrue()) {
+                return false;
+            }
+        }
+        for (; i < length; i++) {
+            if (array[offset + i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String getName() {
+        return "Vector API scanner (" + SPECIES.length() + " bytes)";
+    }
+}
@@ -0,0 +1,425 @@
+package com.logframework.model;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A {@link LogEntry} that avoids most per-line allocations. The timestamp is kept as epoch
+ * seconds, nanos and offset; {@code status}, {@code size} and {@code path}, the attributes of
+ * access logs, have typed slots; other attributes are key/value pairs in one flat array.
+ * <p>
+ * The {@link LogEntry} accessors keep working: {@link #getTimestamp()} builds the
+ * OffsetDateTime on demand, and {@link #getAttributes()} is a live map over the slots and the
+ * array. Values keep the type they were added with, so a size added as an Integer is returned
+ * as an Integer.
+ * <p>
+ * An entry created with the {@link FieldDictionaries} of a run encodes the level and the
+ * attributes of encoded fields through them and keeps their code, which
+ * {@link #getCode(String)} returns. Without dictionaries, values are kept as plain Strings.
+ * <p>
+ * An entry can be recycled with {@link #reset()}, which keeps the arrays it has grown.
+ */
+public class CompactLogEntry extends LogEntry {
+    private static final String STATUS = "status";
+    private static final String SIZE = "size";
+    private static final String PATH = "path";
+
+    private final FieldDictionaries dictionaries; // null = nothing is encoded
+
+    private long epochSecond;
+    private int nano;
+    private ZoneOffset offset; // null = no timestamp
+
+    private int status = -1; // -1 = absent
+    private long size = -1; // -1 = absent
+    private boolean sizeIsLong;
+    private String path;
+    private int levelCode = -1;
+
+    private Object[] extras; // key, value, key, value, ...
+    private int[] extraCodes; // Dictionary code of each pair's value, or -1
+    private int extraCount; // Number of pairs
+    private Map<String, Object> attributeView;
+
+    public CompactLogEntry() {
+        this(null);
+    }
+
+    public CompactLogEntry(FieldDictionaries dictionaries) {
+        super((Map<String, Object>) null);
+        this.dictionaries = dictionaries;
+    }
+
+    @Override
+    public FieldDictionaries getDictionaries() {
+        return dictionaries;
+    }
+
+    /**
+     * Clears every field so the entry can be filled again; the dictionaries are kept.
+     */
+    public void reset() {
+        setTimestamp(null);
+        setLevel((String) null);
+        setMessage(null);
+        setSource(null);
+        clearAttributes();
+    }
+
+    @Override
+    public void setLevel(String level) {
+        super.setLevel(level);
+        levelCode = -1;
+    }
+
+    /**
+     * Sets the level to {@code text[start, end)} through the level dictionary.
+     */
+    public void setLevel(CharSequence text, int start, int end) {
+        int code = dictionaries != null ? dictionaries.getLevel().encode(text, start, end) : -1;
+        if (code < 0) {
+            setLevel(text.subSequence(start, end).toString());
+        } else {
+            super.setLevel(dictionaries.getLevel().value(code));
+            levelCode = code;
+        }
+    }
+
+    /**
+     * Sets one of the {@link FieldDictionary#STANDARD_LEVELS} by its code, which is the same in
+     * every level dictionary.
+     */
+    public void setStandardLevel(int code) {
+        super.setLevel(FieldDictionary.STANDARD_LEVELS.get(code));
+        levelCode = dictionaries != null ? code : -1;
+    }
+
+    /**
+     * Returns the code of the level or of an attribute added through its field's dictionary,
+     * or -1.
+     */
+    @Override
+    public int getCode(String field) {
+        if ("level".equals(field)) {
+            return levelCode;
+        }
+        int index = indexOfExtra(field);
+        return index < 0 ? -1 : extraCodes[index / 2];
+    }
+
+    /**
+     * Adds {@code text[start, end)} as an attribute, through the dictionary of the field with
+     * the key's name if the field is encoded and the dictionary has room.
+     */
+    public void addAttribute(String key, CharSequence text, int start, int end) {
+        FieldDictionary dictionary = dictionaries != null ? dictionaries.forField(key) : null;
+        int code = dictionary != null ? dictionary.encode(text, start, end) : -1;
+        if (code < 0) {
+            putAttribute(key, text.subSequence(start, end).toString());
+        } else {
+            putAttribute(key, dictionary.value(code));
+            extraCodes[indexOfExtra(key) / 2] = code;
+        }
+    }
+
+    @Override
+    public OffsetDateTime getTimestamp() {
+        return offset == null ? null : Instant.ofEpochSecond(epochSecond, nano).atOffset(offset);
+    }
+
+    @Override
+    public void setTimestamp(OffsetDateTime timestamp) {
+        if (timestamp == null) {
+            offset = null;
+        } else {
+            setTimestamp(timestamp.toEpochSecond(), timestamp.getNano(), timestamp.getOffset());
+        }
+    }
+
+    public void setTimestamp(long epochSecond, int nano, ZoneOffset offset) {
+        this.epochSecond = epochSecond;
+        this.nano = nano;
+        this.offset = offset;
+    }
+
+    @Override
+    public boolean hasTimestamp() {
+        return offset != null;
+    }
+
+    @Override
+    public long getEpochSecond() {
+        return epochSecond;
+    }
+
+    @Override
+    public int getNano() {
+        return nano;
+    }
+
+    @Override
+    public int getOffsetSeconds() {
+        return offset.getTotalSeconds();
+    }
+
+    /**
+     * Returns the status code, or -1 if there is none.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        removeExtra(STATUS);
+        this.status = status;
+    }
+
+    /**
+     * Returns the response size, or -1 if there is none.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Sets the size; {@link #getAttribute(String)} returns it as an Integer if it fits.
+     */
+    public void setSize(long size) {
+        removeExtra(SIZE);
+        this.size = size;
+        this.sizeIsLong = size > Integer.MAX_VALUE;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        removeExtra(PATH);
+        this.path = path;
+    }
+
+    @Override
+    public Object getAttribute(String key) {
+        if (STATUS.equals(key) && status >= 0) {
+            return status;
+        }
+        if (SIZE.equals(key) && size >= 0) {
+            return sizeIsLong ? (Object) size : (Object) (int) size;
+        }
+        if (PATH.equals(key) && path != null) {
+            return path;
+        }
+        int index = indexOfExtra(key);
+        return index < 0 ? null : extras[index + 1];
+    }
+
+    @Override
+    public void addAttribute(String key, Object value) {
+        putAttribute(key, value);
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        if (attributeView == null) {
+            attributeView = new AttributeView();
+        }
+        return attributeView;
+    }
+
+    @Override
+    public void setAttributes(Map<String, Object> attributes) {
+        clearAttributes();
+        attributes.forEach(this::putAttribute);
+    }
+
+    private Object putAttribute(String key, Object value) {
+        Object previous = getAttribute(key);
+        if (STATUS.equals(key) && value instanceof Integer && (Integer) value >= 0) {
+            setStatus((Integer) value);
+        } else if (SIZE.equals(key) && (value instanceof Integer || value instanceof Long)
+                && ((Number) value).longValue() >= 0) {
+            removeExtra(SIZE);
+            size = ((Number) value).longValue();
+            sizeIsLong = value instanceof Long;
+        } else if (PATH.equals(key) && value instanceof String) {
+            setPath((String) value);
+        } else {
+            clearSlot(key);
+            int index = indexOfExtra(key);
+            if (index >= 0) {
+                extras[index + 1] = value;
+                extraCodes[index / 2] = -1;
+            } else {
+                if (extras == null) {
+                    extras = new Object[8];
+                    extraCodes = new int[4];
+                } else if (extraCount * 2 == extras.length) {
+                    extras = Arrays.copyOf(extras, extras.length * 2);
+                    extraCodes = Arrays.copyOf(extraCodes, extraCodes.length * 2);
+                }
+                extras[extraCount * 2] = key;
+                extras[extraCount * 2 + 1] = value;
+                extraCodes[extraCount] = -1;
+                extraCount++;
+            }
+        }
+        return previous;
+    }
+
+    private Object removeAttribute(String key) {
+        Object previous = getAttribute(key);
+        clearSlot(key);
+        removeExtra(key);
+        return previous;
+    }
+
+    private void clearAttributes() {
+        status = -1;
+        size = -1;
+        path = null;
+        if (extras != null) {
+            Arrays.fill(extras, 0, extraCount * 2, null);
+        }
+        extraCount = 0;
+    }
+
+    private void clearSlot(String key) {
+        if (STATUS.equals(key)) {
+            status = -1;
+        } else if (SIZE.equals(key)) {
+            size = -1;
+        } else if (PATH.equals(key)) {
+            path = null;
+        }
+    }
+
+    private int indexOfExtra(Object key) {
+        for (int i = 0; i < extraCount * 2; i += 2) {
+            if (extras[i] == key || extras[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeExtra(String key) {
+        int index = indexOfExtra(key);
+        if (index >= 0) {
+            // Keep insertion order; entries rarely have more than a few extras
+            System.arraycopy(extras, index + 2, extras, index, extraCount * 2 - index - 2);
+            System.arraycopy(extraCodes, index / 2 + 1, extraCodes, index / 2, extraCount - index / 2 - 1);
+            extraCount--;
+            extras[extraCount * 2] = null;
+            extras[extraCount * 2 + 1] = null;
+        }
+    }
+
+    /**
+     * Keys in iteration order: the filled slots, then the extras.
+     */
+    private String keyAt(int position) {
+        if (status >= 0 && position-- == 0) {
+            return STATUS;
+        }
+        if (size >= 0 && position-- == 0) {
+            return SIZE;
+        }
+        if (path != null && position-- == 0) {
+            return PATH;
+        }
+        return (String) extras[position * 2];
+    }
+
+    private int attributeCount() {
+        return (status >= 0 ? 1 : 0) + (size >= 0 ? 1 : 0) + (path != null ? 1 : 0) + extraCount;
+    }
+
+    private class AttributeView extends AbstractMap<String, Object> {
+        @Override
+        public int size() {
+            return attributeCount();
+        }
+
+        @Override
+        public Object get(Object key) {
+            return key instanceof String ? getAttribute((String) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null || indexOfExtra(key) >= 0;
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            return putAttribute(key, value);
+        }
+
+        @Override
+        public Object remove(Object key) {
+            return key instanceof String ? removeAttribute((String) key) : null;
+        }
+
+        @Override
+        public void clear() {
+            clearAttributes();
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return attributeCount();
+                }
+
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<>() {
+                        private int position;
+                        private String last;
+
+                        @Override
+                        public boolean hasNext() {
+                            return position < attributeCount();
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            last = keyAt(position++);
+                            return new SimpleEntry<>(last, getAttribute(last)) {
+                                @Override
+                                public Object setValue(Object value) {
+                                    super.setValue(value);
+                                    return putAttribute(getKey(), value);
+                                }
+                            };
+                        }
+
+                        @Override
+                        public void remove() {
+                            if (last == null) {
+                                throw new IllegalStateException();
+                            }
+                            removeAttribute(last);
+                            last = null;
+                            position--;
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
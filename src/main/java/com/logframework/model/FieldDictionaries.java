@@ -0,0 +1,41 @@
+package com.logframework.model;
+
+/**
+ * The {@link FieldDictionary} of every encoded field for one run. A
+ * {@link com.logframework.pipeline.ProcessingChain} creates its own and shares it with its
+ * partial chains; parsers encode into the dictionaries they are given, and entries and
+ * batches keep a reference to them, so filters and aggregators know which dictionary a code
+ * belongs to. Runs that overlap, such as a follow session next to a batch run, never see each
+ * other's codes, and a run's values are dropped with its dictionaries.
+ */
+public final class FieldDictionaries {
+    private final FieldDictionary level = new FieldDictionary("level");
+    private final FieldDictionary method = new FieldDictionary("method");
+    private final FieldDictionary protocol = new FieldDictionary("protocol");
+    private final FieldDictionary logger = new FieldDictionary("logger");
+    private final FieldDictionary thread = new FieldDictionary("thread");
+
+    public FieldDictionary getLevel() {
+        return level;
+    }
+
+    /**
+     * Returns the dictionary of an encoded field, or null if the field is not encoded.
+     */
+    public FieldDictionary forField(String field) {
+        switch (field) {
+            case "level":
+                return level;
+            case "method":
+                return method;
+            case "protocol":
+                return protocol;
+            case "logger":
+                return logger;
+            case "thread":
+                return thread;
+            default:
+                return null;
+        }
+    }
+}
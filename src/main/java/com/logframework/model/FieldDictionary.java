@@ -0,0 +1,161 @@
+package com.logframework.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Maps the values of a low-cardinality field, such as the level or the HTTP method, to small
+ * integer codes. Parsers encode the value straight from the line, so a value seen before costs
+ * neither a String nor a hash map lookup, and every entry shares one String instance per
+ * value. Filters and aggregators can key their state by {@link LogEntry#getCode(String)}
+ * and turn codes back into values with {@link #value(int)} only when building results.
+ * <p>
+ * Dictionaries belong to one run, see {@link FieldDictionaries}, and are shared by its files,
+ * threads and partial aggregators; codes are never reused within a dictionary, so they all
+ * agree on them. A level dictionary starts with the {@link #STANDARD_LEVELS}, so their codes
+ * are the same in every run. Lookups are lock-free; adding a value copies the table, which is
+ * cheap because values are few. A dictionary stops growing at {@link #MAX_VALUES} values,
+ * after which {@link #encode(CharSequence, int, int)} returns -1 and callers keep the plain
+ * String.
+ */
+public final class FieldDictionary {
+    public static final int MAX_VALUES = 4096;
+
+    /**
+     * The first values of every level dictionary; a level's code is its index.
+     */
+    public static final List<String> STANDARD_LEVELS = List.of("TRACE", "DEBUG", "INFO", "WARN", "ERROR", "FATAL");
+
+    private static final Set<String> ENCODED_FIELDS = Set.of("level", "method", "protocol", "logger", "thread");
+
+    /**
+     * Open addressing table; replaced as a whole when a value is added.
+     */
+    private static final class Table {
+        final String[] keys;
+        final int[] hashes;
+        final int[] codes;
+
+        Table(int capacity) {
+            keys = new String[capacity];
+            hashes = new int[capacity];
+            codes = new int[capacity];
+        }
+    }
+
+    private final String field;
+    private volatile Table table = new Table(64);
+    private volatile String[] values = new String[16];
+    private int size; // Guarded by this
+
+    FieldDictionary(String field) {
+        this.field = field;
+        if ("level".equals(field)) {
+            for (String level : STANDARD_LEVELS) {
+                add(level, level.hashCode());
+            }
+        }
+    }
+
+    /**
+     * Returns whether values of the field are dictionary encoded.
+     */
+    public static boolean isEncoded(String field) {
+        return ENCODED_FIELDS.contains(field);
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public int encode(CharSequence text) {
+        return encode(text, 0, text.length());
+    }
+
+    /**
+     * Returns the code of {@code text[start, end)}, adding the value if it is new.
+     *
+     * @return the code, or -1 if the dictionary is full
+     */
+    public int encode(CharSequence text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i); // Same as String.hashCode()
+        }
+        Table current = table;
+        int code = find(current, hash, text, start, end);
+        return code != -1 ? code : add(text.subSequence(start, end).toString(), hash);
+    }
+
+    public String value(int code) {
+        return values[code];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private static int find(Table table, int hash, CharSequence text, int start, int end) {
+        int mask = table.keys.length - 1;
+        for (int i = mix(hash) & mask; table.keys[i] != null; i = (i + 1) & mask) {
+            if (table.hashes[i] == hash && contentEquals(table.keys[i], text, start, end)) {
+                return table.codes[i];
+            }
+        }
+        return -1;
+    }
+
+    private synchronized int add(String value, int hash) {
+        Table current = table;
+        int code = find(current, hash, value, 0, value.length());
+        if (code != -1 || size >= MAX_VALUES) {
+            return code;
+        }
+        code = size++;
+        String[] newValues = values;
+        if (code == newValues.length) {
+            newValues = Arrays.copyOf(newValues, newValues.length * 2);
+        }
+        newValues[code] = value;
+        values = newValues; // Published before the table, so a code found in the table always has its value
+
+        int capacity = size * 2 > current.keys.length ? current.keys.length * 2 : current.keys.length;
+        Table next = new Table(capacity);
+        for (int i = 0; i < current.keys.length; i++) {
+            if (current.keys[i] != null) {
+                insert(next, current.keys[i], current.hashes[i], current.codes[i]);
+            }
+        }
+        insert(next, value, hash, code);
+        table = next;
+        return code;
+    }
+
+    private static void insert(Table table, String key, int hash, int code) {
+        int mask = table.keys.length - 1;
+        int i = mix(hash) & mask;
+        while (table.keys[i] != null) {
+            i = (i + 1) & mask;
+        }
+        table.keys[i] = key;
+        table.hashes[i] = hash;
+        table.codes[i] = code;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean contentEquals(String key, CharSequence text, int start, int end) {
+        if (key.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != text.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,309 @@
+package com.logframework.model;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * A batch of entries stored by column: the timestamp, status and size in primitive arrays,
+ * the level and method as {@link FieldDictionary} codes next to their values, and the path
+ * and message as ranges of one shared character arena. The codes belong to the batch's
+ * {@link #getDictionaries()}, those of the first entry that has any; rows of entries with
+ * other dictionaries keep only the values. Filters and aggregators that work on
+ * columns loop over the rows of one field at a time instead of visiting one object per entry.
+ * <p>
+ * Which rows are still in play is kept in a selection vector: filters remove rows from it,
+ * keeping their order, and aggregators process the selected rows. Only the fields listed
+ * above and the source are kept; other attributes are dropped when an entry is added.
+ * A batch is filled and read by one thread and is reused after {@link #clear()}.
+ */
+public class LogBatch {
+    private static final int NO_TEXT = -1;
+
+    private final int capacity;
+    private int size;
+    private FieldDictionaries dictionaries; // null = no row has codes
+
+    private final long[] epochSeconds;
+    private final int[] nanos;
+    private final int[] offsetSeconds;
+    private final boolean[] timestamped;
+    private final int[] levelCodes;
+    private final String[] levels;
+    private final int[] methodCodes;
+    private final String[] methods;
+    private final int[] statuses;
+    private final long[] sizes;
+    private final String[] sources;
+
+    private char[] arena;
+    private int arenaSize;
+    private final int[] messageStarts;
+    private final int[] messageEnds;
+    private final int[] pathStarts;
+    private final int[] pathEnds;
+
+    private final int[] selection;
+    private int selectedCount;
+
+    public LogBatch(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        epochSeconds = new long[this.capacity];
+        nanos = new int[this.capacity];
+        offsetSeconds = new int[this.capacity];
+        timestamped = new boolean[this.capacity];
+        levelCodes = new int[this.capacity];
+        levels = new String[this.capacity];
+        methodCodes = new int[this.capacity];
+        methods = new String[this.capacity];
+        statuses = new int[this.capacity];
+        sizes = new long[this.capacity];
+        sources = new String[this.capacity];
+        arena = new char[this.capacity * 64];
+        messageStarts = new int[this.capacity];
+        messageEnds = new int[this.capacity];
+        pathStarts = new int[this.capacity];
+        pathEnds = new int[this.capacity];
+        selection = new int[this.capacity];
+    }
+
+    /**
+     * Copies the entry's columns into the next row, which is selected.
+     *
+     * @return the row
+     * @throws IllegalStateException if the batch is full
+     */
+    public int add(LogEntry entry) {
+        if (size == capacity) {
+            throw new IllegalStateException("Batch is full");
+        }
+        int row = size++;
+        timestamped[row] = entry.hasTimestamp();
+        if (timestamped[row]) {
+            epochSeconds[row] = entry.getEpochSecond();
+            nanos[row] = entry.getNano();
+            offsetSeconds[row] = entry.getOffsetSeconds();
+        }
+        if (dictionaries == null) {
+            dictionaries = entry.getDictionaries();
+        }
+        boolean encoded = dictionaries != null && entry.getDictionaries() == dictionaries;
+        levelCodes[row] = encoded ? entry.getCode("level") : -1;
+        levels[row] = entry.getLevel();
+        sources[row] = entry.getSource();
+        if (entry instanceof CompactLogEntry) {
+            CompactLogEntry compact = (CompactLogEntry) entry;
+            statuses[row] = compact.getStatus();
+            sizes[row] = compact.getSize();
+            pathStarts[row] = append(compact.getPath());
+        } else {
+            Object status = entry.getAttribute("status");
+            Object responseSize = entry.getAttribute("size");
+            Object path = entry.getAttribute("path");
+            statuses[row] = status instanceof Integer ? (Integer) status : -1;
+            sizes[row] = responseSize instanceof Number ? ((Number) responseSize).longValue() : -1;
+            pathStarts[row] = append(path instanceof String ? (String) path : null);
+        }
+        pathEnds[row] = arenaSize;
+        Object method = entry.getAttribute("method");
+        methodCodes[row] = encoded ? entry.getCode("method") : -1;
+        methods[row] = method instanceof String ? (String) method : null;
+        messageStarts[row] = append(entry.getMessage());
+        messageEnds[row] = arenaSize;
+        selection[selectedCount++] = row;
+        return row;
+    }
+
+    /**
+     * Appends the text to the arena.
+     *
+     * @return the start of the text, or {@link #NO_TEXT} for null
+     */
+    private int append(String text) {
+        if (text == null) {
+            return NO_TEXT;
+        }
+        int start = arenaSize;
+        if (start + text.length() > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, start + text.length()));
+        }
+        text.getChars(0, text.length(), arena, start);
+        arenaSize += text.length();
+        return start;
+    }
+
+    /**
+     * Removes every row; the arrays and the arena are kept for the next rows.
+     */
+    public void clear() {
+        Arrays.fill(levels, 0, size, null);
+        Arrays.fill(methods, 0, size, null);
+        Arrays.fill(sources, 0, size, null);
+        size = 0;
+        selectedCount = 0;
+        arenaSize = 0;
+        dictionaries = null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the dictionaries of the level and method codes, or null if no row has codes.
+     */
+    public FieldDictionaries getDictionaries() {
+        return dictionaries;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    /**
+     * Returns the selected rows in their original order; only the first
+     * {@link #getSelectedCount()} elements are valid. Filters compact the array in place and
+     * then call {@link #setSelectedCount(int)}.
+     */
+    public int[] getSelection() {
+        return selection;
+    }
+
+    public int getSelectedCount() {
+        return selectedCount;
+    }
+
+    public void setSelectedCount(int selectedCount) {
+        this.selectedCount = selectedCount;
+    }
+
+    public boolean hasTimestamp(int row) {
+        return timestamped[row];
+    }
+
+    public long getEpochSecond(int row) {
+        return epochSeconds[row];
+    }
+
+    public int getNano(int row) {
+        return nanos[row];
+    }
+
+    public int getOffsetSeconds(int row) {
+        return offsetSeconds[row];
+    }
+
+    /**
+     * Builds the row's timestamp, or returns null if it has none.
+     */
+    public OffsetDateTime getTimestamp(int row) {
+        return timestamped[row]
+                ? Instant.ofEpochSecond(epochSeconds[row], nanos[row]).atOffset(ZoneOffset.ofTotalSeconds(offsetSeconds[row]))
+                : null;
+    }
+
+    /**
+     * Returns the level dictionary code, or -1 if the level is not encoded.
+     */
+    public int getLevelCode(int row) {
+        return levelCodes[row];
+    }
+
+    public String getLevel(int row) {
+        return levels[row];
+    }
+
+    /**
+     * Returns the method dictionary code, or -1 if the method is not encoded.
+     */
+    public int getMethodCode(int row) {
+        return methodCodes[row];
+    }
+
+    public String getMethod(int row) {
+        return methods[row];
+    }
+
+    /**
+     * Returns the status code, or -1 if there is none.
+     */
+    public int getStatus(int row) {
+        return statuses[row];
+    }
+
+    /**
+     * Returns the response size, or -1 if there is none.
+     */
+    public long getSize(int row) {
+        return sizes[row];
+    }
+
+    public String getSource(int row) {
+        return sources[row];
+    }
+
+    /**
+     * Points the view at the row's message.
+     *
+     * @return false if the row has no message
+     */
+    public boolean getMessage(int row, Text view) {
+        return view.set(arena, messageStarts[row], messageEnds[row]);
+    }
+
+    /**
+     * Points the view at the row's path.
+     *
+     * @return false if the row has no path
+     */
+    public boolean getPath(int row, Text view) {
+        return view.set(arena, pathStarts[row], pathEnds[row]);
+    }
+
+    /**
+     * A reusable view of a text in the arena, valid until the batch is cleared or grows.
+     */
+    public static final class Text implements CharSequence {
+        private char[] chars = new char[0];
+        private int start;
+        private int length;
+
+        boolean set(char[] chars, int start, int end) {
+            if (start == NO_TEXT) {
+                return false;
+            }
+            this.chars = chars;
+            this.start = start;
+            this.length = end - start;
+            return true;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return chars[start + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, start, length);
+        }
+    }
+}
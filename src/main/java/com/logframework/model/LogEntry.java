@@ -15,6 +15,14 @@ public class LogEntry {
         this.attributes = new HashMap<>();
     }
 
+    /**
+     * For subclasses that keep attributes elsewhere; the map may be null if they override
+     * every attribute accessor.
+     */
+    protected LogEntry(Map<String, Object> attributes) {
+        this.attributes = attributes;
+    }
+
     public LogEntry(OffsetDateTime timestamp, String level, String message, String source) {
         this.timestamp = timestamp;
         this.level = level;
@@ -47,8 +55,46 @@ public class LogEntry {
         return this.attributes.get(key);
     }
 
+    /**
+     * Returns the {@link FieldDictionary} code of a field's value, or -1 if the value is not
+     * encoded. Codes of the same field are comparable across all entries with the same
+     * {@link #getDictionaries()}.
+     */
+    public int getCode(String field) {
+        return -1;
+    }
+
+    /**
+     * Returns the dictionaries the codes of {@link #getCode(String)} belong to, or null if the
+     * entry has no codes.
+     */
+    public FieldDictionaries getDictionaries() {
+        return null;
+    }
+
+    /*
+     * Primitive views of the timestamp. Consumers that compare or bucket timestamps use these
+     * so that entries storing the timestamp as numbers need not build an OffsetDateTime.
+     */
+
+    public boolean hasTimestamp() {
+        return getTimestamp() != null;
+    }
+
+    public long getEpochSecond() {
+        return getTimestamp().toEpochSecond();
+    }
+
+    public int getNano() {
+        return getTimestamp().getNano();
+    }
+
+    public int getOffsetSeconds() {
+        return getTimestamp().getOffset().getTotalSeconds();
+    }
+
     @Override
     public String toString() {
-        return String.format("[%s] %s: %s", timestamp, level, message);
+        return String.format("[%s] %s: %s", getTimestamp(), getLevel(), getMessage());
     }
 }
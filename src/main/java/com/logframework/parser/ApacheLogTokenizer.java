@@ -0,0 +1,283 @@
+package com.logframework.parser;
+
+import com.logframework.io.ByteScanner;
+
+/**
+ * Single-pass tokenizer for Apache access log lines. It accepts the common and combined
+ * formats, optionally preceded by a virtual host ({@code %v:%p}) and optionally followed by
+ * the response time in microseconds ({@code %D}):
+ * <pre>
+ * [vhost] host ident user [timestamp] "METHOD path HTTP/x.y" status size ["referrer" "user-agent"] [micros]
+ * </pre>
+ * Fields are recorded as offsets into the line, so nothing is copied until the parser asks
+ * for a field's text. The long fields, the path and the quoted ones, are delimited by
+ * finding their closing quote with {@link ByteScanner#indexOf(CharSequence, char, int, int)}. An instance holds the result of the last line and is not thread-safe.
+ */
+final class ApacheLogTokenizer {
+    int vhostStart;
+    int vhostEnd;
+    int hostStart;
+    int hostEnd;
+    int timestampStart;
+    int timestampEnd;
+    int methodStart;
+    int methodEnd;
+    int pathStart;
+    int pathEnd;
+    int protocolStart;
+    int protocolEnd;
+    int status;
+    long size; // 0 for "-"
+    int referrerStart;
+    int referrerEnd;
+    int userAgentStart;
+    int userAgentEnd;
+    long responseTime; // -1 without %D
+
+    private CharSequence line;
+    private int length;
+    private int pos;
+    private int quotedStart;
+    private int quotedEnd;
+
+    boolean hasVhost() {
+        return vhostStart >= 0;
+    }
+
+    boolean hasReferrerAndUserAgent() {
+        return referrerStart >= 0;
+    }
+
+    String text(int start, int end) {
+        return line.subSequence(start, end).toString();
+    }
+
+    /**
+     * Tokenizes one line.
+     *
+     * @return false if the line is not in one of the supported formats
+     */
+    boolean tokenize(CharSequence line) {
+        this.line = line;
+        this.length = line.length();
+        this.pos = 0;
+        vhostStart = -1;
+        referrerStart = -1;
+        responseTime = -1;
+
+        return leadingFields()
+                && timestamp()
+                && request()
+                && statusAndSize()
+                && trailingFields();
+    }
+
+    /**
+     * Reads "host ident user", or "vhost host ident user", up to the '[' of the timestamp.
+     */
+    private boolean leadingFields() {
+        int fields = 0;
+        int firstStart = 0;
+        int firstEnd = 0;
+        int secondStart = 0;
+        int secondEnd = 0;
+        while (pos < length && line.charAt(pos) != '[') {
+            int start = pos;
+            while (pos < length && line.charAt(pos) > ' ') {
+                pos++;
+            }
+            if (pos == start || !expect(' ') || ++fields > 4) {
+                return false;
+            }
+            if (fields == 1) {
+                firstStart = start;
+                firstEnd = pos - 1;
+            } else if (fields == 2) {
+                secondStart = start;
+                secondEnd = pos - 1;
+            }
+        }
+        if (fields == 3) {
+            hostStart = firstStart;
+            hostEnd = firstEnd;
+        } else if (fields == 4) {
+            vhostStart = firstStart;
+            vhostEnd = firstEnd;
+            hostStart = secondStart;
+            hostEnd = secondEnd;
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reads "[dd/MMM/yyyy:HH:mm:ss +zzzz] ".
+     */
+    private boolean timestamp() {
+        if (!expect('[')) {
+            return false;
+        }
+        timestampStart = pos;
+        while (pos < length && isTimestampChar(line.charAt(pos))) {
+            pos++;
+        }
+        if (pos == timestampStart || pos >= length || line.charAt(pos) > ' ') {
+            return false;
+        }
+        pos++;
+        if (pos >= length || (line.charAt(pos) != '+' && line.charAt(pos) != '-')) {
+            return false;
+        }
+        pos++;
+        for (int i = 0; i < 4; i++) {
+            if (!digit()) {
+                return false;
+            }
+        }
+        timestampEnd = pos;
+        return expect(']') && expect(' ');
+    }
+
+    /**
+     * Reads "\"METHOD path HTTP/x.y\" ". The path ends at the first " HTTP/x.y\"" after it.
+     */
+    private boolean request() {
+        if (!expect('"')) {
+            return false;
+        }
+        methodStart = pos;
+        while (pos < length && line.charAt(pos) >= 'A' && line.charAt(pos) <= 'Z') {
+            pos++;
+        }
+        methodEnd = pos;
+        if (methodEnd == methodStart || !expect(' ')) {
+            return false;
+        }
+        pathStart = pos;
+        // The path ends at the first " HTTP/x.y\"", so only the quotes need a closer look
+        for (int quote = ByteScanner.indexOf(line, '"', pathStart + 10, length); quote >= 0;
+             quote = ByteScanner.indexOf(line, '"', quote + 1, length)) {
+            int i = quote - 9;
+            if (isProtocolAt(i)) {
+                pathEnd = i;
+                protocolStart = i + 1;
+                protocolEnd = i + 9;
+                pos = i + 10;
+                return expect(' ');
+            }
+        }
+        return false;
+    }
+
+    private boolean statusAndSize() {
+        int start = pos;
+        int value = 0;
+        while (pos < length && pos - start < 3 && isDigit(line.charAt(pos))) {
+            value = value * 10 + (line.charAt(pos++) - '0');
+        }
+        if (pos - start != 3 || !expect(' ')) {
+            return false;
+        }
+        status = value;
+
+        if (pos < length && line.charAt(pos) == '-') {
+            pos++;
+            size = 0;
+            return true;
+        }
+        size = number();
+        return size >= 0;
+    }
+
+    /**
+     * Reads the optional referrer and user agent, the optional response time and the end of
+     * the line.
+     */
+    private boolean trailingFields() {
+        if (pos < length && line.charAt(pos) == ' ' && pos + 1 < length && line.charAt(pos + 1) == '"') {
+            pos++;
+            if (!quoted()) {
+                return false;
+            }
+            referrerStart = quotedStart;
+            referrerEnd = quotedEnd;
+            if (!expect(' ') || !quoted()) {
+                return false;
+            }
+            userAgentStart = quotedStart;
+            userAgentEnd = quotedEnd;
+        }
+        if (pos < length && line.charAt(pos) == ' ' && pos + 1 < length && isDigit(line.charAt(pos + 1))) {
+            pos++;
+            responseTime = number();
+        }
+        while (pos < length && line.charAt(pos) <= ' ') {
+            pos++; // Trailing whitespace, e.g. '\r'
+        }
+        return pos == length;
+    }
+
+    private boolean quoted() {
+        if (!expect('"')) {
+            return false;
+        }
+        quotedStart = pos;
+        int quote = ByteScanner.indexOf(line, '"', pos, length);
+        pos = quote < 0 ? length : quote;
+        quotedEnd = pos;
+        return expect('"');
+    }
+
+    /**
+     * Reads a non-negative decimal number, or returns -1 if there is none or it overflows.
+     */
+    private long number() {
+        int start = pos;
+        long value = 0;
+        while (pos < length && isDigit(line.charAt(pos))) {
+            if (value > (Long.MAX_VALUE - 9) / 10) {
+                return -1;
+            }
+            value = value * 10 + (line.charAt(pos++) - '0');
+        }
+        return pos == start ? -1 : value;
+    }
+
+    private boolean isProtocolAt(int i) {
+        return line.charAt(i) == ' '
+                && line.charAt(i + 1) == 'H'
+                && line.charAt(i + 2) == 'T'
+                && line.charAt(i + 3) == 'T'
+                && line.charAt(i + 4) == 'P'
+                && line.charAt(i + 5) == '/'
+                && isDigit(line.charAt(i + 6))
+                && line.charAt(i + 7) == '.'
+                && isDigit(line.charAt(i + 8))
+                && line.charAt(i + 9) == '"';
+    }
+
+    private boolean expect(char c) {
+        if (pos < length && line.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean digit() {
+        if (pos < length && isDigit(line.charAt(pos))) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isTimestampChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c) || c == '_' || c == ':' || c == '/';
+    }
+}
@@ -0,0 +1,169 @@
+package com.logframework.parser;
+
+import com.logframework.util.CharSequences;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Selects the parser for a source from a sample of its first lines. Each sampled line is
+ * claimed by the first registered parser whose {@link LogParser#mightParse(CharSequence)}
+ * prefix test and {@link LogParser#canParse(CharSequence)} accept it; lines no parser claims,
+ * such as banners and stack trace lines, are ignored. When every claimed line went to the same
+ * parser, that parser is returned as is, so uniform sources pay nothing for routing. A sample
+ * that mixes formats, e.g. JSON and plain lines from a container runtime, gets a
+ * {@link RoutingParser} that picks the parser per event.
+ * <p>
+ * Decisions are cached by file signature, the path with digit runs collapsed, so rotated and
+ * dated files of the same log reuse the decision as long as it claims every sampled line some
+ * registered parser claims; a file whose sample has drifted, e.g. to a mix of formats, is
+ * detected again.
+ * The detector is thread-safe.
+ */
+public class FormatDetector {
+    private static final Logger logger = Logger.getLogger(FormatDetector.class.getName());
+
+    public static final int DEFAULT_SAMPLE_LINES = 16;
+    private static final int MAX_CACHED_SIGNATURES = 1024;
+
+    private final List<LogParser> parsers;
+    private final Map<String, LogParser> decisions = new ConcurrentHashMap<>();
+
+    /**
+     * @param parsers the candidates in order of preference; the list is read on every
+     *                detection, call {@link #clearCache()} after changing it
+     */
+    public FormatDetector(List<LogParser> parsers) {
+        this.parsers = parsers;
+    }
+
+    /**
+     * Returns the parser for a source, or null if no parser accepts any sampled line.
+     *
+     * @param sourceName file name used as cache key, or null to skip the cache
+     * @param sample     the first lines of the source; blank lines are ignored
+     */
+    public LogParser detect(String sourceName, List<? extends CharSequence> sample) {
+        String signature = sourceName != null ? signature(sourceName) : null;
+        LogParser cached = signature != null ? decisions.get(signature) : null;
+        if (cached != null && coversSample(cached, sample)) {
+            logger.fine("Reusing parser " + cached.getParserName() + " for " + sourceName);
+            return cached;
+        }
+
+        LogParser detected = detect(sample);
+        if (signature != null && detected != null) {
+            if (decisions.size() >= MAX_CACHED_SIGNATURES) {
+                decisions.clear();
+            }
+            decisions.put(signature, detected);
+        }
+        return detected;
+    }
+
+    public void clearCache() {
+        decisions.clear();
+    }
+
+    private LogParser detect(List<? extends CharSequence> sample) {
+        Map<LogParser, Integer> votes = new LinkedHashMap<>();
+        LogParser previous = null;
+        for (CharSequence line : sample) {
+            if (CharSequences.isBlank(line)) {
+                continue;
+            }
+            // Consecutive lines nearly always share a format, so the last winner is tried first
+            LogParser claimed = previous != null && claims(previous, line) ? previous : claim(line);
+            if (claimed != null) {
+                votes.merge(claimed, 1, Integer::sum);
+                previous = claimed;
+            } else if (logger.isLoggable(Level.FINE)) {
+                logger.fine("No parser claims sample line: " + line);
+            }
+        }
+        if (votes.isEmpty()) {
+            logger.warning("No parser could parse the sampled lines");
+            return null;
+        }
+        if (votes.size() == 1) {
+            return votes.keySet().iterator().next();
+        }
+        List<LogParser> members = new ArrayList<>(votes.keySet());
+        members.sort(Comparator.comparing(votes::get).reversed()); // Stable, so ties keep registration order
+        logger.info("Sample mixes formats " + votes.entrySet().stream()
+                .map(vote -> vote.getKey().getParserName() + "=" + vote.getValue())
+                .collect(Collectors.joining(", ")) + ", routing per event");
+        return new RoutingParser(members);
+    }
+
+    private LogParser claim(CharSequence line) {
+        for (LogParser parser : parsers) {
+            if (claims(parser, line)) {
+                return parser;
+            }
+        }
+        return null;
+    }
+
+    private static boolean claims(LogParser parser, CharSequence line) {
+        return parser.mightParse(line) && parser.canParse(line);
+    }
+
+    /**
+     * Returns true if the parser claims at least one sampled line and no line it rejects is
+     * claimed by another registered parser; lines nobody claims, like banners, do not count.
+     */
+    private boolean coversSample(LogParser parser, List<? extends CharSequence> sample) {
+        boolean claimedAny = false;
+        for (CharSequence line : sample) {
+            if (CharSequences.isBlank(line)) {
+                continue;
+            }
+            if (claims(parser, line)) {
+                claimedAny = true;
+            } else if (claim(line) != null) {
+                return false;
+            }
+        }
+        return claimedAny;
+    }
+
+    /**
+     * Returns the cache key for a file: its path with compression suffixes removed and digit
+     * runs replaced by '#', so {@code app-2025-01-01.log.gz} and {@code app-2025-01-02.log}
+     * share a decision, as do {@code access.log} and {@code access.log.1}.
+     */
+    static String signature(String sourceName) {
+        String name = sourceName;
+        int entry = name.indexOf("!/");
+        if (entry >= 0) {
+            name = name.substring(entry + 2); // Entries of different archives share a signature
+        }
+        if (name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - 3);
+        }
+        StringBuilder signature = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (signature.length() == 0 || signature.charAt(signature.length() - 1) != '#') {
+                    signature.append('#');
+                }
+            } else {
+                signature.append(c);
+            }
+        }
+        while (signature.length() > 2 && signature.charAt(signature.length() - 1) == '#'
+                && signature.charAt(signature.length() - 2) == '.') {
+            signature.setLength(signature.length() - 2); // access.log.# is a rotation of access.log
+        }
+        return signature.toString();
+    }
+}
@@ -1,84 +1,120 @@
 package com.logframework.parser;
 
+import com.logframework.model.CompactLogEntry;
+import com.logframework.model.FieldDictionaries;
+import com.logframework.model.FieldDictionary;
 import com.logframework.model.LogEntry;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.JsonNode;
 
-import java.time.OffsetDateTime;
+import java.io.IOException;
 import java.time.format.DateTimeFormatter;
-import java.util.*;
+import java.util.Set;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
+/**
+ * Parses one JSON object per line (NDJSON). Records are read with a streaming
+ * {@link JsonParser} in a single pass; no tree is built, and fields outside the required
+ * fields set with {@link #setRequiredFields(Set)} are skipped without decoding their values.
+ */
 public class JsonLogParser implements LogParser {
     private static final Logger logger = Logger.getLogger(JsonLogParser.class.getName());
-    private final ObjectMapper objectMapper;
+    private final JsonFactory jsonFactory;
+    private volatile Set<String> requiredFields; // null = all fields
+    // Kept between calls so the cached second and minute survive from one event or batch to the next
+    private final ThreadLocal<TimestampDecoder> timestampDecoders =
+            ThreadLocal.withInitial(() -> new TimestampDecoder(TimestampDecoder.Layout.ISO_OFFSET));
 
     public JsonLogParser() {
-        this.objectMapper = new ObjectMapper();
+        this.jsonFactory = new ObjectMapper().getFactory();
         logger.info("JsonLogParser initialized");
     }
 
+    /**
+     * Restricts the fields that are extracted; the names are the JSON keys.
+     */
+    @Override
+    public void setRequiredFields(Set<String> requiredFields) {
+        this.requiredFields = requiredFields == null ? null : Set.copyOf(requiredFields);
+    }
+
     @Override
     public DateTimeFormatter getDateTimeFormatter() {
-        return DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSSZ", java.util.Locale.ENGLISH);
+        return TimestampDecoder.Layout.ISO_OFFSET.getFormatter();
     }
 
     @Override
     public LogEntry parse(String logContent) {
+        return parse(logContent, null);
+    }
 
-        if (logContent == null || logContent.trim().isEmpty()) {
+    @Override
+    public LogEntry parse(CharSequence logContent, FieldDictionaries dictionaries) {
+
+        if (logContent == null || logContent.toString().trim().isEmpty()) {
             logger.warning("Received null or empty log content");
             return null;
         }
 
-        logger.fine("Attempting to parse JSON log content: " + logContent);
-
-        try {
-            JsonNode node = objectMapper.readTree(logContent);
-            LogEntry entry = new LogEntry();
+        if (logger.isLoggable(Level.FINE)) {
+            logger.fine("Attempting to parse JSON log content: " + logContent);
+        }
+        return parse(logContent.toString(), timestampDecoders.get(), dictionaries);
+    }
 
-            // Parse timestamp
-            if (node.has("timestamp")) {
-                String timestampStr = node.get("timestamp").asText();
-                entry.setTimestamp(OffsetDateTime.parse(timestampStr));
-                logger.fine("Parsed timestamp: " + timestampStr);
-            } else {
-                logger.fine("No timestamp field found in JSON log entry");
-            }
+    /**
+     * Decodes the timestamps of the whole batch with the thread's decoder.
+     */
+    @Override
+    public void parseBatch(CharSequence[] events, int count, LogEntry[] entries, FieldDictionaries dictionaries) {
+        TimestampDecoder timestamps = timestampDecoders.get();
+        for (int i = 0; i < count; i++) {
+            String event = events[i].toString();
+            entries[i] = event.trim().isEmpty() ? null : parse(event, timestamps, dictionaries);
+        }
+    }
 
-            // Parse level
-            if (node.has("level")) {
-                String level = node.get("level").asText();
-                entry.setLevel(level);
-                logger.fine("Parsed level: " + level);
-            } else {
-                logger.fine("No level field found in JSON log entry");
+    private LogEntry parse(String logContent, TimestampDecoder timestamps, FieldDictionaries dictionaries) {
+        try (JsonParser parser = jsonFactory.createParser(logContent)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                logger.fine("JSON log content is not an object");
+                return null;
             }
-
-            // Parse message
-            if (node.has("message")) {
-                String message = node.get("message").asText();
-                entry.setMessage(message);
-                logger.fine("Parsed message: " + message);
-            } else {
-                logger.fine("No message field found in JSON log entry");
+            Set<String> required = requiredFields;
+            CompactLogEntry entry = new CompactLogEntry(dictionaries);
+
+            for (String name = parser.nextFieldName(); name != null; name = parser.nextFieldName()) {
+                JsonToken token = parser.nextToken();
+                if (required != null && !required.contains(name)) {
+                    parser.skipChildren(); // Nested values are skipped, scalars are never decoded
+                    continue;
+                }
+                String value = text(parser, token);
+                switch (name) {
+                    case "timestamp":
+                        entry.setTimestamp(timestamps.decode(value));
+                        break;
+                    case "level":
+                        entry.setLevel(value, 0, value.length());
+                        break;
+                    case "message":
+                        entry.setMessage(value);
+                        break;
+                    default:
+                        if (FieldDictionary.isEncoded(name)) {
+                            entry.addAttribute(name, value, 0, value.length());
+                        } else {
+                            entry.addAttribute(name, value);
+                        }
+                }
             }
 
-            // Parse additional attributes
-            int attributeCount = 0;
-            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
-            while (fields.hasNext()) {
-                Map.Entry<String, JsonNode> field = fields.next();
-                String key = field.getKey();
-                if (!Arrays.asList("timestamp", "level", "message").contains(key)) {
-                    entry.addAttribute(key, field.getValue().asText());
-                    attributeCount++;
-                }
+            if (logger.isLoggable(Level.FINE)) {
+                logger.fine("Parsed JSON log entry with " + entry.getAttributes().size() + " additional attributes");
             }
-            
-            logger.fine("Parsed " + attributeCount + " additional attributes");
-            logger.fine("Successfully parsed JSON log entry");
             return entry;
 
         } catch (Exception e) {
@@ -87,6 +123,28 @@ public class JsonLogParser implements LogParser {
         }
     }
 
+    /**
+     * Returns the value as text the way {@code JsonNode.asText()} did: numbers and booleans
+     * in their JSON form, "null" for null and an empty string for objects and arrays.
+     */
+    private static String text(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case START_OBJECT:
+            case START_ARRAY:
+                parser.skipChildren();
+                return "";
+            case VALUE_NUMBER_FLOAT:
+                return String.valueOf(parser.getDoubleValue());
+            case VALUE_NULL:
+                return "null";
+            default:
+                return parser.getText();
+        }
+    }
+
+    /**
+     * Checks the structure of the object without decoding any values.
+     */
     @Override
     public boolean canParse(String logContent) {
         if (logContent == null || logContent.trim().isEmpty()) {
@@ -94,10 +152,12 @@ public class JsonLogParser implements LogParser {
             return false;
         }
 
-        logger.fine("Checking if content can be parsed as JSON: " + logContent);
-
-        try {
-            objectMapper.readTree(logContent);
+        try (JsonParser parser = jsonFactory.createParser(logContent)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                logger.fine("Content is not a JSON object");
+                return false;
+            }
+            parser.skipChildren();
             logger.fine("Content can be parsed as valid JSON");
             return true;
         } catch (Exception e) {
@@ -106,6 +166,20 @@ public class JsonLogParser implements LogParser {
         }
     }
 
+    /**
+     * Records are objects, so the first non-blank character must be '{'.
+     */
+    @Override
+    public boolean mightParse(CharSequence line) {
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c > ' ') {
+                return c == '{';
+            }
+        }
+        return false;
+    }
+
     @Override
     public String getParserName() {
         return "JSON Parser";
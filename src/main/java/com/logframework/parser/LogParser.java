@@ -1,19 +1,141 @@
 package com.logframework.parser;
 
+import com.logframework.model.FieldDictionaries;
 import com.logframework.model.LogEntry;
 
 import java.time.format.DateTimeFormatter;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public interface LogParser {
+    /**
+     * Returned by a timestamp reader, see {@link #newTimestampReader()}, for an event whose
+     * timestamp it cannot tell.
+     */
+    long UNKNOWN_SECOND = Long.MIN_VALUE;
+
     LogEntry parse(String logContent);
     boolean canParse(String logContent);
     String getParserName();
     DateTimeFormatter getDateTimeFormatter();
 
+    /**
+     * Parses a line handed out by a {@link com.logframework.io.LineReader}. The sequence may
+     * be a view over the read buffer that is only valid during this call, so parsers must copy
+     * whatever they keep. Parsers that can work on a CharSequence directly should override this
+     * to avoid the String copy.
+     */
+    default LogEntry parse(CharSequence logContent) {
+        return parse(logContent.toString());
+    }
+
+    /**
+     * Variant of {@link #parse(CharSequence)} that encodes low-cardinality values through
+     * the run's dictionaries, see {@link com.logframework.model.CompactLogEntry}. Parsers
+     * without encoded fields keep the default, which ignores the dictionaries.
+     */
+    default LogEntry parse(CharSequence logContent, FieldDictionaries dictionaries) {
+        return parse(logContent);
+    }
+
+    /**
+     * CharSequence variant of {@link #canParse(String)}, see {@link #parse(CharSequence)}.
+     */
+    default boolean canParse(CharSequence logContent) {
+        return canParse(logContent.toString());
+    }
+
+    /**
+     * Cheap test on the first characters of a line, run before {@link #canParse(CharSequence)}
+     * during format detection and before {@link #parse(CharSequence)} when a source mixes
+     * formats. It may accept lines the parser then rejects, but must accept every line the
+     * parser can handle; the default accepts everything.
+     */
+    default boolean mightParse(CharSequence line) {
+        return true;
+    }
+
+    /**
+     * Parses the first count events into the matching slots of entries, leaving null for
+     * events that cannot be parsed, and encodes values through the run's dictionaries as
+     * {@link #parse(CharSequence, FieldDictionaries)} does. Parsers override this to set up
+     * per-call state such as matchers once per batch instead of once per event.
+     */
+    default void parseBatch(CharSequence[] events, int count, LogEntry[] entries, FieldDictionaries dictionaries) {
+        for (int i = 0; i < count; i++) {
+            entries[i] = parse(events[i], dictionaries);
+        }
+    }
+
+    /**
+     * Returns a parser for one thread that fills recycled entries, used when no filter or
+     * aggregator keeps the entries it is given.
+     *
+     * @return the parser, or null if this parser always allocates its entries
+     */
+    default ReusingParser newReusingParser() {
+        return null;
+    }
+
+    /**
+     * Indicates whether this parser copies the field's value out of the event unchanged, so
+     * that any text found in the value also occurs in the raw event. Filters rely on this to
+     * test events before they are parsed; the default is false.
+     */
+    default boolean isVerbatim(String field) {
+        return false;
+    }
+
+    /**
+     * Returns a reader for one thread that finds the epoch second of the timestamp an event's
+     * entry would get, without parsing the rest of the event. The reader returns
+     * {@link #UNKNOWN_SECOND} when it cannot tell, for example for events the parser rejects.
+     *
+     * @return the reader, or null if this parser cannot read timestamps ahead of parsing
+     */
+    default ToLongFunction<CharSequence> newTimestampReader() {
+        return null;
+    }
+
+    /**
+     * Limits the fields this parser extracts into entries. Names are "timestamp", "level",
+     * "message" or an attribute name; null, the default, extracts every field. Parsers that
+     * cannot save work by skipping fields ignore this.
+     */
+    default void setRequiredFields(Set<String> requiredFields) {
+    }
+
+    /**
+     * Indicates whether a field is in a set passed to {@link #setRequiredFields(Set)}.
+     */
+    static boolean isRequired(Set<String> requiredFields, String field) {
+        return requiredFields == null || requiredFields.contains(field);
+    }
 
     default String getStartPattern() {
         return null; // Default: single-line parsing
     }
+
+    /**
+     * Returns a test for the first line of a multi-line event. Parsers override this with a
+     * cheaper check, such as one of the line's fixed prefix; the default finds
+     * {@link #getStartPattern()} in the line. Each call returns a new predicate for use by one
+     * thread. Multi-line events are passed to {@link #parse(CharSequence)} with their lines
+     * joined by '\n' and surrounding whitespace removed.
+     *
+     * @return the test, or null for single-line parsers
+     */
+    default Predicate<CharSequence> getStartLinePredicate() {
+        String startPattern = getStartPattern();
+        if (startPattern == null) {
+            return null;
+        }
+        Matcher matcher = Pattern.compile(startPattern).matcher("");
+        return line -> matcher.reset(line).find();
+    }
     
     /**
      * Indicates whether this parser expects multi-line log entries.
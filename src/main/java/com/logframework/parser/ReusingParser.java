@@ -0,0 +1,22 @@
+package com.logframework.parser;
+
+import com.logframework.model.CompactLogEntry;
+import com.logframework.model.LogEntry;
+
+/**
+ * Parses events into an entry owned by the caller instead of allocating one per event.
+ * Instances come from {@link LogParser#newReusingParser()}, belong to one thread and keep
+ * that thread's per-call state, such as the tokenizer, for as long as they are used. Values
+ * are encoded through the target's dictionaries, see {@link CompactLogEntry#getDictionaries()}.
+ */
+@FunctionalInterface
+public interface ReusingParser {
+
+    /**
+     * Overwrites the target with the parsed event.
+     *
+     * @return the target, a new entry if the event was parsed by a parser that cannot fill
+     * the target, or null if the event cannot be parsed
+     */
+    LogEntry parse(CharSequence event, CompactLogEntry target);
+}
@@ -0,0 +1,213 @@
+package com.logframework.parser;
+
+import com.logframework.model.FieldDictionaries;
+import com.logframework.model.LogEntry;
+
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Parses a source that mixes formats by handing each event to the first member whose
+ * {@link LogParser#mightParse(CharSequence)} prefix test accepts it, falling back to the other
+ * members when that parser returns null. Members are ordered by how many sampled lines they
+ * claimed, so the dominant format is tried first. Batches are split by member, so every member
+ * still parses its events with one set of per-batch state.
+ * <p>
+ * The router holds no per-event state and is as thread-safe as its members.
+ */
+final class RoutingParser implements LogParser {
+    private final LogParser[] members;
+
+    RoutingParser(List<LogParser> members) {
+        this.members = members.toArray(new LogParser[0]);
+    }
+
+    List<LogParser> getMembers() {
+        return List.of(members);
+    }
+
+    @Override
+    public LogEntry parse(String logContent) {
+        return parse((CharSequence) logContent);
+    }
+
+    @Override
+    public LogEntry parse(CharSequence logContent) {
+        return parseFrom(logContent, -1, null);
+    }
+
+    @Override
+    public LogEntry parse(CharSequence logContent, FieldDictionaries dictionaries) {
+        return parseFrom(logContent, -1, dictionaries);
+    }
+
+    @Override
+    public void parseBatch(CharSequence[] events, int count, LogEntry[] entries, FieldDictionaries dictionaries) {
+        int[] routes = new int[count];
+        for (int i = 0; i < count; i++) {
+            routes[i] = route(events[i]);
+            entries[i] = null;
+        }
+        CharSequence[] group = new CharSequence[count];
+        LogEntry[] groupEntries = new LogEntry[count];
+        for (int member = 0; member < members.length; member++) {
+            int size = 0;
+            for (int i = 0; i < count; i++) {
+                if (routes[i] == member) {
+                    group[size++] = events[i];
+                }
+            }
+            if (size == 0) {
+                continue;
+            }
+            members[member].parseBatch(group, size, groupEntries, dictionaries);
+            for (int i = 0, j = 0; i < count && j < size; i++) {
+                if (routes[i] == member) {
+                    entries[i] = groupEntries[j++];
+                }
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (entries[i] == null && routes[i] >= 0) {
+                entries[i] = parseFrom(events[i], routes[i], dictionaries);
+            }
+        }
+    }
+
+    /**
+     * Routes like {@link #parse(CharSequence)}; members that cannot fill the target parse
+     * into a new entry.
+     */
+    @Override
+    public ReusingParser newReusingParser() {
+        ReusingParser[] parsers = new ReusingParser[members.length];
+        for (int i = 0; i < members.length; i++) {
+            LogParser member = members[i];
+            ReusingParser parser = member.newReusingParser();
+            parsers[i] = parser != null ? parser : (event, target) -> member.parse(event, target.getDictionaries());
+        }
+        return (event, target) -> {
+            for (int i = 0; i < members.length; i++) {
+                if (members[i].mightParse(event)) {
+                    LogEntry entry = parsers[i].parse(event, target);
+                    if (entry != null) {
+                        return entry;
+                    }
+                }
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Returns the index of the first member whose prefix test accepts the event, or -1.
+     */
+    private int route(CharSequence event) {
+        for (int i = 0; i < members.length; i++) {
+            if (members[i].mightParse(event)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Tries every member that might parse the event except the one at skip.
+     */
+    private LogEntry parseFrom(CharSequence event, int skip, FieldDictionaries dictionaries) {
+        for (int i = 0; i < members.length; i++) {
+            if (i != skip && members[i].mightParse(event)) {
+                LogEntry entry = members[i].parse(event, dictionaries);
+                if (entry != null) {
+                    return entry;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean canParse(String logContent) {
+        return canParse((CharSequence) logContent);
+    }
+
+    @Override
+    public boolean canParse(CharSequence logContent) {
+        for (LogParser member : members) {
+            if (member.mightParse(logContent) && member.canParse(logContent)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean mightParse(CharSequence line) {
+        return route(line) >= 0;
+    }
+
+    /**
+     * A field is verbatim when every member copies it verbatim, as any member may parse an
+     * event. Timestamps are not read ahead, since the member that parses an event is only
+     * known once it has been parsed.
+     */
+    @Override
+    public boolean isVerbatim(String field) {
+        for (LogParser member : members) {
+            if (!member.isVerbatim(field)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void setRequiredFields(Set<String> requiredFields) {
+        for (LogParser member : members) {
+            member.setRequiredFields(requiredFields);
+        }
+    }
+
+    @Override
+    public String getParserName() {
+        return List.of(members).stream().map(LogParser::getParserName)
+                .collect(Collectors.joining(", ", "Mixed (", ")"));
+    }
+
+    @Override
+    public DateTimeFormatter getDateTimeFormatter() {
+        return members[0].getDateTimeFormatter();
+    }
+
+    @Override
+    public boolean isMultiLine() {
+        for (LogParser member : members) {
+            if (member.isMultiLine()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A line starts an event when it starts an event of a multi-line member or is a whole
+     * event of a single-line member, so a JSON line after a stack trace is not appended to it.
+     */
+    @Override
+    public Predicate<CharSequence> getStartLinePredicate() {
+        if (!isMultiLine()) {
+            return null;
+        }
+        Predicate<CharSequence> startLine = line -> false;
+        for (LogParser member : members) {
+            Predicate<CharSequence> memberStart = member.isMultiLine()
+                    ? member.getStartLinePredicate()
+                    : line -> member.mightParse(line) && member.canParse(line);
+            startLine = startLine.or(memberStart);
+        }
+        return startLine;
+    }
+}
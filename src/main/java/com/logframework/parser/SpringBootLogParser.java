@@ -1,11 +1,16 @@
 package com.logframework.parser;
 
+import com.logframework.model.CompactLogEntry;
+import com.logframework.model.FieldDictionaries;
 import com.logframework.model.LogEntry;
-import java.time.LocalDateTime;
+import com.logframework.util.CharSequences;
+import java.time.DateTimeException;
 import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.logging.Logger;
@@ -24,9 +29,21 @@ public class SpringBootLogParser implements LogParser {
             "^(\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}) \\[([^\\]]+)\\] (\\w+)\\s+([\\w\\.]+) - (.*)$"
     );
 
-    // DateTimeFormatter for parsing timestamps
-    private static final DateTimeFormatter TIMESTAMP_FORMATTER =
-            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String START_SHAPE = "####-##-## ##:##:## ["; // '#' is a digit
+    private static final int TIMESTAMP_LENGTH = "yyyy-MM-dd HH:mm:ss".length();
+    private static final Set<String> VERBATIM_FIELDS = Set.of("thread", "level", "logger", "message");
+
+    private volatile Set<String> requiredFields; // null = all fields
+    private final ThreadLocal<State> state = ThreadLocal.withInitial(State::new);
+
+    /**
+     * Matcher and timestamp decoder of one thread, kept between calls so the decoder's
+     * cached second and minute survive from one event or batch to the next.
+     */
+    private static final class State {
+        final Matcher matcher = LOG_PARSE_PATTERN.matcher("");
+        final TimestampDecoder timestamps = new TimestampDecoder(TimestampDecoder.Layout.LOCAL_UTC);
+    }
 
     public SpringBootLogParser() {
         logger.info("SpringBootLogParser initialized with pattern support for multi-line logs");
@@ -34,78 +51,135 @@ public class SpringBootLogParser implements LogParser {
 
     @Override
     public LogEntry parse(String logContent) {
-        if (logContent == null || logContent.trim().isEmpty()) {
+        return parse(logContent, null);
+    }
+
+    @Override
+    public LogEntry parse(CharSequence logContent, FieldDictionaries dictionaries) {
+        if (logContent == null || CharSequences.isBlank(logContent)) {
             logger.warning("Received null or empty log content");
             return null;
         }
 
-        logger.fine("Attempting to parse Spring Boot log content with " + 
-                   logContent.split(System.lineSeparator()).length + " line(s)");
+        State current = state.get();
+        return parse(logContent.toString(), current.matcher, current.timestamps, requiredFields, dictionaries);
+    }
 
-        String[] lines = logContent.split(System.lineSeparator());
-        String firstLine = lines[0];
-        
-        logger.fine("First line: " + firstLine);
+    @Override
+    public void setRequiredFields(Set<String> requiredFields) {
+        this.requiredFields = requiredFields == null ? null : Set.copyOf(requiredFields);
+    }
+
+    /**
+     * Uses the thread's matcher and timestamp decoder for the whole batch.
+     */
+    @Override
+    public void parseBatch(CharSequence[] events, int count, LogEntry[] entries, FieldDictionaries dictionaries) {
+        State current = state.get();
+        Set<String> required = requiredFields;
+        for (int i = 0; i < count; i++) {
+            String event = events[i].toString();
+            entries[i] = event.trim().isEmpty()
+                    ? null
+                    : parse(event, current.matcher, current.timestamps, required, dictionaries);
+        }
+    }
+
+    @Override
+    public boolean isVerbatim(String field) {
+        return VERBATIM_FIELDS.contains(field);
+    }
+
+    /**
+     * Decodes the timestamp at the start of the event's first line.
+     */
+    @Override
+    public ToLongFunction<CharSequence> newTimestampReader() {
+        TimestampDecoder timestamps = new TimestampDecoder(TimestampDecoder.Layout.LOCAL_UTC);
+        return event -> {
+            if (!CharSequences.startsWithShape(event, START_SHAPE)) {
+                return UNKNOWN_SECOND;
+            }
+            try {
+                return timestamps.decode(event, 0, TIMESTAMP_LENGTH).toEpochSecond();
+            } catch (DateTimeException e) {
+                return UNKNOWN_SECOND;
+            }
+        };
+    }
+
+    private LogEntry parse(String logContent, Matcher matcher, TimestampDecoder timestamps, Set<String> required,
+                           FieldDictionaries dictionaries) {
+        // Events are joined with '\n'; only the first line carries the header
+        int firstLineEnd = firstLineEnd(logContent);
+        boolean multiLine = firstLineEnd < logContent.length();
 
-        Matcher matcher = LOG_PARSE_PATTERN.matcher(firstLine);
+        if (logger.isLoggable(Level.FINE)) {
+            logger.fine("Attempting to parse Spring Boot log content, multi-line: " + multiLine);
+        }
+
+        matcher.reset(logContent).region(0, firstLineEnd);
         if (!matcher.matches()) {
             logger.fine("Log content does not match Spring Boot pattern");
             return null; // Not a valid Spring Boot log format
         }
 
-        LogEntry entry = new LogEntry();
+        CompactLogEntry entry = new CompactLogEntry(dictionaries);
         logger.fine("Successfully matched Spring Boot log pattern");
 
-        try {
-            // Parse timestamp (group 1) and convert to OffsetDateTime
-            String timestampStr = matcher.group(1);
-            LocalDateTime localDateTime = LocalDateTime.parse(timestampStr, TIMESTAMP_FORMATTER);
-            OffsetDateTime offsetDateTime = localDateTime.atOffset(ZoneOffset.UTC);
-            entry.setTimestamp(offsetDateTime);
-            logger.fine("Parsed timestamp: " + timestampStr + " -> " + offsetDateTime);
-        } catch (DateTimeParseException e) {
-            logger.log(Level.WARNING, "Failed to parse timestamp: " + matcher.group(1), e);
-            // If timestamp parsing fails, use current time
-            entry.setTimestamp(OffsetDateTime.now());
-            logger.fine("Using current time as fallback timestamp");
-        } catch (Exception e) {
-            logger.log(Level.WARNING, "Unexpected error parsing timestamp", e);
-            entry.setTimestamp(OffsetDateTime.now());
+        // Parse timestamp (group 1) as UTC
+        if (LogParser.isRequired(required, "timestamp")) {
+            try {
+                OffsetDateTime offsetDateTime = timestamps.decode(logContent, matcher.start(1), matcher.end(1));
+                entry.setTimestamp(offsetDateTime);
+                if (logger.isLoggable(Level.FINE)) {
+                    logger.fine("Parsed timestamp: " + matcher.group(1) + " -> " + offsetDateTime);
+                }
+            } catch (DateTimeParseException e) {
+                logger.log(Level.WARNING, "Failed to parse timestamp: " + matcher.group(1), e);
+                // If timestamp parsing fails, use current time
+                entry.setTimestamp(OffsetDateTime.now());
+                logger.fine("Using current time as fallback timestamp");
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Unexpected error parsing timestamp", e);
+                entry.setTimestamp(OffsetDateTime.now());
+            }
         }
 
-        // Parse thread name (group 2)
-        String thread = matcher.group(2);
-        logger.fine("Parsed thread: " + thread);
-
-        // Parse log level (group 3)
-        String level = matcher.group(3);
-        entry.setLevel(level);
-        logger.fine("Parsed level: " + level);
-
-        // Parse logger name (group 4)
-        String loggerName = matcher.group(4);
-        entry.addAttribute("logger", loggerName);
-        entry.addAttribute("thread", thread);
-        logger.fine("Parsed logger: " + loggerName);
-
-        // For multi-line logs, use the entire content as the message
-        if (lines.length > 1) {
-            // Multi-line log: use full content as message
-            entry.setMessage(logContent.trim());
-            entry.addAttribute("multiline", true);
-            logger.fine("Multi-line log detected with " + lines.length + " lines, using full content as message");
-        } else {
-            // Single-line log: extract just the message part (group 5)
-            String message = matcher.group(5);
-            entry.setMessage(message);
-            entry.addAttribute("multiline", false);
-            logger.fine("Single-line log, extracted message: " + message);
+        // Thread name (group 2), log level (group 3) and logger name (group 4)
+        if (LogParser.isRequired(required, "thread")) {
+            entry.addAttribute("thread", logContent, matcher.start(2), matcher.end(2));
+        }
+        if (LogParser.isRequired(required, "level")) {
+            entry.setLevel(logContent, matcher.start(3), matcher.end(3));
+        }
+        if (LogParser.isRequired(required, "logger")) {
+            entry.addAttribute("logger", logContent, matcher.start(4), matcher.end(4));
+        }
+        if (LogParser.isRequired(required, "multiline")) {
+            entry.addAttribute("multiline", multiLine);
+        }
+
+        if (LogParser.isRequired(required, "message")) {
+            // For multi-line logs, use the entire content as the message; otherwise just group 5
+            entry.setMessage(multiLine ? logContent.trim() : matcher.group(5));
         }
 
-        logger.info("Successfully parsed Spring Boot log entry with level: " + level);
+        if (logger.isLoggable(Level.FINE)) {
+            logger.fine("Parsed Spring Boot log entry: " + entry + ", multi-line: " + multiLine);
+        }
+        logger.fine("Successfully parsed Spring Boot log entry");
         return entry;
     }
 
+    private static int firstLineEnd(String logContent) {
+        int end = logContent.indexOf('\n');
+        if (end < 0) {
+            return logContent.length();
+        }
+        return end > 0 && logContent.charAt(end - 1) == '\r' ? end - 1 : end;
+    }
+
     @Override
     public boolean canParse(String logContent) {
         if (logContent == null || logContent.trim().isEmpty()) {
@@ -116,7 +190,7 @@ public class SpringBootLogParser implements LogParser {
         logger.fine("Checking if content can be parsed as Spring Boot log format");
 
         // Test against the first line only for initial detection
-        String firstLine = logContent.split(System.lineSeparator())[0];
+        String firstLine = logContent.substring(0, firstLineEnd(logContent));
         boolean canParse = LOG_PARSE_PATTERN.matcher(firstLine).matches();
         
         if (canParse) {
@@ -136,7 +210,7 @@ public class SpringBootLogParser implements LogParser {
     @Override
     public DateTimeFormatter getDateTimeFormatter() {
         logger.fine("Providing DateTimeFormatter for pattern: yyyy-MM-dd HH:mm:ss");
-        return TIMESTAMP_FORMATTER;
+        return TimestampDecoder.Layout.LOCAL_UTC.getFormatter();
     }
 
     @Override
@@ -146,6 +220,20 @@ public class SpringBootLogParser implements LogParser {
         return pattern;
     }
 
+    /**
+     * Checks the fixed-width timestamp prefix character by character instead of running the
+     * start pattern on every continuation line of a stack trace.
+     */
+    @Override
+    public Predicate<CharSequence> getStartLinePredicate() {
+        return line -> CharSequences.startsWithShape(line, START_SHAPE);
+    }
+
+    @Override
+    public boolean mightParse(CharSequence line) {
+        return CharSequences.startsWithShape(line, START_SHAPE);
+    }
+
     @Override
     public boolean isMultiLine() {
         logger.fine("Parser supports multi-line log entries");
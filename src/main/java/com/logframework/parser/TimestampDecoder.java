@@ -0,0 +1,271 @@
+package com.logframework.parser;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Decodes fixed-layout timestamps by hand instead of through a {@link DateTimeFormatter}.
+ * Consecutive log lines nearly always share the same minute, so the date, hour and minute
+ * of the last timestamp are cached and only the seconds, fraction and offset are decoded
+ * for the next one; a timestamp in the same second without a fraction returns the previous
+ * instance. Text the fast path does not understand falls back to the layout's formatter, so
+ * the accepted input and the errors thrown are the same as before.
+ * <p>
+ * Instances keep the cache between calls and are not thread-safe; parsers create one per
+ * batch.
+ */
+public final class TimestampDecoder {
+
+    /**
+     * The supported layouts.
+     */
+    public enum Layout {
+        /** {@code 2025-01-01T10:00:00.123+01:00}, offset required, fraction optional. */
+        ISO_OFFSET("yyyy-MM-ddTHH:mm:".length(), DateTimeFormatter.ISO_OFFSET_DATE_TIME),
+        /** {@code 18/Sep/2025:16:10:00 +0000}, the Apache {@code %t} layout. */
+        APACHE("dd/MMM/yyyy:HH:mm:".length(),
+                DateTimeFormatter.ofPattern("dd/MMM/yyyy:HH:mm:ss Z", Locale.ENGLISH)),
+        /** {@code 2025-01-01 10:00:00}, interpreted as UTC. */
+        LOCAL_UTC("yyyy-MM-dd HH:mm:".length(), DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+
+        private final int secondsIndex;
+        private final DateTimeFormatter formatter;
+
+        Layout(int secondsIndex, DateTimeFormatter formatter) {
+            this.secondsIndex = secondsIndex;
+            this.formatter = formatter;
+        }
+
+        public DateTimeFormatter getFormatter() {
+            return formatter;
+        }
+    }
+
+    private static final String[] MONTHS = {
+            "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+
+    private final Layout layout;
+    private final int secondsIndex;
+
+    // Cached minute: the text before the seconds and what it decoded to
+    private final char[] minutePrefix;
+    private boolean minuteValid;
+    private LocalDate date;
+    private int hour;
+    private int minute;
+
+    // Cached second without fraction
+    private OffsetDateTime lastValue;
+    private int lastSecond = -1;
+    private ZoneOffset lastOffset;
+
+    public TimestampDecoder(Layout layout) {
+        this.layout = layout;
+        this.secondsIndex = layout.secondsIndex;
+        this.minutePrefix = new char[secondsIndex];
+    }
+
+    public Layout getLayout() {
+        return layout;
+    }
+
+    public OffsetDateTime decode(CharSequence text) {
+        return decode(text, 0, text.length());
+    }
+
+    /**
+     * Decodes the timestamp in {@code text[start, end)}.
+     *
+     * @throws DateTimeParseException if the text is not a valid timestamp in this layout
+     */
+    public OffsetDateTime decode(CharSequence text, int start, int end) {
+        OffsetDateTime value = decodeFast(text, start, end);
+        if (value != null) {
+            return value;
+        }
+        CharSequence timestamp = text.subSequence(start, end);
+        if (layout == Layout.LOCAL_UTC) {
+            return LocalDateTime.parse(timestamp, layout.formatter).atOffset(ZoneOffset.UTC);
+        }
+        return OffsetDateTime.parse(timestamp, layout.formatter);
+    }
+
+    /**
+     * Returns null if the text needs the formatter, either because it uses a form the fast
+     * path does not handle or because it is invalid.
+     */
+    private OffsetDateTime decodeFast(CharSequence text, int start, int end) {
+        int seconds = start + secondsIndex;
+        if (end < seconds + 2) {
+            return null;
+        }
+        if (!sameMinute(text, start) && !decodeMinute(text, start)) {
+            return null;
+        }
+        int second = twoDigits(text, seconds);
+        if (second < 0 || second > 59) {
+            return null;
+        }
+
+        int pos = seconds + 2;
+        int nanos = 0;
+        ZoneOffset offset;
+        if (layout == Layout.ISO_OFFSET) {
+            if (pos < end && text.charAt(pos) == '.') {
+                int fractionStart = ++pos;
+                while (pos < end && pos - fractionStart < 9 && isDigit(text.charAt(pos))) {
+                    nanos = nanos * 10 + (text.charAt(pos++) - '0');
+                }
+                if (pos == fractionStart) {
+                    return null;
+                }
+                for (int i = pos - fractionStart; i < 9; i++) {
+                    nanos *= 10;
+                }
+            }
+            offset = isoOffset(text, pos, end);
+        } else if (layout == Layout.APACHE) {
+            offset = pos + 6 == end && text.charAt(pos) == ' ' ? compactOffset(text, pos + 1) : null;
+        } else {
+            offset = pos == end ? ZoneOffset.UTC : null;
+        }
+        if (offset == null) {
+            return null;
+        }
+
+        if (nanos == 0 && second == lastSecond && offset.equals(lastOffset)) {
+            return lastValue;
+        }
+        OffsetDateTime value = OffsetDateTime.of(date.getYear(), date.getMonthValue(), date.getDayOfMonth(),
+                hour, minute, second, nanos, offset);
+        if (nanos == 0) {
+            lastValue = value;
+            lastSecond = second;
+            lastOffset = offset;
+        }
+        return value;
+    }
+
+    private boolean sameMinute(CharSequence text, int start) {
+        if (!minuteValid) {
+            return false;
+        }
+        for (int i = secondsIndex - 1; i >= 0; i--) { // Minutes differ first
+            if (text.charAt(start + i) != minutePrefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean decodeMinute(CharSequence text, int start) {
+        minuteValid = false;
+        lastSecond = -1;
+        int year;
+        int month;
+        int day;
+        int timeIndex;
+        if (layout == Layout.APACHE) {
+            // dd/MMM/yyyy:HH:mm:
+            day = twoDigits(text, start);
+            month = month(text, start + 3);
+            year = fourDigits(text, start + 7);
+            if (text.charAt(start + 2) != '/' || text.charAt(start + 6) != '/' || text.charAt(start + 11) != ':') {
+                return false;
+            }
+            timeIndex = start + 12;
+        } else {
+            // yyyy-MM-ddTHH:mm: or yyyy-MM-dd HH:mm:
+            year = fourDigits(text, start);
+            month = twoDigits(text, start + 5);
+            day = twoDigits(text, start + 8);
+            char separator = layout == Layout.ISO_OFFSET ? 'T' : ' ';
+            if (text.charAt(start + 4) != '-' || text.charAt(start + 7) != '-' || text.charAt(start + 10) != separator) {
+                return false;
+            }
+            timeIndex = start + 11;
+        }
+        int newHour = twoDigits(text, timeIndex);
+        int newMinute = twoDigits(text, timeIndex + 3);
+        if (year < 0 || month < 0 || day < 0 || newHour < 0 || newHour > 23 || newMinute < 0 || newMinute > 59
+                || text.charAt(timeIndex + 2) != ':' || text.charAt(timeIndex + 5) != ':') {
+            return false;
+        }
+        try {
+            date = LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            return false; // Let the formatter report it
+        }
+        hour = newHour;
+        minute = newMinute;
+        for (int i = 0; i < secondsIndex; i++) {
+            minutePrefix[i] = text.charAt(start + i);
+        }
+        minuteValid = true;
+        return true;
+    }
+
+    /**
+     * Decodes "Z" or "+HH:MM" that ends the text.
+     */
+    private static ZoneOffset isoOffset(CharSequence text, int pos, int end) {
+        if (pos + 1 == end && text.charAt(pos) == 'Z') {
+            return ZoneOffset.UTC;
+        }
+        if (pos + 6 == end && text.charAt(pos + 3) == ':') {
+            return offset(text.charAt(pos), twoDigits(text, pos + 1), twoDigits(text, pos + 4));
+        }
+        return null;
+    }
+
+    /**
+     * Decodes "+HHMM".
+     */
+    private static ZoneOffset compactOffset(CharSequence text, int pos) {
+        return offset(text.charAt(pos), twoDigits(text, pos + 1), twoDigits(text, pos + 3));
+    }
+
+    private static ZoneOffset offset(char sign, int hours, int minutes) {
+        if ((sign != '+' && sign != '-') || hours < 0 || hours > 18 || minutes < 0 || minutes > 59) {
+            return null;
+        }
+        int totalSeconds = hours * 3600 + minutes * 60;
+        if (totalSeconds > 18 * 3600) {
+            return null;
+        }
+        return ZoneOffset.ofTotalSeconds(sign == '-' ? -totalSeconds : totalSeconds); // Cached by the JDK
+    }
+
+    private static int month(CharSequence text, int pos) {
+        for (int i = 0; i < MONTHS.length; i++) {
+            String name = MONTHS[i];
+            if (text.charAt(pos) == name.charAt(0) && text.charAt(pos + 1) == name.charAt(1)
+                    && text.charAt(pos + 2) == name.charAt(2)) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static int fourDigits(CharSequence text, int pos) {
+        int high = twoDigits(text, pos);
+        int low = twoDigits(text, pos + 2);
+        return high < 0 || low < 0 ? -1 : high * 100 + low;
+    }
+
+    private static int twoDigits(CharSequence text, int pos) {
+        char tens = text.charAt(pos);
+        char ones = text.charAt(pos + 1);
+        return isDigit(tens) && isDigit(ones) ? (tens - '0') * 10 + (ones - '0') : -1;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
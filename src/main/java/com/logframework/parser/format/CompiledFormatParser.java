@@ -0,0 +1,496 @@
+package com.logframework.parser.format;
+
+import com.logframework.model.CompactLogEntry;
+import com.logframework.model.FieldDictionaries;
+import com.logframework.model.LogEntry;
+import com.logframework.parser.LogParser;
+import com.logframework.parser.ReusingParser;
+import com.logframework.parser.TimestampDecoder;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A parser produced by {@link LogFormatCompiler}. A line is matched field by field: each
+ * field ends where the text that follows it in the pattern first occurs (or after its fixed
+ * width for timestamps), so matching is a single left-to-right scan without backtracking.
+ * Field values are then converted to their {@link FieldType}; a value that does not convert
+ * means the line is not in this format.
+ * <p>
+ * Without a level field the level is derived from an integer "status" field like for
+ * Apache access logs; without a message field the message is the whole line.
+ */
+public class CompiledFormatParser implements LogParser {
+    private static final Logger logger = Logger.getLogger(CompiledFormatParser.class.getName());
+
+    private final String name;
+    private final String pattern;
+    private final FormatField[] fields;
+    private final FormatSeparator[] separators; // separators[i] precedes fields[i]; the last one ends the line
+    private final int[] widths; // Fixed width of a field, or -1
+    private final DateTimeFormatter[] formatters;
+    private final TimestampDecoder.Layout[] layouts;
+    private final boolean multiLine;
+    private final boolean hasLevel;
+    private final boolean hasMessage;
+    private final int statusField;
+    private final int timestampField; // The last timestamp field, which sets the entry's timestamp, or -1
+    private final Set<String> verbatimFields;
+
+    private volatile Set<String> requiredFields; // null = all fields
+    private final ThreadLocal<Cursor> cursors = ThreadLocal.withInitial(Cursor::new); // For parse and canParse
+
+    CompiledFormatParser(String name, String pattern, FormatField[] fields, FormatSeparator[] separators,
+                         int[] widths, boolean multiLine) {
+        this.name = name;
+        this.pattern = pattern;
+        this.fields = fields;
+        this.separators = separators;
+        this.widths = widths;
+        this.multiLine = multiLine && fields[fields.length - 1].type == FieldType.MESSAGE;
+        this.formatters = new DateTimeFormatter[fields.length];
+        this.layouts = new TimestampDecoder.Layout[fields.length];
+
+        boolean level = false;
+        boolean message = false;
+        int status = -1;
+        int timestamp = -1;
+        Set<String> verbatim = new HashSet<>();
+        Set<String> converted = new HashSet<>();
+        for (int i = 0; i < fields.length; i++) {
+            FormatField field = fields[i];
+            if (field.type == FieldType.TIMESTAMP) {
+                formatters[i] = DateTimeFormatter.ofPattern(field.timestampPattern, Locale.ENGLISH);
+                layouts[i] = layoutOf(field.timestampPattern);
+                timestamp = i;
+            }
+            if (field.type == FieldType.STRING) {
+                verbatim.add(field.name);
+            } else if (field.type == FieldType.REQUEST) {
+                verbatim.addAll(Set.of("method", "path", "protocol", "request"));
+            } else if (field.type == FieldType.INT || field.type == FieldType.LONG || field.type == FieldType.DOUBLE) {
+                converted.add(field.name);
+            }
+            level |= field.type == FieldType.LEVEL;
+            message |= field.type == FieldType.MESSAGE;
+            if (field.type == FieldType.INT && field.name.equals("status")) {
+                status = i;
+            }
+        }
+        this.hasLevel = level;
+        this.hasMessage = message;
+        this.statusField = status;
+        this.timestampField = timestamp;
+        verbatim.removeAll(converted);
+        verbatim.add("message"); // The message field or the whole first line
+        if (level) {
+            verbatim.add("level");
+        }
+        this.verbatimFields = Set.copyOf(verbatim);
+        if (multiLine && !this.multiLine) {
+            logger.warning("Log format " + name + " can only be multi-line when it ends with the message");
+        }
+    }
+
+    /**
+     * Uses the hand-written decoder for the layouts it knows.
+     */
+    private static TimestampDecoder.Layout layoutOf(String timestampPattern) {
+        switch (timestampPattern) {
+            case "dd/MMM/yyyy:HH:mm:ss Z":
+                return TimestampDecoder.Layout.APACHE;
+            case "yyyy-MM-dd HH:mm:ss":
+                return TimestampDecoder.Layout.LOCAL_UTC;
+            case LogFormatCompiler.ISO_TIMESTAMP_PATTERN:
+                return TimestampDecoder.Layout.ISO_OFFSET;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Per-thread matching state: field boundaries and timestamp caches.
+     */
+    private final class Cursor {
+        final int[] starts = new int[fields.length];
+        final int[] ends = new int[fields.length];
+        final TimestampDecoder[] decoders = new TimestampDecoder[fields.length];
+        final String[] lastTimestampText = new String[fields.length];
+        final OffsetDateTime[] lastTimestamp = new OffsetDateTime[fields.length];
+
+        Cursor() {
+            for (int i = 0; i < fields.length; i++) {
+                if (layouts[i] != null) {
+                    decoders[i] = new TimestampDecoder(layouts[i]);
+                }
+            }
+        }
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    @Override
+    public void setRequiredFields(Set<String> requiredFields) {
+        this.requiredFields = requiredFields == null ? null : Set.copyOf(requiredFields);
+    }
+
+    @Override
+    public LogEntry parse(String logContent) {
+        return parse((CharSequence) logContent);
+    }
+
+    @Override
+    public LogEntry parse(CharSequence logContent) {
+        return parse(logContent, (FieldDictionaries) null);
+    }
+
+    @Override
+    public LogEntry parse(CharSequence logContent, FieldDictionaries dictionaries) {
+        return parse(logContent, cursors.get(), requiredFields, new CompactLogEntry(dictionaries));
+    }
+
+    /**
+     * Uses the thread's matching state and timestamp caches for the whole batch.
+     */
+    @Override
+    public void parseBatch(CharSequence[] events, int count, LogEntry[] entries, FieldDictionaries dictionaries) {
+        Cursor cursor = cursors.get();
+        Set<String> required = requiredFields;
+        for (int i = 0; i < count; i++) {
+            entries[i] = parse(events[i], cursor, required, new CompactLogEntry(dictionaries));
+        }
+    }
+
+    @Override
+    public ReusingParser newReusingParser() {
+        Cursor cursor = new Cursor();
+        return (event, target) -> {
+            target.reset();
+            return parse(event, cursor, requiredFields, target);
+        };
+    }
+
+    /**
+     * String fields, the parts of a request, the message and a level field are copied out of
+     * the line; numbers are converted and a level derived from the status is not.
+     */
+    @Override
+    public boolean isVerbatim(String field) {
+        return verbatimFields.contains(field);
+    }
+
+    /**
+     * Matches the line's structure and converts only the timestamp.
+     */
+    @Override
+    public ToLongFunction<CharSequence> newTimestampReader() {
+        if (timestampField < 0) {
+            return null;
+        }
+        Cursor cursor = new Cursor();
+        return event -> {
+            if (!match(event, cursor)) {
+                return UNKNOWN_SECOND;
+            }
+            int start = cursor.starts[timestampField];
+            int end = cursor.ends[timestampField];
+            if (fields[timestampField].trim) {
+                while (start < end && event.charAt(start) <= ' ') {
+                    start++;
+                }
+                while (end > start && event.charAt(end - 1) <= ' ') {
+                    end--;
+                }
+            }
+            OffsetDateTime timestamp = timestamp(timestampField, event, start, end, cursor);
+            return timestamp == null ? UNKNOWN_SECOND : timestamp.toEpochSecond();
+        };
+    }
+
+    @Override
+    public boolean canParse(String logContent) {
+        return canParse((CharSequence) logContent);
+    }
+
+    @Override
+    public boolean canParse(CharSequence logContent) {
+        return logContent != null && parse(logContent, cursors.get(), null, new CompactLogEntry()) != null;
+    }
+
+    /**
+     * Checks the literal text before the first field, if the format has any.
+     */
+    @Override
+    public boolean mightParse(CharSequence line) {
+        return separators[0] == null || separators[0].matchAt(line, 0, line.length()) >= 0;
+    }
+
+    @Override
+    public String getParserName() {
+        return "Log Format '" + name + "'";
+    }
+
+    @Override
+    public DateTimeFormatter getDateTimeFormatter() {
+        for (DateTimeFormatter formatter : formatters) {
+            if (formatter != null) {
+                return formatter;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean isMultiLine() {
+        return multiLine;
+    }
+
+    /**
+     * A line starts an event when it has the structure of the format; values are not converted.
+     */
+    @Override
+    public Predicate<CharSequence> getStartLinePredicate() {
+        if (!multiLine) {
+            return null;
+        }
+        Cursor cursor = new Cursor();
+        return line -> match(line, cursor);
+    }
+
+    private LogEntry parse(CharSequence text, Cursor cursor, Set<String> required, CompactLogEntry entry) {
+        if (!match(text, cursor)) {
+            if (logger.isLoggable(Level.FINER)) {
+                logger.finer("Line does not match log format " + name + ": " + text);
+            }
+            return null;
+        }
+        int status = -1;
+        for (int i = 0; i < fields.length; i++) {
+            FormatField field = fields[i];
+            int start = cursor.starts[i];
+            int end = cursor.ends[i];
+            if (field.trim) {
+                while (start < end && text.charAt(start) <= ' ') {
+                    start++;
+                }
+                while (end > start && text.charAt(end - 1) <= ' ') {
+                    end--;
+                }
+            }
+            if (i == statusField && !hasLevel && LogParser.isRequired(required, "level")) {
+                long value = parseLong(text, start, end, 0, Integer.MAX_VALUE);
+                status = value == Long.MIN_VALUE ? -1 : (int) value;
+            }
+            if (!convert(entry, i, text, start, end, cursor, required)) {
+                return null;
+            }
+        }
+        if (status != -1 && !hasLevel) {
+            entry.setLevel(status >= 500 ? "ERROR" : status >= 400 ? "WARN" : "INFO");
+        }
+        if (!hasMessage && LogParser.isRequired(required, "message")) {
+            entry.setMessage(text.subSequence(0, firstLineEnd(text)).toString().trim());
+        }
+        return entry;
+    }
+
+    /**
+     * Finds the field boundaries. Fields other than a trailing message stay on the first line.
+     */
+    private boolean match(CharSequence text, Cursor cursor) {
+        int limit = firstLineEnd(text);
+        int pos = 0;
+        if (separators[0] != null && (pos = separators[0].matchAt(text, 0, limit)) < 0) {
+            return false;
+        }
+        for (int i = 0; i < fields.length; i++) {
+            FormatSeparator next = separators[i + 1];
+            int end;
+            if (widths[i] >= 0) {
+                end = pos + widths[i];
+                if (end > limit) {
+                    return false;
+                }
+            } else if (next != null) {
+                end = next.find(text, pos, limit);
+                if (end < 0) {
+                    return false;
+                }
+            } else {
+                end = fields[i].type == FieldType.MESSAGE && multiLine ? text.length() : limit;
+            }
+            cursor.starts[i] = pos;
+            cursor.ends[i] = end;
+            pos = end;
+            if (next != null && (pos = next.matchAt(text, end, limit)) < 0) {
+                return false;
+            }
+        }
+        for (; pos < limit; pos++) {
+            if (text.charAt(pos) > ' ') {
+                return false; // Unexpected text after the last field
+            }
+        }
+        return true;
+    }
+
+    private boolean convert(CompactLogEntry entry, int i, CharSequence text, int start, int end, Cursor cursor,
+                            Set<String> required) {
+        FormatField field = fields[i];
+        switch (field.type) {
+            case TIMESTAMP:
+                if (LogParser.isRequired(required, "timestamp")) {
+                    OffsetDateTime timestamp = timestamp(i, text, start, end, cursor);
+                    if (timestamp == null) {
+                        return false;
+                    }
+                    entry.setTimestamp(timestamp);
+                }
+                return true;
+            case LEVEL:
+                if (LogParser.isRequired(required, "level")) {
+                    entry.setLevel(text, start, end);
+                }
+                return true;
+            case MESSAGE:
+                if (LogParser.isRequired(required, "message")) {
+                    entry.setMessage(text.subSequence(start, end).toString().trim());
+                }
+                return true;
+            case REQUEST:
+                request(entry, text, start, end, required);
+                return true;
+            default:
+                if (!LogParser.isRequired(required, field.name)) {
+                    return true;
+                }
+                if (field.type == FieldType.STRING) {
+                    entry.addAttribute(field.name, text, start, end);
+                    return true;
+                }
+                if (end - start == 1 && text.charAt(start) == '-') {
+                    return true; // No value
+                }
+                Object value = number(field.type, text, start, end);
+                if (value == null) {
+                    return false;
+                }
+                entry.addAttribute(field.name, value);
+                return true;
+        }
+    }
+
+    private static Object number(FieldType type, CharSequence text, int start, int end) {
+        switch (type) {
+            case INT:
+                long intValue = parseLong(text, start, end, Integer.MIN_VALUE, Integer.MAX_VALUE);
+                return intValue == Long.MIN_VALUE ? null : (Object) (int) intValue;
+            case LONG:
+                long longValue = parseLong(text, start, end, Long.MIN_VALUE + 1, Long.MAX_VALUE);
+                return longValue == Long.MIN_VALUE ? null : (Object) longValue;
+            default:
+                try {
+                    return Double.parseDouble(text.subSequence(start, end).toString());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+        }
+    }
+
+    /**
+     * Parses a decimal integer within [min, max], or returns Long.MIN_VALUE.
+     */
+    private static long parseLong(CharSequence text, int start, int end, long min, long max) {
+        boolean negative = start < end && text.charAt(start) == '-';
+        int pos = negative ? start + 1 : start;
+        if (pos == end || end - pos > 18) {
+            return Long.MIN_VALUE;
+        }
+        long value = 0;
+        for (; pos < end; pos++) {
+            char c = text.charAt(pos);
+            if (c < '0' || c > '9') {
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + (c - '0');
+        }
+        value = negative ? -value : value;
+        return value < min || value > max ? Long.MIN_VALUE : value;
+    }
+
+    private OffsetDateTime timestamp(int i, CharSequence text, int start, int end, Cursor cursor) {
+        try {
+            if (cursor.decoders[i] != null) {
+                return cursor.decoders[i].decode(text, start, end);
+            }
+            String value = text.subSequence(start, end).toString();
+            if (value.equals(cursor.lastTimestampText[i])) {
+                return cursor.lastTimestamp[i];
+            }
+            TemporalAccessor parsed = formatters[i].parse(value);
+            OffsetDateTime timestamp = parsed.isSupported(ChronoField.OFFSET_SECONDS)
+                    ? OffsetDateTime.from(parsed)
+                    : LocalDateTime.from(parsed).atOffset(ZoneOffset.UTC);
+            cursor.lastTimestampText[i] = value;
+            cursor.lastTimestamp[i] = timestamp;
+            return timestamp;
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Splits "METHOD path PROTOCOL" at its first and last space; anything else is kept whole
+     * in the "request" attribute.
+     */
+    private static void request(CompactLogEntry entry, CharSequence text, int start, int end,
+                                Set<String> required) {
+        String request = text.subSequence(start, end).toString();
+        int first = request.indexOf(' ');
+        int last = request.lastIndexOf(' ');
+        if (first <= 0 || last <= first + 1) {
+            if (LogParser.isRequired(required, "request")) {
+                entry.addAttribute("request", request);
+            }
+            return;
+        }
+        if (LogParser.isRequired(required, "method")) {
+            entry.addAttribute("method", request, 0, first);
+        }
+        if (LogParser.isRequired(required, "path")) {
+            entry.setPath(request.substring(first + 1, last));
+        }
+        if (LogParser.isRequired(required, "protocol")) {
+            entry.addAttribute("protocol", request, last + 1, request.length());
+        }
+    }
+
+    private static int firstLineEnd(CharSequence text) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) == '\n') {
+                return i > 0 && text.charAt(i - 1) == '\r' ? i - 1 : i;
+            }
+        }
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return getParserName() + ": " + pattern;
+    }
+}
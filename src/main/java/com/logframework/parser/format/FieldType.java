@@ -0,0 +1,24 @@
+package com.logframework.parser.format;
+
+/**
+ * The type of a field in a compiled log format, which decides how its text is validated
+ * and where the value ends up in the {@link com.logframework.model.LogEntry}.
+ */
+public enum FieldType {
+    /** Kept as text in the attribute of the field's name. */
+    STRING,
+    /** An Integer attribute; "-" leaves the attribute out. */
+    INT,
+    /** A Long attribute; "-" leaves the attribute out. */
+    LONG,
+    /** A Double attribute; "-" leaves the attribute out. */
+    DOUBLE,
+    /** The entry's timestamp, decoded with the field's date-time pattern. */
+    TIMESTAMP,
+    /** The entry's level. */
+    LEVEL,
+    /** The entry's message; as the last field it also takes the continuation lines of an event. */
+    MESSAGE,
+    /** An HTTP request line, split into the "method", "path" and "protocol" attributes. */
+    REQUEST
+}
@@ -0,0 +1,23 @@
+package com.logframework.parser.format;
+
+/**
+ * A field of a compiled format.
+ */
+final class FormatField {
+    final String name;
+    final FieldType type;
+    final String timestampPattern; // TIMESTAMP only
+    final boolean trim; // The format pads the value, e.g. %-5level
+
+    FormatField(String name, FieldType type, String timestampPattern, boolean trim) {
+        this.name = name;
+        this.type = type;
+        this.timestampPattern = timestampPattern;
+        this.trim = trim;
+    }
+
+    @Override
+    public String toString() {
+        return name + ":" + type + (timestampPattern != null ? "{" + timestampPattern + "}" : "");
+    }
+}
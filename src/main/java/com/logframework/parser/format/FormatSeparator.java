@@ -0,0 +1,76 @@
+package com.logframework.parser.format;
+
+import java.util.List;
+
+/**
+ * The literal text between two fields. Every run of whitespace in the pattern matches one or
+ * more whitespace characters, which absorbs padding such as {@code %-5level}; all other
+ * characters match themselves.
+ */
+final class FormatSeparator {
+    private final String[] parts; // Literal text, or null for a whitespace run
+
+    FormatSeparator(List<String> parts) {
+        this.parts = parts.toArray(new String[0]);
+    }
+
+    /**
+     * Matches the separator at pos.
+     *
+     * @return the position after the separator, or -1 if it does not match there
+     */
+    int matchAt(CharSequence text, int pos, int limit) {
+        for (String part : parts) {
+            if (part == null) {
+                if (pos >= limit || !isWhitespace(text.charAt(pos))) {
+                    return -1;
+                }
+                do {
+                    pos++;
+                } while (pos < limit && isWhitespace(text.charAt(pos)));
+            } else {
+                if (pos + part.length() > limit) {
+                    return -1;
+                }
+                for (int i = 0; i < part.length(); i++) {
+                    if (text.charAt(pos + i) != part.charAt(i)) {
+                        return -1;
+                    }
+                }
+                pos += part.length();
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * Finds the first position at or after from where the separator matches. Fields end at
+     * the first occurrence of the separator that follows them, so nothing is ever retried.
+     *
+     * @return the position, or -1 if the separator does not occur before limit
+     */
+    int find(CharSequence text, int from, int limit) {
+        String first = parts[0];
+        for (int pos = from; pos < limit; pos++) {
+            char c = text.charAt(pos);
+            boolean candidate = first == null ? isWhitespace(c) : c == first.charAt(0);
+            if (candidate && matchAt(text, pos, limit) >= 0) {
+                return pos;
+            }
+        }
+        return -1;
+    }
+
+    static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (String part : parts) {
+            builder.append(part == null ? "\\s+" : part);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,400 @@
+package com.logframework.parser.format;
+
+import com.logframework.parser.LogParser;
+import com.logframework.util.ConfigLoader;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Compiles log format definitions into {@link CompiledFormatParser}s. Two pattern syntaxes
+ * are understood:
+ * <ul>
+ *   <li>nginx {@code log_format} strings: {@code $remote_addr - $remote_user [$time_local] "$request" $status}.
+ *   Well-known variables get their natural type; {@code ${name:type}} or
+ *   {@code ${name:timestamp:pattern}} sets the type of any other field.</li>
+ *   <li>Logback layouts: {@code %d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n}.</li>
+ * </ul>
+ * Formats are configured in {@code log-processor.config}:
+ * <pre>
+ * parser.formats=nginx,app
+ * parser.format.nginx=$remote_addr - $remote_user [$time_local] "$request" $status $body_bytes_sent
+ * parser.format.app=%d [%thread] %-5level %logger - %msg%n
+ * parser.format.app.multiline=true
+ * </pre>
+ * The syntax is detected from the pattern and can be forced with
+ * {@code parser.format.<name>.syntax=nginx|logback}.
+ */
+public final class LogFormatCompiler {
+    private static final Logger logger = Logger.getLogger(LogFormatCompiler.class.getName());
+
+    static final String ISO_TIMESTAMP_PATTERN = "yyyy-MM-dd'T'HH:mm:ssXXX";
+    private static final String LOGBACK_DEFAULT_TIMESTAMP_PATTERN = "yyyy-MM-dd HH:mm:ss,SSS";
+
+    private static final Map<String, FieldType> NGINX_TYPES = Map.of(
+            "status", FieldType.INT,
+            "body_bytes_sent", FieldType.LONG,
+            "bytes_sent", FieldType.LONG,
+            "request_length", FieldType.LONG,
+            "connection", FieldType.LONG,
+            "connection_requests", FieldType.LONG,
+            "request_time", FieldType.DOUBLE,
+            "request", FieldType.REQUEST);
+
+    public enum Syntax {
+        NGINX,
+        LOGBACK
+    }
+
+    private final String pattern;
+    private final List<FormatField> fields = new ArrayList<>();
+    private final List<FormatSeparator> separators = new ArrayList<>(); // Before each field, and one at the end
+    private final List<String> parts = new ArrayList<>();
+    private final StringBuilder literal = new StringBuilder();
+
+    private LogFormatCompiler(String pattern) {
+        this.pattern = pattern;
+    }
+
+    /**
+     * Compiles a pattern, detecting its syntax.
+     *
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    public static CompiledFormatParser compile(String name, String pattern, boolean multiLine) {
+        return compile(name, pattern, detectSyntax(pattern), multiLine);
+    }
+
+    /**
+     * Compiles a pattern in the given syntax.
+     *
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    public static CompiledFormatParser compile(String name, String pattern, Syntax syntax, boolean multiLine) {
+        LogFormatCompiler compiler = new LogFormatCompiler(pattern);
+        if (syntax == Syntax.NGINX) {
+            compiler.parseNginx();
+        } else {
+            compiler.parseLogback();
+        }
+        compiler.endSeparator();
+        return compiler.build(name, multiLine);
+    }
+
+    /**
+     * Compiles the formats listed in {@code parser.formats}. Invalid formats are logged and
+     * left out.
+     */
+    public static List<LogParser> fromConfig(ConfigLoader configLoader) {
+        List<LogParser> parsers = new ArrayList<>();
+        for (String name : configLoader.getList("parser.formats")) {
+            String key = "parser.format." + name;
+            String pattern = configLoader.getProperty(key, "");
+            if (pattern.isEmpty()) {
+                logger.warning("No pattern configured for log format " + name + " (" + key + ")");
+                continue;
+            }
+            try {
+                String syntax = configLoader.getProperty(key + ".syntax", "").trim();
+                boolean multiLine = Boolean.parseBoolean(configLoader.getProperty(key + ".multiline", "false").trim());
+                parsers.add(syntax.isEmpty()
+                        ? compile(name, pattern, multiLine)
+                        : compile(name, pattern, Syntax.valueOf(syntax.toUpperCase(Locale.ROOT)), multiLine));
+                logger.info("Compiled log format " + name);
+            } catch (IllegalArgumentException e) {
+                logger.warning("Failed to compile log format " + name + " - " + e.getMessage());
+            }
+        }
+        return parsers;
+    }
+
+    static Syntax detectSyntax(String pattern) {
+        for (int i = 0; i + 1 < pattern.length(); i++) {
+            if (pattern.charAt(i) == '%' && Character.isLetter(pattern.charAt(i + 1))) {
+                return Syntax.LOGBACK;
+            }
+        }
+        return Syntax.NGINX;
+    }
+
+    private void parseNginx() {
+        int pos = 0;
+        while (pos < pattern.length()) {
+            char c = pattern.charAt(pos);
+            if (c == '$' && pos + 1 < pattern.length() && pattern.charAt(pos + 1) == '{') {
+                int end = pattern.indexOf('}', pos);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unclosed ${ at " + pos);
+                }
+                addTypedField(pattern.substring(pos + 2, end));
+                pos = end + 1;
+            } else if (c == '$' && pos + 1 < pattern.length() && isNameChar(pattern.charAt(pos + 1))) {
+                int end = pos + 1;
+                while (end < pattern.length() && isNameChar(pattern.charAt(end))) {
+                    end++;
+                }
+                addNginxField(pattern.substring(pos + 1, end));
+                pos = end;
+            } else {
+                addLiteral(c);
+                pos++;
+            }
+        }
+    }
+
+    private void addNginxField(String name) {
+        switch (name) {
+            case "time_local":
+                addField(new FormatField(name, FieldType.TIMESTAMP, "dd/MMM/yyyy:HH:mm:ss Z", false));
+                break;
+            case "time_iso8601":
+                addField(new FormatField(name, FieldType.TIMESTAMP, ISO_TIMESTAMP_PATTERN, false));
+                break;
+            default:
+                addField(new FormatField(name, NGINX_TYPES.getOrDefault(name, FieldType.STRING), null, false));
+        }
+    }
+
+    /**
+     * Adds a field written as name, name:type or name:timestamp:pattern.
+     */
+    private void addTypedField(String definition) {
+        String[] tokens = definition.split(":", 3);
+        String name = tokens[0].trim();
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Empty field name in ${" + definition + "}");
+        }
+        if (tokens.length == 1) {
+            addNginxField(name);
+            return;
+        }
+        FieldType type;
+        try {
+            type = FieldType.valueOf(tokens[1].trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown type " + tokens[1] + " of field " + name);
+        }
+        String timestampPattern = null;
+        if (type == FieldType.TIMESTAMP) {
+            timestampPattern = tokens.length == 3 ? tokens[2] : ISO_TIMESTAMP_PATTERN;
+        }
+        addField(new FormatField(name, type, timestampPattern, false));
+    }
+
+    private void parseLogback() {
+        int pos = 0;
+        while (pos < pattern.length()) {
+            char c = pattern.charAt(pos);
+            if (c != '%') {
+                addLiteral(c);
+                pos++;
+                continue;
+            }
+            pos++;
+            if (pos < pattern.length() && pattern.charAt(pos) == '%') {
+                addLiteral('%');
+                pos++;
+                continue;
+            }
+            // Format modifier such as -5 or .30, which pads or cuts the value
+            int modifierStart = pos;
+            while (pos < pattern.length() && (pattern.charAt(pos) == '-' || pattern.charAt(pos) == '.'
+                    || Character.isDigit(pattern.charAt(pos)))) {
+                pos++;
+            }
+            boolean padded = pos > modifierStart;
+            int wordStart = pos;
+            while (pos < pattern.length() && Character.isLetter(pattern.charAt(pos))) {
+                pos++;
+            }
+            if (pos == wordStart) {
+                throw new IllegalArgumentException("Missing conversion word at " + wordStart);
+            }
+            String word = pattern.substring(wordStart, pos);
+            String option = null;
+            if (pos < pattern.length() && pattern.charAt(pos) == '{') {
+                int end = pattern.indexOf('}', pos);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unclosed { at " + pos);
+                }
+                option = pattern.substring(pos + 1, end);
+                pos = end + 1;
+            }
+            if (pos < pattern.length() && pattern.charAt(pos) == '(') {
+                throw new IllegalArgumentException("Composite conversion %" + word + "(...) is not supported");
+            }
+            addLogbackField(word, option, padded);
+        }
+    }
+
+    private void addLogbackField(String word, String option, boolean padded) {
+        switch (word) {
+            case "n":
+                return; // Line end
+            case "d":
+            case "date":
+                String timestampPattern = option == null || option.isEmpty() || option.equals("ISO8601")
+                        ? LOGBACK_DEFAULT_TIMESTAMP_PATTERN
+                        : option.split(",")[0].trim(); // Drop an optional time zone
+                addField(new FormatField("timestamp", FieldType.TIMESTAMP, timestampPattern, false));
+                break;
+            case "p":
+            case "le":
+            case "level":
+                addField(new FormatField("level", FieldType.LEVEL, null, true));
+                break;
+            case "m":
+            case "msg":
+            case "message":
+                addField(new FormatField("message", FieldType.MESSAGE, null, false));
+                break;
+            case "t":
+            case "thread":
+                addField(new FormatField("thread", FieldType.STRING, null, padded));
+                break;
+            case "c":
+            case "lo":
+            case "logger":
+                addField(new FormatField("logger", FieldType.STRING, null, padded));
+                break;
+            case "X":
+            case "mdc":
+                if (option == null || option.isEmpty()) {
+                    throw new IllegalArgumentException("%" + word + " needs a key, e.g. %X{requestId}");
+                }
+                addField(new FormatField(option.split(":-")[0], FieldType.STRING, null, padded));
+                break;
+            case "L":
+            case "line":
+                addField(new FormatField("line", FieldType.INT, null, padded));
+                break;
+            case "r":
+            case "relative":
+                addField(new FormatField("relative", FieldType.LONG, null, padded));
+                break;
+            case "C":
+            case "class":
+                addField(new FormatField("class", FieldType.STRING, null, padded));
+                break;
+            case "M":
+            case "method":
+                addField(new FormatField("method", FieldType.STRING, null, padded));
+                break;
+            default:
+                addField(new FormatField(word, FieldType.STRING, null, padded));
+        }
+    }
+
+    private void addLiteral(char c) {
+        if (FormatSeparator.isWhitespace(c)) {
+            if (parts.isEmpty() || parts.get(parts.size() - 1) != null || literal.length() > 0) {
+                flushLiteral();
+                parts.add(null);
+            }
+        } else {
+            literal.append(c);
+        }
+    }
+
+    private void flushLiteral() {
+        if (literal.length() > 0) {
+            parts.add(literal.toString());
+            literal.setLength(0);
+        }
+    }
+
+    private void addField(FormatField field) {
+        flushLiteral();
+        if (!fields.isEmpty() && parts.isEmpty()) {
+            throw new IllegalArgumentException("Fields " + fields.get(fields.size() - 1).name + " and "
+                    + field.name + " need text between them");
+        }
+        if (!fields.isEmpty() && fields.get(fields.size() - 1).type == FieldType.MESSAGE) {
+            throw new IllegalArgumentException("The message must be the last field");
+        }
+        separators.add(parts.isEmpty() ? null : new FormatSeparator(parts));
+        parts.clear();
+        fields.add(field);
+    }
+
+    private void endSeparator() {
+        flushLiteral();
+        // Trailing whitespace is ignored at the end of the line anyway
+        while (!parts.isEmpty() && parts.get(parts.size() - 1) == null) {
+            parts.remove(parts.size() - 1);
+        }
+        separators.add(parts.isEmpty() ? null : new FormatSeparator(parts));
+        parts.clear();
+    }
+
+    private CompiledFormatParser build(String name, boolean multiLine) {
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("The pattern has no fields: " + pattern);
+        }
+        int[] widths = new int[fields.size()];
+        for (int i = 0; i < widths.length; i++) {
+            FormatField field = fields.get(i);
+            if (field.type == FieldType.TIMESTAMP) {
+                widths[i] = fixedWidth(field.timestampPattern);
+                requireDateAndTime(field);
+            } else {
+                widths[i] = -1;
+            }
+        }
+        return new CompiledFormatParser(name, pattern, fields.toArray(new FormatField[0]),
+                separators.toArray(new FormatSeparator[0]), widths, multiLine);
+    }
+
+    /**
+     * Returns the length of every timestamp formatted with the pattern, or -1 if it varies,
+     * e.g. with month names. Fixed-width timestamps may contain the separator that follows
+     * them, such as the space in "yyyy-MM-dd HH:mm:ss".
+     */
+    static int fixedWidth(String timestampPattern) {
+        DateTimeFormatter formatter;
+        try {
+            formatter = DateTimeFormatter.ofPattern(timestampPattern, Locale.ENGLISH);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid timestamp pattern " + timestampPattern + ": " + e.getMessage());
+        }
+        try {
+            int width = formatter.format(ZonedDateTime.of(2025, 1, 1, 1, 1, 1, 0, ZoneOffset.UTC)).length();
+            return formatter.format(ZonedDateTime.of(2025, 12, 28, 23, 59, 59, 999_999_999, ZoneOffset.ofHours(-11)))
+                    .length() == width ? width : -1;
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Rejects timestamp patterns that do not resolve to a date and a time, such as the
+     * {@code HH:mm:ss.SSS} of Logback's console layout, which would otherwise compile and then
+     * fail on every line.
+     */
+    private static void requireDateAndTime(FormatField field) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(field.timestampPattern, Locale.ENGLISH);
+        TemporalAccessor parsed;
+        try {
+            parsed = formatter.parse(formatter.format(ZonedDateTime.of(2025, 1, 1, 1, 1, 1, 0, ZoneOffset.UTC)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Timestamp pattern " + field.timestampPattern + " of field "
+                    + field.name + " cannot be parsed back: " + e.getMessage());
+        }
+        if (parsed.query(TemporalQueries.localDate()) == null || parsed.query(TemporalQueries.localTime()) == null) {
+            throw new IllegalArgumentException("Timestamp pattern " + field.timestampPattern + " of field "
+                    + field.name + " needs both a date and a time, e.g. %d{yyyy-MM-dd HH:mm:ss.SSS}");
+        }
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+}
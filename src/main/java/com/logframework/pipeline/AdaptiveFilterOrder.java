@@ -0,0 +1,122 @@
+package com.logframework.pipeline;
+
+import com.logframework.filter.LogFilter;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The order in which a {@link ProcessingChain} evaluates its filters. One batch in
+ * {@link #SAMPLE_INTERVAL} is timed filter by filter; every {@link #REORDER_INTERVAL} sampled
+ * batches the filters are sorted by their cost per entry divided by the share of entries they
+ * reject, so cheap filters that reject much run first. Filters are stateless and all must
+ * match, so the order does not change which entries pass.
+ * <p>
+ * Statistics are halved after every reorder so the order follows changes in the input.
+ * An instance belongs to the thread of its chain.
+ */
+final class AdaptiveFilterOrder {
+    private static final Logger logger = Logger.getLogger(AdaptiveFilterOrder.class.getName());
+
+    static final int SAMPLE_INTERVAL = 16;
+    static final int REORDER_INTERVAL = 32;
+
+    private final LogFilter[] filters;
+    private final Stats[] stats;
+    private boolean adaptive = true;
+    private int batches;
+    private int samples;
+
+    /**
+     * Measurements of one filter over the sampled batches.
+     */
+    private static final class Stats {
+        long nanos;
+        long seen;
+        long passed;
+
+        double rank() {
+            if (seen == 0) {
+                return Double.MAX_VALUE; // Never reached: an earlier filter rejects everything
+            }
+            double costPerEntry = (double) nanos / seen;
+            double rejected = 1.0 - (double) passed / seen;
+            return costPerEntry / Math.max(rejected, 1e-6);
+        }
+    }
+
+    AdaptiveFilterOrder(List<LogFilter> filters) {
+        this.filters = filters.toArray(new LogFilter[0]);
+        this.stats = new Stats[this.filters.length];
+        for (int i = 0; i < stats.length; i++) {
+            stats[i] = new Stats();
+        }
+    }
+
+    void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+
+    boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * Returns the filters in evaluation order. The array is reordered in place by
+     * {@link #endSample()}.
+     */
+    LogFilter[] filters() {
+        return filters;
+    }
+
+    /**
+     * Indicates whether the next batch should be measured.
+     */
+    boolean sampleNext() {
+        return adaptive && filters.length > 1 && batches++ % SAMPLE_INTERVAL == 0;
+    }
+
+    /**
+     * Records that the filter at the position took nanos to keep passed of seen entries.
+     */
+    void record(int position, long nanos, int seen, int passed) {
+        Stats filterStats = stats[position];
+        filterStats.nanos += nanos;
+        filterStats.seen += seen;
+        filterStats.passed += passed;
+    }
+
+    /**
+     * Ends a measured batch, reordering the filters if enough batches were measured.
+     */
+    void endSample() {
+        if (++samples % REORDER_INTERVAL != 0) {
+            return;
+        }
+        Integer[] positions = new Integer[filters.length];
+        double[] ranks = new double[filters.length];
+        for (int i = 0; i < filters.length; i++) {
+            positions[i] = i;
+            ranks[i] = stats[i].rank();
+        }
+        Arrays.sort(positions, Comparator.comparingDouble(i -> ranks[i])); // Stable, ties keep their order
+        LogFilter[] sortedFilters = new LogFilter[filters.length];
+        Stats[] sortedStats = new Stats[filters.length];
+        for (int i = 0; i < positions.length; i++) {
+            sortedFilters[i] = filters[positions[i]];
+            sortedStats[i] = stats[positions[i]];
+            sortedStats[i].nanos /= 2;
+            sortedStats[i].seen /= 2;
+            sortedStats[i].passed /= 2;
+        }
+        System.arraycopy(sortedFilters, 0, filters, 0, filters.length);
+        System.arraycopy(sortedStats, 0, stats, 0, stats.length);
+        if (logger.isLoggable(Level.FINE)) {
+            logger.fine("Filter order: " + Arrays.toString(Arrays.stream(filters)
+                    .map(filter -> filter.getClass().getSimpleName()).toArray()));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.logframework.pipeline;
+
+import java.util.logging.Logger;
+
+/**
+ * The single thread that feeds filtered entry batches from any number of producers to the
+ * aggregators, so the aggregators never see concurrent calls.
+ */
+class AggregationStage {
+    private static final Logger logger = Logger.getLogger(AggregationStage.class.getName());
+
+    private static final EntryBatch END_OF_ENTRIES = new EntryBatch(0);
+
+    private final ProcessingChain chain;
+    private final RingBuffer<EntryBatch> queue;
+
+    AggregationStage(ProcessingChain chain, int queueCapacity) {
+        this.chain = chain;
+        this.queue = new RingBuffer<>(queueCapacity);
+    }
+
+    void put(EntryBatch batch) throws InterruptedException {
+        queue.put(batch);
+    }
+
+    /**
+     * Tells the stage that one producer is done.
+     */
+    void endOfEntries() throws InterruptedException {
+        queue.put(END_OF_ENTRIES);
+    }
+
+    /**
+     * Aggregates batches until every producer has called {@link #endOfEntries()}.
+     */
+    void run(int producers) throws InterruptedException {
+        int running = producers;
+        while (running > 0) {
+            EntryBatch batch = queue.take();
+            if (batch == END_OF_ENTRIES) {
+                running--;
+                continue;
+            }
+            chain.aggregateBatch(batch.entries, batch.size);
+        }
+    }
+
+    int getQueueDepth() {
+        return queue.size();
+    }
+
+    void logStatistics() {
+        logStatistics("aggregate", queue);
+    }
+
+    static void logStatistics(String stage, RingBuffer<?> queue) {
+        logger.info(String.format("Pipeline queue in front of %s stage: max depth %d/%d, producer waited %d times"
+                        + " (queue full), %s stage waited %d times (queue empty)",
+                stage, queue.getMaxDepth(), queue.capacity(), queue.getFullWaits(), stage, queue.getEmptyWaits()));
+    }
+}
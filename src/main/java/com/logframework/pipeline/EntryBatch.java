@@ -0,0 +1,15 @@
+package com.logframework.pipeline;
+
+import com.logframework.model.LogEntry;
+
+/**
+ * Parsed entries that passed the filters, at the front of the array.
+ */
+class EntryBatch {
+    final LogEntry[] entries;
+    int size;
+
+    EntryBatch(int capacity) {
+        this.entries = new LogEntry[capacity];
+    }
+}
@@ -0,0 +1,113 @@
+package com.logframework.pipeline;
+
+import java.nio.CharBuffer;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+/**
+ * Groups the lines of a multi-line format into events. Lines are copied once into a reused
+ * character buffer, joined by '\n', and the finished event is handed out as a view over that
+ * buffer with surrounding whitespace excluded, so no intermediate Strings are built.
+ * Events longer than the configured number of characters or lines are truncated, which keeps
+ * one runaway stack trace from taking the whole heap.
+ */
+class EventAssembler {
+    private static final Logger logger = Logger.getLogger(EventAssembler.class.getName());
+
+    static final int DEFAULT_MAX_EVENT_CHARS = 1024 * 1024;
+    static final int DEFAULT_MAX_EVENT_LINES = 10_000;
+
+    private final String sourceName;
+    private final Predicate<CharSequence> startLine;
+    private int maxEventChars = DEFAULT_MAX_EVENT_CHARS;
+    private int maxEventLines = DEFAULT_MAX_EVENT_LINES;
+
+    private char[] buffer = new char[4096];
+    private int length;
+    private int lines;
+    private boolean truncated;
+    private long truncatedEvents;
+
+    EventAssembler(String sourceName, Predicate<CharSequence> startLine) {
+        this.sourceName = sourceName;
+        this.startLine = startLine;
+    }
+
+    void setLimits(int maxEventChars, int maxEventLines) {
+        this.maxEventChars = Math.max(1, maxEventChars);
+        this.maxEventLines = Math.max(1, maxEventLines);
+    }
+
+    boolean isStartLine(CharSequence line) {
+        return startLine.test(line);
+    }
+
+    boolean hasEvent() {
+        return lines > 0;
+    }
+
+    /**
+     * Adds a line to the current event, or drops it once the event has reached its limits.
+     */
+    void append(CharSequence line) {
+        if (lines >= maxEventLines || length >= maxEventChars) {
+            markTruncated();
+            return;
+        }
+        int separator = lines > 0 ? 1 : 0;
+        int copied = Math.min(line.length(), maxEventChars - length - separator);
+        if (copied < line.length()) {
+            markTruncated();
+        }
+        ensureCapacity(length + separator + Math.max(0, copied));
+        if (separator > 0) {
+            buffer[length++] = '\n';
+        }
+        for (int i = 0; i < copied; i++) {
+            buffer[length++] = line.charAt(i);
+        }
+        lines++;
+    }
+
+    /**
+     * Returns the current event without leading and trailing whitespace, like
+     * {@link String#trim()}. The view is only valid until the next call to {@link #clear()}.
+     */
+    CharSequence event() {
+        int start = 0;
+        int end = length;
+        while (start < end && buffer[start] <= ' ') {
+            start++;
+        }
+        while (end > start && buffer[end - 1] <= ' ') {
+            end--;
+        }
+        return CharBuffer.wrap(buffer, start, end - start);
+    }
+
+    void clear() {
+        length = 0;
+        lines = 0;
+        truncated = false;
+    }
+
+    private void markTruncated() {
+        if (!truncated) {
+            truncated = true;
+            if (truncatedEvents++ == 0) {
+                logger.warning("Truncated event in " + sourceName + " at " + maxEventLines + " lines or "
+                        + maxEventChars + " characters; further truncations are logged at FINE.");
+            } else {
+                logger.fine("Truncated event number " + truncatedEvents + " in " + sourceName);
+            }
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buffer.length) {
+            char[] grown = new char[Math.max(capacity, Math.min(maxEventChars, buffer.length * 2))];
+            System.arraycopy(buffer, 0, grown, 0, length);
+            buffer = grown;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.logframework.pipeline;
+
+import com.logframework.io.EventBuffer;
+import com.logframework.model.FieldDictionaries;
+import com.logframework.model.LogEntry;
+import com.logframework.parser.LogParser;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Collects the raw events of one source and parser and parses them together, through the
+ * run's dictionaries, with
+ * {@link LogParser#parseBatch(CharSequence[], int, LogEntry[], FieldDictionaries)}, so the
+ * parser sets up its per-call state, such as the tokenizer and the timestamp cache, once per
+ * batch. An event of another source or parser first parses the events collected so far.
+ * Not thread-safe.
+ */
+final class EventBatcher {
+    private static final Logger logger = Logger.getLogger(EventBatcher.class.getName());
+
+    /**
+     * Receives parsed entries, with their source set, at the front of the array. The array
+     * is reused once the call returns.
+     */
+    interface Receiver {
+        void accept(LogEntry[] entries, int count);
+    }
+
+    private final EventBuffer events;
+    private final LogEntry[] parsed;
+    private final Receiver receiver;
+    private final FieldDictionaries dictionaries;
+    private String sourceName;
+    private LogParser parser;
+
+    EventBatcher(int capacity, FieldDictionaries dictionaries, Receiver receiver) {
+        this.events = new EventBuffer(capacity);
+        this.parsed = new LogEntry[Math.max(1, capacity)];
+        this.dictionaries = dictionaries;
+        this.receiver = receiver;
+    }
+
+    /**
+     * Copies the event, which is only valid during this call, and parses the batch once it is full.
+     */
+    void add(String sourceName, LogParser parser, CharSequence event) {
+        if (events.size() > 0 && (parser != this.parser || !sourceName.equals(this.sourceName))) {
+            parse();
+        }
+        this.sourceName = sourceName;
+        this.parser = parser;
+        events.add(event);
+        if (events.isFull()) {
+            parse();
+        }
+    }
+
+    /**
+     * Parses the collected events and hands the entries to the receiver.
+     */
+    void parse() {
+        int count = events.size();
+        if (count == 0) {
+            return;
+        }
+        parser.parseBatch(events.getEvents(), count, parsed, dictionaries);
+        events.clear();
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            LogEntry entry = parsed[i];
+            if (entry != null) {
+                entry.setSource(sourceName);
+                parsed[size++] = entry;
+            }
+        }
+        if (size < count && logger.isLoggable(Level.FINER)) {
+            logger.finer("Discarded " + (count - size) + " events that could not be parsed in " + sourceName);
+        }
+        Arrays.fill(parsed, size, count, null);
+        receiver.accept(parsed, size);
+        Arrays.fill(parsed, 0, size, null);
+    }
+}
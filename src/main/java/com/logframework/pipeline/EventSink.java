@@ -0,0 +1,11 @@
+package com.logframework.pipeline;
+
+import com.logframework.parser.LogParser;
+
+/**
+ * Receives the complete events of a source from a {@link SourceProcessor}: single lines, or
+ * the assembled lines of a multi-line event. The event is only valid during the call.
+ */
+public interface EventSink {
+    void accept(String sourceName, LogParser parser, CharSequence event);
+}
@@ -0,0 +1,491 @@
+package com.logframework.pipeline;
+
+import com.logframework.aggregator.LogAggregator;
+import com.logframework.filter.LogFilter;
+import com.logframework.model.CompactLogEntry;
+import com.logframework.model.FieldDictionaries;
+import com.logframework.model.LogBatch;
+import com.logframework.model.LogEntry;
+import com.logframework.parser.LogParser;
+import com.logframework.parser.ReusingParser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The filter and aggregator stages that every parsed entry goes through.
+ * Events passed to {@link #accept(String, LogParser, CharSequence)} are copied into a batch
+ * and parsed together with
+ * {@link LogParser#parseBatch(CharSequence[], int, LogEntry[], FieldDictionaries)};
+ * parsed entries are collected into fixed-size batches that go through the batch methods
+ * of the filters and aggregators. Call {@link #flush()} once the input is done.
+ * Parallel workers each get their own partial chain via {@link #newPartial()},
+ * which is merged back into the shared chain once the worker is done.
+ * <p>
+ * A chain is one run: it owns the {@link FieldDictionaries} that parsers encode values through
+ * for it, shared with its partial chains and filter copies, so runs that overlap never see
+ * each other's codes.
+ * <p>
+ * With {@link #setReuseEntries(boolean)}, parsers that support it fill one recycled entry per
+ * batch slot instead of allocating an entry per event. With {@link #setColumnar(boolean)},
+ * parsed entries are copied into a {@link LogBatch} instead, and the filters and aggregators
+ * run over its columns.
+ * <p>
+ * Filters are evaluated in an order that adapts to their measured cost and selectivity, see
+ * {@link AdaptiveFilterOrder}. Before that, events are tested with the filters' predicates on
+ * raw events, see {@link LogFilter#newEventPredicate(LogParser)}, and events that cannot
+ * match are not parsed.
+ */
+public class ProcessingChain implements EventSink {
+    private static final Logger logger = Logger.getLogger(ProcessingChain.class.getName());
+
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private final List<LogFilter> filters;
+    private final List<LogAggregator> aggregators;
+    private final AdaptiveFilterOrder filterOrder;
+    private final FieldDictionaries dictionaries;
+    private final LogEntry[] batch;
+    private int batchCount;
+    private final EventBatcher events; // Raw events waiting to be parsed by the row engine
+    private CompactLogEntry[] recycled; // null = entries are not reused
+    private LogParser reusingFor;
+    private ReusingParser reusingParser;
+    private LogBatch columns; // null = row engine
+    private CompactLogEntry scratch; // Parsed into before being copied into the columns
+    private boolean prefilterEvents = true;
+    private LogParser prefilterFor;
+    private Predicate<CharSequence> eventPredicate; // null = every event of prefilterFor is parsed
+
+    public ProcessingChain(List<LogFilter> filters, List<LogAggregator> aggregators) {
+        this(filters, aggregators, DEFAULT_BATCH_SIZE);
+    }
+
+    public ProcessingChain(List<LogFilter> filters, List<LogAggregator> aggregators, int batchSize) {
+        this(filters, aggregators, batchSize, new FieldDictionaries());
+    }
+
+    private ProcessingChain(List<LogFilter> filters, List<LogAggregator> aggregators, int batchSize,
+                            FieldDictionaries dictionaries) {
+        this.filters = filters;
+        this.aggregators = aggregators;
+        this.filterOrder = new AdaptiveFilterOrder(filters);
+        this.dictionaries = dictionaries;
+        this.batch = new LogEntry[Math.max(1, batchSize)];
+        this.events = new EventBatcher(batch.length, dictionaries, this::addParsed);
+    }
+
+    /**
+     * Returns the dictionaries parsers encode values through for this chain.
+     */
+    public FieldDictionaries getDictionaries() {
+        return dictionaries;
+    }
+
+    /**
+     * Adds the event to the current batch. The row engine collects the raw events and parses
+     * them as a batch; with recycled entries or columns, the event is parsed right away into
+     * a recycled entry by the parser's {@link ReusingParser}, which keeps its state across
+     * events.
+     */
+    @Override
+    public void accept(String sourceName, LogParser parser, CharSequence event) {
+        if (!mightMatch(parser, event)) {
+            return;
+        }
+        if (columns == null && recycled == null) {
+            events.add(sourceName, parser, event);
+            return;
+        }
+        LogEntry entry;
+        if (columns != null) {
+            entry = parseInto(parser, event, scratch);
+        } else {
+            if (recycled[batchCount] == null) {
+                recycled[batchCount] = new CompactLogEntry(dictionaries);
+            }
+            entry = parseInto(parser, event, recycled[batchCount]);
+        }
+        if (entry == null) {
+            if (logger.isLoggable(Level.FINER)) {
+                logger.finer("Discarded event that could not be parsed in " + sourceName);
+            }
+            return;
+        }
+        entry.setSource(sourceName);
+        if (columns != null) {
+            columns.add(entry);
+            if (columns.isFull()) {
+                flushColumns();
+            }
+        } else {
+            batch[batchCount++] = entry;
+            if (batchCount == batch.length) {
+                flushBatch();
+            }
+        }
+    }
+
+    /**
+     * Adds entries parsed from collected events to the current batch.
+     */
+    private void addParsed(LogEntry[] entries, int count) {
+        for (int i = 0; i < count; i++) {
+            batch[batchCount++] = entries[i];
+            if (batchCount == batch.length) {
+                flushBatch();
+            }
+        }
+    }
+
+    /**
+     * Indicates whether the parsed event might pass every filter; false means the event need
+     * not be parsed.
+     */
+    public boolean mightMatch(LogParser parser, CharSequence event) {
+        if (!prefilterEvents) {
+            return true;
+        }
+        if (parser != prefilterFor) {
+            prefilterFor = parser;
+            eventPredicate = newEventPredicate(parser);
+        }
+        return eventPredicate == null || eventPredicate.test(event);
+    }
+
+    /**
+     * Moves the events that might pass every filter to the front of the array, see
+     * {@link #mightMatch(LogParser, CharSequence)}.
+     *
+     * @return the number of events to parse
+     */
+    public int matchEvents(LogParser parser, CharSequence[] events, int count) {
+        int matched = 0;
+        for (int i = 0; i < count; i++) {
+            if (mightMatch(parser, events[i])) {
+                events[matched++] = events[i];
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Combines the event predicates the filters offer for the parser.
+     */
+    private Predicate<CharSequence> newEventPredicate(LogParser parser) {
+        Predicate<CharSequence> combined = null;
+        for (LogFilter filter : filters) {
+            Predicate<CharSequence> predicate = filter.newEventPredicate(parser);
+            if (predicate != null) {
+                combined = combined == null ? predicate : combined.and(predicate);
+            }
+        }
+        if (combined != null && logger.isLoggable(Level.FINE)) {
+            logger.fine("Testing raw events before parsing with " + parser.getParserName());
+        }
+        return combined;
+    }
+
+    /**
+     * Enables or disables testing raw events before parsing them; enabled by default.
+     */
+    public void setPrefilterEvents(boolean prefilterEvents) {
+        this.prefilterEvents = prefilterEvents;
+        this.prefilterFor = null;
+        this.eventPredicate = null;
+    }
+
+    public boolean isPrefilterEvents() {
+        return prefilterEvents;
+    }
+
+    /**
+     * Parses into a recycled entry, which is overwritten once the batch has been processed.
+     * Parsers without a {@link ReusingParser} return a new entry instead.
+     */
+    private LogEntry parseInto(LogParser parser, CharSequence event, CompactLogEntry target) {
+        if (parser != reusingFor) {
+            reusingFor = parser;
+            reusingParser = parser.newReusingParser();
+        }
+        return reusingParser != null ? reusingParser.parse(event, target) : parser.parse(event, dictionaries);
+    }
+
+    /**
+     * Enables or disables recycling of parsed entries for events passed to
+     * {@link #accept(String, LogParser, CharSequence)}. Recycling is only turned on if no
+     * aggregator retains entries; entries passed to the process methods are never recycled.
+     */
+    public void setReuseEntries(boolean reuseEntries) {
+        flush();
+        recycled = reuseEntries && !retainsEntries() ? new CompactLogEntry[batch.length] : null;
+        reusingFor = null;
+        reusingParser = null;
+    }
+
+    public boolean isReusingEntries() {
+        return recycled != null;
+    }
+
+    /**
+     * Indicates whether any aggregator keeps references to the entries it processes.
+     */
+    public boolean retainsEntries() {
+        for (LogAggregator aggregator : aggregators) {
+            if (aggregator.retainsEntries()) {
+                logger.fine("Aggregator " + aggregator.getClass().getName() + " retains entries.");
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Switches events passed to {@link #accept(String, LogParser, CharSequence)} to the
+     * columnar engine, if every filter and aggregator supports columns. Entries are copied
+     * into the columns right after parsing, so the parser always fills one recycled entry.
+     */
+    public void setColumnar(boolean columnar) {
+        flush();
+        columns = columnar && supportsColumns() ? new LogBatch(batch.length) : null;
+        scratch = columns != null ? new CompactLogEntry(dictionaries) : null;
+    }
+
+    public boolean isColumnar() {
+        return columns != null;
+    }
+
+    /**
+     * Indicates whether every filter and aggregator can work on a {@link LogBatch}.
+     */
+    public boolean supportsColumns() {
+        for (LogFilter filter : filters) {
+            if (!filter.supportsColumns()) {
+                logger.fine("Filter " + filter.getClass().getName() + " does not support columnar batches.");
+                return false;
+            }
+        }
+        for (LogAggregator aggregator : aggregators) {
+            if (!aggregator.supportsColumns()) {
+                logger.fine("Aggregator " + aggregator.getClass().getName() + " does not support columnar batches.");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses the events and processes the entries collected so far.
+     */
+    public void flush() {
+        events.parse();
+        flushColumns();
+        flushBatch();
+    }
+
+    private void flushColumns() {
+        if (columns != null && columns.size() > 0) {
+            processColumns(columns);
+            columns.clear();
+        }
+    }
+
+    private void flushBatch() {
+        if (batchCount > 0) {
+            processBatch(batch, batchCount);
+            Arrays.fill(batch, 0, batchCount, null);
+            batchCount = 0;
+        }
+    }
+
+    /**
+     * Runs the entry through all filters and, if it matches, through every aggregator.
+     */
+    public void process(LogEntry entry) {
+        for (LogFilter filter : filterOrder.filters()) {
+            if (!filter.matches(entry)) {
+                return;
+            }
+        }
+        for (LogAggregator aggregator : aggregators) {
+            aggregator.process(entry);
+        }
+    }
+
+    /**
+     * Batch variant of {@link #process(LogEntry)}; the array is reordered by the filters.
+     */
+    public void processBatch(LogEntry[] entries, int count) {
+        aggregateBatch(entries, matchBatch(entries, count));
+    }
+
+    /**
+     * Narrows the batch's selection with every filter and feeds the selected rows to every
+     * aggregator.
+     */
+    public void processColumns(LogBatch batch) {
+        LogFilter[] ordered = filterOrder.filters();
+        boolean sample = filterOrder.sampleNext();
+        for (int i = 0; i < ordered.length && batch.getSelectedCount() > 0; i++) {
+            if (sample) {
+                int seen = batch.getSelectedCount();
+                long start = System.nanoTime();
+                ordered[i].matchColumns(batch);
+                filterOrder.record(i, System.nanoTime() - start, seen, batch.getSelectedCount());
+            } else {
+                ordered[i].matchColumns(batch);
+            }
+        }
+        if (sample) {
+            filterOrder.endSample();
+        }
+        if (batch.getSelectedCount() == 0) {
+            return;
+        }
+        for (LogAggregator aggregator : aggregators) {
+            aggregator.processColumns(batch);
+        }
+    }
+
+    /**
+     * Moves the entries that pass every filter to the front of the array.
+     *
+     * @return the number of matching entries
+     */
+    public int matchBatch(LogEntry[] entries, int count) {
+        LogFilter[] ordered = filterOrder.filters();
+        boolean sample = filterOrder.sampleNext();
+        for (int i = 0; i < ordered.length && count > 0; i++) {
+            if (sample) {
+                long start = System.nanoTime();
+                int matched = ordered[i].matchBatch(entries, count);
+                filterOrder.record(i, System.nanoTime() - start, count, matched);
+                count = matched;
+            } else {
+                count = ordered[i].matchBatch(entries, count);
+            }
+        }
+        if (sample) {
+            filterOrder.endSample();
+        }
+        return count;
+    }
+
+    /**
+     * Enables or disables reordering the filters by their measured cost and selectivity;
+     * enabled by default.
+     */
+    public void setAdaptiveFilterOrder(boolean adaptive) {
+        filterOrder.setAdaptive(adaptive);
+    }
+
+    /**
+     * Returns the filters in the order they are currently evaluated.
+     */
+    public List<LogFilter> getFilterOrder() {
+        return List.of(filterOrder.filters());
+    }
+
+    /**
+     * Feeds the first count entries to every aggregator, without filtering.
+     */
+    public void aggregateBatch(LogEntry[] entries, int count) {
+        if (count == 0) {
+            return;
+        }
+        for (LogAggregator aggregator : aggregators) {
+            aggregator.processBatch(entries, count);
+        }
+    }
+
+    /**
+     * Returns the union of the fields the filters and aggregators read, or null if any of them
+     * does not declare its fields.
+     */
+    public Set<String> getRequiredFields() {
+        Set<String> fields = new HashSet<>();
+        for (LogFilter filter : filters) {
+            Set<String> required = filter.getRequiredFields();
+            if (required == null) {
+                return null;
+            }
+            fields.addAll(required);
+        }
+        for (LogAggregator aggregator : aggregators) {
+            Set<String> required = aggregator.getRequiredFields();
+            if (required == null) {
+                return null;
+            }
+            fields.addAll(required);
+        }
+        return fields;
+    }
+
+    /**
+     * Indicates whether every aggregator in the chain can produce and merge partials.
+     */
+    public boolean isMergeable() {
+        for (LogAggregator aggregator : aggregators) {
+            if (aggregator.newPartial() == null) {
+                logger.fine("Aggregator " + aggregator.getClass().getName() + " does not support partial results.");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates a chain with copied filters that shares this chain's aggregators, for a thread
+     * that only evaluates {@link #matchBatch(LogEntry[], int)}.
+     */
+    public ProcessingChain withFilterCopies() {
+        ProcessingChain chain = new ProcessingChain(copyFilters(), aggregators, batch.length, dictionaries);
+        chain.setAdaptiveFilterOrder(filterOrder.isAdaptive());
+        chain.setPrefilterEvents(prefilterEvents);
+        return chain;
+    }
+
+    /**
+     * Creates a chain with copied filters and empty partial aggregators for a single worker.
+     */
+    public ProcessingChain newPartial() {
+        List<LogAggregator> partials = new ArrayList<>(aggregators.size());
+        for (LogAggregator aggregator : aggregators) {
+            LogAggregator partial = aggregator.newPartial();
+            if (partial == null) {
+                throw new IllegalStateException("Aggregator " + aggregator.getClass().getName() + " is not mergeable");
+            }
+            partials.add(partial);
+        }
+        ProcessingChain chain = new ProcessingChain(copyFilters(), partials, batch.length, dictionaries);
+        chain.setReuseEntries(isReusingEntries());
+        chain.setColumnar(isColumnar());
+        chain.setAdaptiveFilterOrder(filterOrder.isAdaptive());
+        chain.setPrefilterEvents(prefilterEvents);
+        return chain;
+    }
+
+    /**
+     * Flushes this partial chain and merges its aggregator state into the given target chain.
+     */
+    public void mergeInto(ProcessingChain target) {
+        flush();
+        for (int i = 0; i < aggregators.size(); i++) {
+            target.aggregators.get(i).merge(aggregators.get(i));
+        }
+    }
+
+    private List<LogFilter> copyFilters() {
+        List<LogFilter> filterCopies = new ArrayList<>(filters.size());
+        for (LogFilter filter : filters) {
+            filterCopies.add(filter.copy());
+        }
+        return filterCopies;
+    }
+}
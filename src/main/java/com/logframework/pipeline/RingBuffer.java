@@ -0,0 +1,174 @@
+package com.logframework.pipeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded lock-free queue for several producers and consumers (Vyukov's array queue).
+ * Every slot carries a sequence number that tells producers and consumers whose turn it
+ * is, so neither side takes a lock. {@link #put(Object)} and {@link #take()} wait with a
+ * spin, yield, park back-off while the buffer is full or empty, which gives backpressure
+ * between pipeline stages.
+ */
+public class RingBuffer<T> {
+    private static final int SPIN_LIMIT = 100;
+    private static final int YIELD_LIMIT = 200;
+    private static final long PARK_NANOS = 50_000;
+
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // next slot to consume
+    private final AtomicLong tail = new AtomicLong(); // next slot to produce
+    private final AtomicLong fullWaits = new AtomicLong();
+    private final AtomicLong emptyWaits = new AtomicLong();
+    private volatile int maxDepth;
+
+    /**
+     * @param capacity the number of slots, rounded up to a power of two
+     */
+    public RingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        elements = new Object[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Adds the element if there is room.
+     *
+     * @return false if the buffer is full
+     */
+    public boolean offer(T element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements[index] = element;
+                    sequences.lazySet(index, position + 1); // Publishes the element to consumers
+                    recordDepth();
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get(); // Another producer took this slot
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest element.
+     *
+     * @return the element, or null if the buffer is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    T element = (T) elements[index];
+                    elements[index] = null;
+                    sequences.lazySet(index, position + mask + 1); // Frees the slot for the next lap
+                    return element;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = head.get(); // Another consumer took this slot
+            }
+        }
+    }
+
+    /**
+     * Adds the element, waiting while the buffer is full.
+     */
+    public void put(T element) throws InterruptedException {
+        if (offer(element)) {
+            return;
+        }
+        fullWaits.incrementAndGet();
+        for (int attempt = 0; !offer(element); attempt++) {
+            backOff(attempt);
+        }
+    }
+
+    /**
+     * Removes the oldest element, waiting while the buffer is empty.
+     */
+    public T take() throws InterruptedException {
+        T element = poll();
+        if (element != null) {
+            return element;
+        }
+        emptyWaits.incrementAndGet();
+        for (int attempt = 0; (element = poll()) == null; attempt++) {
+            backOff(attempt);
+        }
+        return element;
+    }
+
+    /**
+     * Returns the number of elements currently in the buffer; approximate while in use.
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, elements.length));
+    }
+
+    public int capacity() {
+        return elements.length;
+    }
+
+    /**
+     * Returns the highest number of elements seen in the buffer.
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Returns how often a producer had to wait because the buffer was full.
+     */
+    public long getFullWaits() {
+        return fullWaits.get();
+    }
+
+    /**
+     * Returns how often a consumer had to wait because the buffer was empty.
+     */
+    public long getEmptyWaits() {
+        return emptyWaits.get();
+    }
+
+    private void recordDepth() {
+        int depth = size();
+        if (depth > maxDepth) {
+            maxDepth = depth; // Racy, but only a statistic
+        }
+    }
+
+    private static void backOff(int attempt) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (attempt < SPIN_LIMIT) {
+            Thread.onSpinWait();
+        } else if (attempt < YIELD_LIMIT) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+}
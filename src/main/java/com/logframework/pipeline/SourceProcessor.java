@@ -0,0 +1,200 @@
+package com.logframework.pipeline;
+
+import com.logframework.parser.FormatDetector;
+import com.logframework.parser.LogParser;
+import com.logframework.util.CharSequences;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Turns the lines of one source (a file, a segment of a file or a followed file) into
+ * complete events and hands them to an {@link EventSink}, usually a {@link ProcessingChain}.
+ * Lines are pushed in one at a time, which lets batch reading and follow mode share the
+ * same parser selection and multi-line event handling.
+ */
+public class SourceProcessor {
+    private final String sourceName;
+    private final Function<List<String>, LogParser> parserSelector;
+    private final EventSink sink;
+    private int maxEventChars = EventAssembler.DEFAULT_MAX_EVENT_CHARS;
+    private int maxEventLines = EventAssembler.DEFAULT_MAX_EVENT_LINES;
+    private int sampleLines = FormatDetector.DEFAULT_SAMPLE_LINES;
+
+    private LogParser parser;
+    private EventAssembler assembler; // null for single-line formats
+    private boolean rejected;
+    private List<String> sample; // Lines held back until the parser is selected
+    private int sampleNonBlank;
+
+    /**
+     * Creates a processor that selects its parser from a sample of the first lines. The
+     * sampled lines are held back and processed once the parser is known.
+     */
+    public SourceProcessor(String sourceName, Function<List<String>, LogParser> parserSelector,
+                           EventSink sink) {
+        this.sourceName = sourceName;
+        this.parserSelector = parserSelector;
+        this.sink = sink;
+    }
+
+    /**
+     * Creates a processor for a source whose parser is already known, e.g. a file segment.
+     */
+    public SourceProcessor(String sourceName, LogParser parser, EventSink sink) {
+        this(sourceName, (Function<List<String>, LogParser>) null, sink);
+        useParser(parser);
+    }
+
+    /**
+     * Processes one line.
+     *
+     * @return false if no parser could handle the source, so the caller can stop reading
+     */
+    public boolean accept(CharSequence line) {
+        if (parser == null) {
+            if (rejected) {
+                return false;
+            }
+            if (sample == null) {
+                sample = new ArrayList<>();
+            }
+            sample.add(line.toString()); // The line is a view, only valid during this call
+            if (!CharSequences.isBlank(line) && ++sampleNonBlank >= sampleLines) {
+                return selectParser(true);
+            }
+            return true;
+        }
+        processLine(line);
+        return true;
+    }
+
+    /**
+     * Selects the parser from the lines sampled so far instead of waiting for a full sample,
+     * e.g. when a followed file has no more lines yet. If no parser accepts them, sampling
+     * continues.
+     */
+    public void selectParserEarly() {
+        if (hasSample()) {
+            selectParser(false);
+        }
+    }
+
+    /**
+     * Selects the parser from the sample and processes the sampled lines with it.
+     *
+     * @param lastChance whether to give up on the source if no parser accepts the sample
+     * @return false if the source was rejected
+     */
+    private boolean selectParser(boolean lastChance) {
+        LogParser selected = parserSelector.apply(sample);
+        if (selected == null) {
+            if (lastChance) {
+                System.err.println("No suitable parser found for: " + sourceName);
+                rejected = true;
+                sample = null;
+            }
+            return !lastChance;
+        }
+        System.out.printf("Processing %s with %s\n", sourceName, selected.getParserName());
+        useParser(selected);
+        List<String> sampled = sample;
+        sample = null;
+        for (String line : sampled) {
+            processLine(line);
+        }
+        return true;
+    }
+
+    private void processLine(CharSequence line) {
+        if (assembler != null) {
+            // MULTI-LINE PROCESSING
+            processMultiLineEntry(line);
+        } else {
+            // SINGLE-LINE PROCESSING
+            processSingleLineEntry(line);
+        }
+    }
+
+    /**
+     * Processes the pending multi-line event, if any, selecting the parser first for a source
+     * shorter than the sample. Called at the end of a source; segments end where the next event
+     * starts, so this is the same as reaching the end of the file.
+     */
+    public void flush() {
+        if (hasSample()) {
+            selectParser(true);
+        }
+        if (assembler != null && assembler.hasEvent()) {
+            processCompleteEvent();
+        }
+    }
+
+    public boolean hasPendingEvent() {
+        return hasSample() || (assembler != null && assembler.hasEvent());
+    }
+
+    private boolean hasSample() {
+        return parser == null && !rejected && sampleNonBlank > 0;
+    }
+
+    /**
+     * Sets how many non-blank lines are sampled to select the parser.
+     */
+    public void setSampleLines(int sampleLines) {
+        this.sampleLines = Math.max(1, sampleLines);
+    }
+
+    /**
+     * Limits the size of multi-line events; longer events are truncated.
+     */
+    public void setEventLimits(int maxEventChars, int maxEventLines) {
+        this.maxEventChars = maxEventChars;
+        this.maxEventLines = maxEventLines;
+        if (assembler != null) {
+            assembler.setLimits(maxEventChars, maxEventLines);
+        }
+    }
+
+    public LogParser getParser() {
+        return parser;
+    }
+
+    private void useParser(LogParser selected) {
+        this.parser = selected;
+        // Initialize multi-line support if needed
+        if (selected.isMultiLine()) {
+            assembler = new EventAssembler(sourceName, selected.getStartLinePredicate());
+            assembler.setLimits(maxEventChars, maxEventLines);
+        }
+    }
+
+    /**
+     * Handles multi-line log entry processing with streaming.
+     */
+    private void processMultiLineEntry(CharSequence line) {
+        // If this is a start line and we have content in the buffer, process the previous event
+        if (assembler.hasEvent() && assembler.isStartLine(line)) {
+            processCompleteEvent();
+        }
+
+        // Add current line to buffer
+        assembler.append(line);
+    }
+
+    private void processSingleLineEntry(CharSequence line) {
+        sink.accept(sourceName, parser, line);
+    }
+
+    /**
+     * Processes a complete multi-line event.
+     */
+    private void processCompleteEvent() {
+        CharSequence event = assembler.event();
+        if (event.length() > 0) {
+            sink.accept(sourceName, parser, event);
+        }
+        assembler.clear();
+    }
+}
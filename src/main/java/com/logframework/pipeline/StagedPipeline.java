@@ -0,0 +1,193 @@
+package com.logframework.pipeline;
+
+import com.logframework.model.LogEntry;
+import com.logframework.parser.LogParser;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs reading, parsing and aggregation on separate threads connected by bounded
+ * {@link RingBuffer}s:
+ * <ul>
+ *   <li>a reader stage runs the work units and collects their events into batches,</li>
+ *   <li>N parser stages parse the batches and apply the filters,</li>
+ *   <li>one aggregation stage feeds the matching entries to the aggregators.</li>
+ * </ul>
+ * A full buffer makes the stage in front of it wait, so memory stays bounded. Only one
+ * thread touches the aggregators, so they do not need to be mergeable; entries of
+ * different batches may reach them out of order.
+ */
+public class StagedPipeline {
+    private static final Logger logger = Logger.getLogger(StagedPipeline.class.getName());
+
+    private static final EventBatch END_OF_EVENTS = new EventBatch(null, null, 0);
+
+    private final ProcessingChain chain;
+    private final int parserStages;
+    private final int batchSize;
+    private final RingBuffer<EventBatch> parseQueue;
+    private final AggregationStage aggregationStage;
+
+    /**
+     * @param batchSize     the number of events per batch
+     * @param queueCapacity the number of batches each buffer can hold
+     */
+    public StagedPipeline(ProcessingChain chain, int parserStages, int batchSize, int queueCapacity) {
+        this.chain = chain;
+        this.parserStages = Math.max(1, parserStages);
+        this.batchSize = Math.max(1, batchSize);
+        this.parseQueue = new RingBuffer<>(queueCapacity);
+        this.aggregationStage = new AggregationStage(chain, queueCapacity);
+    }
+
+    /**
+     * Runs the work units through the pipeline and returns once every entry is aggregated.
+     */
+    public void run(Collection<? extends Consumer<EventSink>> units) {
+        int stageCount = parserStages + 2;
+        ExecutorService executor = Executors.newFixedThreadPool(stageCount);
+        CompletionService<Void> stages = new ExecutorCompletionService<>(executor);
+        try {
+            stages.submit(() -> {
+                read(units);
+                return null;
+            });
+            for (int i = 0; i < parserStages; i++) {
+                ProcessingChain filterChain = chain.withFilterCopies();
+                stages.submit(() -> {
+                    parse(filterChain);
+                    return null;
+                });
+            }
+            stages.submit(() -> {
+                aggregationStage.run(parserStages);
+                return null;
+            });
+            for (int i = 0; i < stageCount; i++) {
+                stages.take().get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warning("Interrupted while waiting for pipeline stages.");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Pipeline stage failed while processing log files", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            logStatistics();
+        }
+    }
+
+    /**
+     * Returns the number of batches waiting in front of each stage. A stage whose queue is
+     * usually full is the bottleneck; a stage whose queue is usually empty is waiting for
+     * the one before it.
+     */
+    public Map<String, Integer> getQueueDepths() {
+        Map<String, Integer> depths = new LinkedHashMap<>();
+        depths.put("parse", parseQueue.size());
+        depths.put("aggregate", aggregationStage.getQueueDepth());
+        return depths;
+    }
+
+    private void read(Collection<? extends Consumer<EventSink>> units) throws InterruptedException {
+        BatchingSink sink = new BatchingSink();
+        for (Consumer<EventSink> unit : units) {
+            unit.accept(sink);
+            sink.publish();
+        }
+        for (int i = 0; i < parserStages; i++) {
+            parseQueue.put(END_OF_EVENTS);
+        }
+    }
+
+    private void parse(ProcessingChain filterChain) throws InterruptedException {
+        while (true) {
+            EventBatch batch = parseQueue.take();
+            if (batch == END_OF_EVENTS) {
+                aggregationStage.endOfEntries();
+                return;
+            }
+            int candidates = filterChain.matchEvents(batch.parser, batch.events, batch.size);
+            EntryBatch entries = new EntryBatch(candidates);
+            batch.parser.parseBatch(batch.events, candidates, entries.entries, filterChain.getDictionaries());
+            for (int i = 0; i < candidates; i++) {
+                LogEntry entry = entries.entries[i];
+                if (entry != null) {
+                    entry.setSource(batch.sourceName);
+                    entries.entries[entries.size++] = entry;
+                }
+            }
+            if (entries.size < candidates && logger.isLoggable(Level.FINER)) {
+                logger.finer("Discarded " + (candidates - entries.size) + " events that could not be parsed in "
+                        + batch.sourceName);
+            }
+            entries.size = filterChain.matchBatch(entries.entries, entries.size);
+            if (entries.size > 0) {
+                aggregationStage.put(entries);
+            }
+        }
+    }
+
+    private void logStatistics() {
+        AggregationStage.logStatistics("parse", parseQueue);
+        aggregationStage.logStatistics();
+    }
+
+    /**
+     * Events of one source, copied out of the reader's reused line buffers.
+     */
+    private static class EventBatch {
+        final String sourceName;
+        final LogParser parser;
+        final String[] events;
+        int size;
+
+        EventBatch(String sourceName, LogParser parser, int capacity) {
+            this.sourceName = sourceName;
+            this.parser = parser;
+            this.events = new String[capacity];
+        }
+    }
+
+    /**
+     * Collects events into batches and hands full batches to the parser stages.
+     */
+    private class BatchingSink implements EventSink {
+        private EventBatch batch;
+
+        @Override
+        public void accept(String sourceName, LogParser parser, CharSequence event) {
+            if (batch != null && (batch.size == batchSize || batch.parser != parser
+                    || !batch.sourceName.equals(sourceName))) {
+                publish();
+            }
+            if (batch == null) {
+                batch = new EventBatch(sourceName, parser, batchSize);
+            }
+            batch.events[batch.size++] = event.toString();
+        }
+
+        void publish() {
+            if (batch == null) {
+                return;
+            }
+            try {
+                parseQueue.put(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while handing events to the parser stages", e);
+            }
+            batch = null;
+        }
+    }
+}
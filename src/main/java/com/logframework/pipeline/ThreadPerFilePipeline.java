@@ -0,0 +1,155 @@
+package com.logframework.pipeline;
+
+import com.logframework.model.LogEntry;
+import com.logframework.parser.LogParser;
+import com.logframework.util.VirtualThreads;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Runs every work unit (usually one file) on its own thread, which reads, parses and filters
+ * it and hands the matching entries to one shared aggregation stage. Meant for many small
+ * files on slow storage, where throughput is bound by blocking opens and reads rather than
+ * by parsing. On Java 21 and later each unit gets a virtual thread; at most
+ * maxConcurrency units run at the same time, so open file handles stay bounded. Older
+ * runtimes use a fixed pool of maxConcurrency platform threads instead.
+ */
+public class ThreadPerFilePipeline {
+    private static final Logger logger = Logger.getLogger(ThreadPerFilePipeline.class.getName());
+
+    private final ProcessingChain chain;
+    private final int maxConcurrency;
+    private final int batchSize;
+    private final AggregationStage aggregationStage;
+
+    public ThreadPerFilePipeline(ProcessingChain chain, int maxConcurrency, int batchSize, int queueCapacity) {
+        this.chain = chain;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.batchSize = Math.max(1, batchSize);
+        this.aggregationStage = new AggregationStage(chain, queueCapacity);
+    }
+
+    /**
+     * Runs the work units and returns once every entry is aggregated.
+     */
+    public void run(Collection<? extends Consumer<EventSink>> units) {
+        ExecutorService unitExecutor = VirtualThreads.newThreadPerTaskExecutor();
+        if (unitExecutor != null) {
+            logger.info("Running " + units.size() + " work units on virtual threads, at most "
+                    + maxConcurrency + " at a time.");
+        } else {
+            logger.info("Virtual threads are not available, running " + units.size() + " work units on "
+                    + maxConcurrency + " platform threads.");
+            unitExecutor = Executors.newFixedThreadPool(maxConcurrency);
+        }
+        ExecutorService aggregationExecutor = Executors.newSingleThreadExecutor();
+        ExecutorService executor = unitExecutor;
+        try {
+            Future<?> aggregation = aggregationExecutor.submit(() -> {
+                try {
+                    aggregationStage.run(1);
+                } catch (RuntimeException e) {
+                    executor.shutdownNow(); // Release the units waiting to hand over entries
+                    throw e;
+                }
+                return null;
+            });
+
+            Semaphore permits = new Semaphore(maxConcurrency);
+            List<Future<?>> tasks = new ArrayList<>(units.size());
+            for (Consumer<EventSink> unit : units) {
+                tasks.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        ForwardingSink sink = new ForwardingSink(chain.withFilterCopies());
+                        unit.accept(sink);
+                        sink.publish();
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+            aggregationStage.endOfEntries();
+            aggregation.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warning("Interrupted while waiting for file threads.");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("File thread failed while processing log files", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            aggregationExecutor.shutdownNow();
+            aggregationStage.logStatistics();
+        }
+    }
+
+    public int getQueueDepth() {
+        return aggregationStage.getQueueDepth();
+    }
+
+    /**
+     * Parses the events of one unit in batches, filters them and forwards full batches to the
+     * aggregation stage.
+     */
+    private class ForwardingSink implements EventSink {
+        private final ProcessingChain filterChain;
+        private final EventBatcher events;
+        private EntryBatch batch = new EntryBatch(batchSize);
+
+        ForwardingSink(ProcessingChain filterChain) {
+            this.filterChain = filterChain;
+            this.events = new EventBatcher(batchSize, filterChain.getDictionaries(), this::addParsed);
+        }
+
+        @Override
+        public void accept(String sourceName, LogParser parser, CharSequence event) {
+            if (filterChain.mightMatch(parser, event)) {
+                events.add(sourceName, parser, event);
+            }
+        }
+
+        private void addParsed(LogEntry[] entries, int count) {
+            for (int i = 0; i < count; i++) {
+                batch.entries[batch.size++] = entries[i];
+                if (batch.size == batchSize) {
+                    forward();
+                }
+            }
+        }
+
+        /**
+         * Parses the remaining events and forwards what is left of the batch.
+         */
+        void publish() {
+            events.parse();
+            forward();
+        }
+
+        private void forward() {
+            batch.size = filterChain.matchBatch(batch.entries, batch.size);
+            if (batch.size == 0) {
+                return; // Nothing matched, the batch can be refilled
+            }
+            try {
+                aggregationStage.put(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while handing entries to the aggregation stage", e);
+            }
+            batch = new EntryBatch(batchSize);
+        }
+    }
+}
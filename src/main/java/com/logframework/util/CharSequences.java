@@ -0,0 +1,52 @@
+package com.logframework.util;
+
+/**
+ * Small helpers for working on CharSequence line views without converting them to Strings.
+ */
+public final class CharSequences {
+
+    private CharSequences() {
+    }
+
+    /**
+     * Equivalent of {@code s.toString().trim().isEmpty()} without the copy.
+     */
+    public static boolean isBlank(CharSequence s) {
+        if (s == null) {
+            return true;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks that the sequence starts with the given shape, in which '#' stands for any ASCII
+     * digit and every other character for itself. {@code "####-##-## "} is a cheap
+     * replacement for the regex {@code ^\d{4}-\d{2}-\d{2} }.
+     */
+    public static boolean startsWithShape(CharSequence s, String shape) {
+        if (s.length() < shape.length()) {
+            return false;
+        }
+        for (int i = 0; i < shape.length(); i++) {
+            char expected = shape.charAt(i);
+            char actual = s.charAt(i);
+            if (expected == '#' ? actual < '0' || actual > '9' : actual != expected) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lower-cases ASCII letters and leaves other characters alone, the folding of a regex
+     * compiled with {@link java.util.regex.Pattern#CASE_INSENSITIVE}.
+     */
+    public static char toLowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
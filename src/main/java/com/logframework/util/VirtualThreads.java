@@ -0,0 +1,57 @@
+package com.logframework.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * Access to virtual threads (Java 21) from code compiled for Java 11. The executor factory
+ * is looked up reflectively, so callers fall back to platform threads on older runtimes.
+ */
+public final class VirtualThreads {
+    private static final Logger logger = Logger.getLogger(VirtualThreads.class.getName());
+
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findFactory();
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Indicates whether this runtime can create virtual threads.
+     */
+    public static boolean isAvailable() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Returns an executor that starts a new virtual thread for every task, or null if this
+     * runtime has no virtual threads.
+     */
+    public static ExecutorService newThreadPerTaskExecutor() {
+        if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR == null) {
+            return null;
+        }
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            logger.warning("Could not create virtual thread executor: " + e);
+            return null;
+        }
+    }
+
+    private static Method findFactory() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            // Java 19 and 20 only offer virtual threads as a preview; probe once
+            ((ExecutorService) factory.invoke(null)).shutdown();
+            return factory;
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.fine("Virtual threads are not enabled on this runtime: " + e);
+            return null;
+        }
+    }
+}
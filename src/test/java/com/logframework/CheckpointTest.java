@@ -0,0 +1,208 @@
+package com.logframework;
+
+import com.logframework.aggregator.ErrorRateOverTimeAggregator;
+import com.logframework.aggregator.LogAggregator;
+import com.logframework.aggregator.LogLevelCountAggregator;
+import com.logframework.aggregator.TopEndpointsAggregator;
+import com.logframework.filter.RegexFilter;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.testng.Assert.*;
+
+public class CheckpointTest {
+
+    private Path directory;
+    private Path checkpointFile;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("checkpoint");
+        checkpointFile = directory.resolve("checkpoint.json");
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private LogProcessingManager newManager(String levels, boolean checkpoint) {
+        LogProcessingManager framework = new LogProcessingManager();
+        if (checkpoint) {
+            framework.setCheckpointFile(checkpointFile.toString());
+        }
+
+        RegexFilter filter = new RegexFilter();
+        filter.setField("level");
+        filter.setRegex(levels);
+        framework.addFilter(filter);
+
+        TopEndpointsAggregator topEndpoints = new TopEndpointsAggregator();
+        topEndpoints.setTopN(5);
+        framework.addAggregator(new LogLevelCountAggregator());
+        framework.addAggregator(topEndpoints);
+        framework.addAggregator(new ErrorRateOverTimeAggregator());
+        return framework;
+    }
+
+    private List<List<List<String>>> run(List<Path> files, boolean checkpoint) {
+        return run(files, checkpoint, "INFO|WARN|ERROR");
+    }
+
+    private List<List<List<String>>> run(List<Path> files, boolean checkpoint, String levels) {
+        LogProcessingManager framework = newManager(levels, checkpoint);
+        List<String> filePaths = new ArrayList<>();
+        for (Path file : files) {
+            filePaths.add(file.toString());
+        }
+        framework.processLogFiles(filePaths);
+
+        List<List<List<String>>> results = new ArrayList<>();
+        for (LogAggregator aggregator : framework.getAggregators()) {
+            List<List<String>> rows = new ArrayList<>(aggregator.getResult().getData());
+            rows.sort(Comparator.comparing(Object::toString));
+            results.add(rows);
+        }
+        return results;
+    }
+
+    /**
+     * Writes the first part of the source to the target and returns the rest.
+     */
+    private byte[] writeHead(String source, Path target, double fraction) throws Exception {
+        byte[] content = Files.readAllBytes(Path.of(source));
+        int cut = (int) (content.length * fraction);
+        while (content[cut - 1] != '\n') {
+            cut++;
+        }
+        Files.write(target, Arrays.copyOf(content, cut));
+        return Arrays.copyOfRange(content, cut, content.length);
+    }
+
+    @Test
+    public void testResumeMatchesFullRun() throws Exception {
+        String source = "src/test/resources/logs/apache-access.log";
+        Path logFile = directory.resolve("access.log");
+        List<List<List<String>>> expected = run(List.of(Path.of(source)), false);
+
+        byte[] rest = writeHead(source, logFile, 0.4);
+        run(List.of(logFile), true);
+        assertTrue(Files.exists(checkpointFile), "Checkpoint should be written");
+
+        Files.write(logFile, rest, StandardOpenOption.APPEND);
+        assertEquals(run(List.of(logFile), true), expected);
+    }
+
+    @Test
+    public void testResumeMultiLineFile() throws Exception {
+        String source = "src/test/resources/logs/spring-boot.log";
+        Path logFile = directory.resolve("spring.log");
+        List<List<List<String>>> expected = run(List.of(Path.of(source)), false);
+
+        // Cut right before an event start, as a writer flushing whole events would
+        List<String> lines = Files.readAllLines(Path.of(source));
+        int cut = lines.size() / 2;
+        while (!lines.get(cut).matches("^\\d{4}-\\d{2}-\\d{2}.*")) {
+            cut++;
+        }
+        Files.write(logFile, lines.subList(0, cut));
+        run(List.of(logFile), true);
+
+        Files.write(logFile, lines.subList(cut, lines.size()), StandardOpenOption.APPEND);
+        assertEquals(run(List.of(logFile), true), expected);
+    }
+
+    @Test
+    public void testUnchangedFileIsNotCountedTwice() throws Exception {
+        Path logFile = directory.resolve("access.log");
+        Files.copy(Path.of("src/test/resources/logs/apache-access.log"), logFile);
+
+        List<List<List<String>>> first = run(List.of(logFile), true);
+        assertEquals(run(List.of(logFile), true), first);
+    }
+
+    @Test
+    public void testPartialLineIsLeftForNextRun() throws Exception {
+        String source = "src/test/resources/logs/apache-access.log";
+        Path logFile = directory.resolve("access.log");
+        List<List<List<String>>> expected = run(List.of(Path.of(source)), false);
+
+        byte[] rest = writeHead(source, logFile, 0.5);
+        int half = 40; // Somewhere inside the next line
+        Files.write(logFile, Arrays.copyOf(rest, half), StandardOpenOption.APPEND);
+        run(List.of(logFile), true);
+
+        Files.write(logFile, Arrays.copyOfRange(rest, half, rest.length), StandardOpenOption.APPEND);
+        assertEquals(run(List.of(logFile), true), expected);
+    }
+
+    @Test
+    public void testRenamedFileIsRecognised() throws Exception {
+        String source = "src/test/resources/logs/apache-access.log";
+        Path logFile = directory.resolve("access.log");
+        Path rotated = directory.resolve("access.log.1");
+        Files.copy(Path.of(source), logFile);
+        List<List<List<String>>> first = run(List.of(logFile), true);
+
+        // Rotate: the old file is renamed and a new, empty file takes its place
+        Files.move(logFile, rotated);
+        Files.createFile(logFile);
+        assertEquals(run(List.of(logFile, rotated), true), first);
+    }
+
+    @Test
+    public void testCheckpointWithDifferentFiltersIsIgnored() throws Exception {
+        Path logFile = directory.resolve("access.log");
+        Files.copy(Path.of("src/test/resources/logs/apache-access.log"), logFile);
+        run(List.of(logFile), true, "INFO|WARN|ERROR");
+
+        assertEquals(run(List.of(logFile), true, "ERROR"), run(List.of(logFile), false, "ERROR"));
+    }
+
+    @Test
+    public void testCompressedFileIsSkippedWhenUnchanged() throws Exception {
+        Path archive = directory.resolve("access.log.gz");
+        try (var out = new GZIPOutputStream(Files.newOutputStream(archive))) {
+            Files.copy(Path.of("src/test/resources/logs/apache-access.log"), out);
+        }
+        List<List<List<String>>> first = run(List.of(archive), true);
+        assertFalse(first.get(0).isEmpty(), "The archive should be processed on the first run");
+        assertEquals(run(List.of(archive), true), first);
+    }
+
+    @Test
+    public void testCheckpointIsNotAdvancedWhenAFileFailsToRead() throws Exception {
+        String source = "src/test/resources/logs/apache-access.log";
+        Path logFile = directory.resolve("access.log");
+        List<List<List<String>>> expected = run(List.of(Path.of(source)), false);
+
+        byte[] rest = writeHead(source, logFile, 0.4);
+        run(List.of(logFile), true);
+        byte[] saved = Files.readAllBytes(checkpointFile);
+
+        // The corrupt archive fails to read, so the appended data must be read again next run
+        Path corrupt = directory.resolve("broken.log.gz");
+        Files.write(corrupt, new byte[]{'n', 'o', 't', ' ', 'g', 'z', 'i', 'p'});
+        Files.write(logFile, rest, StandardOpenOption.APPEND);
+        run(List.of(logFile, corrupt), true);
+        assertEquals(Files.readAllBytes(checkpointFile), saved);
+
+        Files.delete(corrupt);
+        assertEquals(run(List.of(logFile), true), expected);
+    }
+}
@@ -0,0 +1,89 @@
+package com.logframework;
+
+import com.logframework.aggregator.LogLevelCountAggregator;
+import com.logframework.dto.ResultDTO;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+public class FollowModeTest {
+
+    private static final String INFO_LINE =
+            "10.0.0.1 - - [18/Sep/2025:16:10:00 +0000] \"GET /api/users HTTP/1.1\" 200 512 \"-\" \"curl/7.68.0\"\n";
+    private static final String ERROR_LINE =
+            "10.0.0.2 - - [18/Sep/2025:16:10:01 +0000] \"POST /api/orders HTTP/1.1\" 500 64 \"-\" \"curl/7.68.0\"\n";
+
+    private Path directory;
+    private Path logFile;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("follow");
+        logFile = directory.resolve("access.log");
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private long count(LogProcessingManager framework, String level) {
+        ResultDTO result = framework.getResults().get(0);
+        for (List<String> row : result.getData()) {
+            if (row.get(0).equals(level)) {
+                return Long.parseLong(row.get(1));
+            }
+        }
+        return 0;
+    }
+
+    private void awaitCount(LogProcessingManager framework, String level, long expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (count(framework, level) != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(count(framework, level), expected, "Unexpected " + level + " count");
+    }
+
+    @Test
+    public void testAggregatesAppendedLinesIncrementally() throws Exception {
+        // The banner matches no parser and is skipped, the lines after it are all counted
+        Files.writeString(logFile, "# access log of web-1\n" + INFO_LINE + INFO_LINE);
+
+        LogProcessingManager framework = new LogProcessingManager();
+        framework.setFollowPollInterval(20);
+        framework.addAggregator(new LogLevelCountAggregator());
+
+        Thread follower = new Thread(() -> framework.followLogFiles(List.of(logFile.toString())));
+        follower.start();
+        try {
+            awaitCount(framework, "INFO", 2);
+
+            Files.writeString(logFile, ERROR_LINE + INFO_LINE, StandardOpenOption.APPEND);
+            awaitCount(framework, "ERROR", 1);
+            awaitCount(framework, "INFO", 3);
+
+            // Rotation: the new file is detected again, its first line included
+            Files.move(logFile, directory.resolve("access.log.1"));
+            Files.writeString(logFile, INFO_LINE + ERROR_LINE);
+            awaitCount(framework, "ERROR", 2);
+            awaitCount(framework, "INFO", 4);
+        } finally {
+            framework.stopFollowing();
+            follower.join(5_000);
+        }
+        assertFalse(follower.isAlive(), "Follower should stop.");
+    }
+}
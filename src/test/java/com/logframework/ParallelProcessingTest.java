@@ -0,0 +1,136 @@
+package com.logframework;
+
+import com.logframework.aggregator.ErrorRateOverTimeAggregator;
+import com.logframework.aggregator.LogAggregator;
+import com.logframework.aggregator.LogLevelCountAggregator;
+import com.logframework.aggregator.TopEndpointsAggregator;
+import com.logframework.filter.RegexFilter;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+public class ParallelProcessingTest {
+
+    private static final List<String> LOG_FILES = List.of(
+            "src/test/resources/logs/apache-access.log",
+            "src/test/resources/logs/apache-access-rotated.log",
+            "src/test/resources/logs/json-log.json",
+            "src/test/resources/logs/spring-boot.log"
+    );
+
+    private List<List<List<String>>> runWithParallelism(int parallelism) {
+        return run(parallelism, Long.MAX_VALUE, LOG_FILES);
+    }
+
+    private List<List<List<String>>> run(int parallelism, long splitSize, List<String> logFiles) {
+        LogProcessingManager framework = new LogProcessingManager();
+        framework.setParallelism(parallelism);
+        framework.setSplitSize(splitSize);
+        return run(framework, logFiles);
+    }
+
+    private List<List<List<String>>> runStaged(int parserStages, int batchSize, int queueCapacity) {
+        LogProcessingManager framework = new LogProcessingManager();
+        framework.setProcessingMode(LogProcessingManager.ProcessingMode.STAGED);
+        framework.setParallelism(parserStages);
+        framework.setBatchSize(batchSize);
+        framework.setPipelineQueueCapacity(queueCapacity);
+        List<List<List<String>>> results = run(framework, LOG_FILES);
+        assertTrue(framework.getPipelineQueueDepths().isEmpty(), "No pipeline should be running any more");
+        return results;
+    }
+
+    private List<List<List<String>>> runThreadPerFile(int maxConcurrentFiles, int batchSize) {
+        LogProcessingManager framework = new LogProcessingManager();
+        framework.setProcessingMode(LogProcessingManager.ProcessingMode.VIRTUAL);
+        framework.setMaxConcurrentFiles(maxConcurrentFiles);
+        framework.setBatchSize(batchSize);
+        return run(framework, LOG_FILES);
+    }
+
+    private List<List<List<String>>> run(LogProcessingManager framework, List<String> logFiles) {
+
+        RegexFilter filter = new RegexFilter();
+        filter.setField("level");
+        filter.setRegex("INFO|WARN|ERROR");
+        framework.addFilter(filter);
+
+        TopEndpointsAggregator topEndpoints = new TopEndpointsAggregator();
+        topEndpoints.setTopN(5);
+        ErrorRateOverTimeAggregator errorRate = new ErrorRateOverTimeAggregator();
+        errorRate.setBucketDuration("uuuu-MM-dd'T'HH:mm");
+        framework.addAggregator(new LogLevelCountAggregator());
+        framework.addAggregator(topEndpoints);
+        framework.addAggregator(errorRate);
+
+        framework.processLogFiles(logFiles);
+
+        List<List<List<String>>> results = new ArrayList<>();
+        for (LogAggregator aggregator : framework.getAggregators()) {
+            results.add(aggregator.getResult().getData());
+        }
+        return results;
+    }
+
+    @Test
+    public void testParallelMatchesSerial() {
+        List<List<List<String>>> serial = runWithParallelism(1);
+        List<List<List<String>>> parallel = runWithParallelism(4);
+
+        assertFalse(serial.get(0).isEmpty(), "Serial run should count log levels.");
+        assertEquals(parallel, serial);
+    }
+
+    @Test
+    public void testMoreThreadsThanFiles() {
+        assertEquals(runWithParallelism(16), runWithParallelism(1));
+    }
+
+    @Test
+    public void testSplitSingleLineFileMatchesSerial() {
+        List<String> files = List.of("src/test/resources/logs/apache-access.log");
+        assertEquals(run(4, 1024, files), run(1, Long.MAX_VALUE, files));
+    }
+
+    @Test
+    public void testSplitMultiLineFileMatchesSerial() {
+        List<String> files = List.of("src/test/resources/logs/spring-boot.log");
+        assertEquals(run(3, 2048, files), run(1, Long.MAX_VALUE, files));
+    }
+
+    @Test
+    public void testSplitAllFilesMatchesSerial() {
+        assertEquals(run(8, 700, LOG_FILES), runWithParallelism(1));
+    }
+
+    @Test
+    public void testStagedPipelineMatchesSerial() {
+        // Entries reach the aggregators out of order, so compare the rows as sets
+        assertEquals(sorted(runStaged(3, 16, 4)), sorted(runWithParallelism(1)));
+    }
+
+    @Test
+    public void testStagedPipelineWithSingleParserStage() {
+        assertEquals(sorted(runStaged(1, 1, 2)), sorted(runWithParallelism(1)));
+    }
+
+    @Test
+    public void testThreadPerFileMatchesSerial() {
+        assertEquals(sorted(runThreadPerFile(2, 8)), sorted(runWithParallelism(1)));
+        assertEquals(sorted(runThreadPerFile(64, 1024)), sorted(runWithParallelism(1)));
+    }
+
+    private static List<List<List<String>>> sorted(List<List<List<String>>> results) {
+        List<List<List<String>>> sorted = new ArrayList<>();
+        for (List<List<String>> rows : results) {
+            List<List<String>> copy = new ArrayList<>(rows);
+            copy.sort(Comparator.comparing(Object::toString));
+            sorted.add(copy);
+        }
+        return sorted;
+    }
+}
@@ -71,4 +71,63 @@ public class ErrorRateOverTimeAggregatorTest {
         assertEquals(result.getData().get(1).get(0), "2025-09-18T16:16");
         assertEquals(result.getData().get(1).get(2), "0");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testMergePartialsKeepsBucketDuration() {
+        ErrorRateOverTimeAggregator aggregator = new ErrorRateOverTimeAggregator();
+        aggregator.setBucketDuration("uuuu-MM-dd'T'HH:mm");
+        LogAggregator partial1 = aggregator.newPartial();
+        LogAggregator partial2 = aggregator.newPartial();
+
+        LogEntry entry1 = new LogEntry();
+        entry1.setTimestamp(OffsetDateTime.parse("2025-09-18T16:15:00Z"));
+        entry1.setLevel("ERROR");
+        partial1.process(entry1);
+
+        LogEntry entry2 = new LogEntry();
+        entry2.setTimestamp(OffsetDateTime.parse("2025-09-18T16:15:30Z"));
+        entry2.setLevel("INFO");
+        partial2.process(entry2);
+
+        aggregator.merge(partial1);
+        aggregator.merge(partial2);
+
+        List<List<String>> data = aggregator.getResult().getData();
+        assertEquals(data.size(), 1);
+        assertEquals(data.get(0).get(0), "2025-09-18T16:15");
+        assertEquals(data.get(0).get(1), "2");
+        assertEquals(data.get(0).get(2), "1");
+        assertEquals(data.get(0).get(3), "50.00");
+    }
+
+    @Test
+    public void testProcessBatchMatchesProcess() {
+        String[][] entries = {
+                {"2025-09-18T16:15:00Z", "ERROR"},
+                {"2025-09-18T16:15:00.500Z", "INFO"},
+                {"2025-09-18T16:15:00+02:00", "ERROR"},
+                {"2025-09-18T16:15:59Z", "INFO"},
+                {"2025-09-18T16:16:00Z", "ERROR"},
+                {null, "ERROR"},
+                {"2025-09-18T16:16:00Z", "INFO"},
+        };
+        for (String pattern : new String[] {"uuuu-MM-dd'T'HH:mm", "HH:mm:ss.SSS"}) {
+            ErrorRateOverTimeAggregator single = new ErrorRateOverTimeAggregator();
+            ErrorRateOverTimeAggregator batched = new ErrorRateOverTimeAggregator();
+            single.setBucketDuration(pattern);
+            batched.setBucketDuration(pattern);
+
+            LogEntry[] batch = new LogEntry[entries.length];
+            for (int i = 0; i < entries.length; i++) {
+                LogEntry entry = new LogEntry();
+                entry.setTimestamp(entries[i][0] != null ? OffsetDateTime.parse(entries[i][0]) : null);
+                entry.setLevel(entries[i][1]);
+                single.process(entry);
+                batch[i] = entry;
+            }
+            batched.processBatch(batch, batch.length);
+
+            assertEquals(batched.getResult().getData(), single.getResult().getData(), "Pattern " + pattern);
+        }
+    }
+}
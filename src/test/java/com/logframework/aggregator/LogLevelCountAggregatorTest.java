@@ -1,5 +1,7 @@
 package com.logframework.aggregator;
 
+import com.logframework.model.CompactLogEntry;
+import com.logframework.model.FieldDictionaries;
 import com.logframework.model.LogEntry;
 import com.logframework.dto.ResultDTO;
 import org.testng.annotations.Test;
@@ -65,4 +67,109 @@ public class LogLevelCountAggregatorTest {
         ResultDTO result = aggregator.getResult();
         assertEquals(result.getData().size(), 0);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testMergePartials() {
+        LogLevelCountAggregator aggregator = new LogLevelCountAggregator();
+        LogAggregator partial1 = aggregator.newPartial();
+        LogAggregator partial2 = aggregator.newPartial();
+
+        LogEntry entry1 = new LogEntry();
+        entry1.setLevel("INFO");
+        partial1.process(entry1);
+        partial2.process(entry1);
+
+        LogEntry entry2 = new LogEntry();
+        entry2.setLevel("ERROR");
+        partial2.process(entry2);
+
+        aggregator.merge(partial1);
+        aggregator.merge(partial2);
+
+        List<List<String>> data = aggregator.getResult().getData();
+        assertEquals(data.size(), 2);
+        for (List<String> row : data) {
+            assertEquals(row.get(1), row.get(0).equals("INFO") ? "2" : "1");
+        }
+    }
+
+    @Test
+    public void testProcessBatchCountsRuns() {
+        String[] levels = {"INFO", "INFO", null, "INFO", "ERROR", "ERROR", "INFO", "WARN"};
+        LogEntry[] batch = new LogEntry[levels.length + 1];
+        for (int i = 0; i < levels.length; i++) {
+            batch[i] = new LogEntry();
+            batch[i].setLevel(levels[i]);
+        }
+        batch[levels.length] = new LogEntry(); // Beyond count, must be ignored
+        batch[levels.length].setLevel("DEBUG");
+
+        LogLevelCountAggregator aggregator = new LogLevelCountAggregator();
+        aggregator.processBatch(batch, levels.length);
+
+        List<List<String>> data = aggregator.getResult().getData();
+        assertEquals(data.size(), 3);
+        for (List<String> row : data) {
+            switch (row.get(0)) {
+                case "INFO": assertEquals(row.get(1), "4"); break;
+                case "ERROR": assertEquals(row.get(1), "2"); break;
+                case "WARN": assertEquals(row.get(1), "1"); break;
+                default: fail("Unexpected level " + row.get(0));
+            }
+        }
+    }
+
+    @Test
+    public void testCountsEncodedAndPlainLevelsTogether() {
+        LogLevelCountAggregator aggregator = new LogLevelCountAggregator();
+        FieldDictionaries dictionaries = new FieldDictionaries();
+        LogEntry[] batch = new LogEntry[4];
+        for (int i = 0; i < 3; i++) {
+            CompactLogEntry entry = new CompactLogEntry(dictionaries);
+            entry.setLevel("xERRORx", 1, 6);
+            batch[i] = entry;
+        }
+        batch[3] = new LogEntry();
+        batch[3].setLevel("ERROR");
+        aggregator.processBatch(batch, batch.length);
+
+        LogAggregator partial = aggregator.newPartial();
+        partial.process(batch[0]);
+        aggregator.merge(partial);
+
+        assertEquals(aggregator.getResult().getData(), List.of(List.of("ERROR", "5")));
+        String state = aggregator.saveState();
+        LogLevelCountAggregator restored = new LogLevelCountAggregator();
+        restored.restoreState(state);
+        restored.process(batch[1]);
+        assertEquals(restored.getResult().getData(), List.of(List.of("ERROR", "6")));
+    }
+
+    @Test
+    public void testCodesOfOverlappingRunsAreCountedApart() {
+        // Both runs give their first non-standard level the same code
+        FieldDictionaries first = new FieldDictionaries();
+        FieldDictionaries second = new FieldDictionaries();
+        LogLevelCountAggregator aggregator = new LogLevelCountAggregator();
+        LogLevelCountAggregator partial = (LogLevelCountAggregator) aggregator.newPartial();
+        aggregator.processBatch(new LogEntry[] {entry(first, "NOTICE"), entry(first, "NOTICE")}, 2);
+        partial.processBatch(new LogEntry[] {entry(first, "NOTICE")}, 1);
+        aggregator.processBatch(new LogEntry[] {entry(second, "AUDIT")}, 1);
+        assertEquals(aggregator.getResult().getData().size(), 2);
+
+        aggregator.merge(partial);
+        aggregator.processBatch(new LogEntry[] {entry(first, "NOTICE")}, 1);
+        List<List<String>> data = aggregator.getResult().getData();
+        assertEquals(data.size(), 2);
+        assertTrue(data.contains(List.of("NOTICE", "4")), data.toString());
+        assertTrue(data.contains(List.of("AUDIT", "1")), data.toString());
+        assertEquals(aggregator.getResult().getData(), data, "Reading the result must not change the counts");
+    }
+
+    private static LogEntry entry(FieldDictionaries dictionaries, String level) {
+        CompactLogEntry entry = new CompactLogEntry(dictionaries);
+        entry.setLevel(level, 0, level.length());
+        assertEquals(entry.getCode("level"), 6);
+        return entry;
+    }
+}
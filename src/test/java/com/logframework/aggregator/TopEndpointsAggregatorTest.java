@@ -66,4 +66,46 @@ public class TopEndpointsAggregatorTest {
         ResultDTO result = aggregator.getResult();
         assertEquals(result.getData().size(), 0);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testMergePartialsKeepsTopN() {
+        TopEndpointsAggregator aggregator = new TopEndpointsAggregator();
+        aggregator.setTopN(1);
+        LogAggregator partial1 = aggregator.newPartial();
+        LogAggregator partial2 = aggregator.newPartial();
+
+        LogEntry entry1 = new LogEntry();
+        entry1.addAttribute("path", "/a");
+        partial1.process(entry1);
+
+        LogEntry entry2 = new LogEntry();
+        entry2.addAttribute("path", "/b");
+        partial1.process(entry2);
+        partial2.process(entry2);
+
+        aggregator.merge(partial1);
+        aggregator.merge(partial2);
+
+        ResultDTO result = aggregator.getResult();
+        assertEquals(result.getTitle(), "Top 1 Endpoints");
+        assertEquals(result.getData().size(), 1);
+        assertEquals(result.getData().get(0).get(0), "/b");
+        assertEquals(result.getData().get(0).get(1), "2");
+    }
+
+    @Test
+    public void testTiesAreOrderedByPath() {
+        TopEndpointsAggregator aggregator = new TopEndpointsAggregator();
+        aggregator.setTopN(3);
+        for (String path : new String[]{"/c", "/a", "/b"}) {
+            LogEntry entry = new LogEntry();
+            entry.addAttribute("path", path);
+            aggregator.process(entry);
+        }
+
+        ResultDTO result = aggregator.getResult();
+        assertEquals(result.getData().get(0).get(0), "/a");
+        assertEquals(result.getData().get(1).get(0), "/b");
+        assertEquals(result.getData().get(2).get(0), "/c");
+    }
+}
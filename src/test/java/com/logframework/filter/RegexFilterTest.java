@@ -1,8 +1,15 @@
 package com.logframework.filter;
 
+import com.logframework.model.CompactLogEntry;
+import com.logframework.model.FieldDictionaries;
 import com.logframework.model.LogEntry;
+import com.logframework.parser.ApacheAccessLogParser;
+import com.logframework.parser.SpringBootLogParser;
 import org.testng.annotations.Test;
 
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
 import static org.testng.Assert.*;
 
 public class RegexFilterTest {
@@ -62,4 +69,116 @@ public class RegexFilterTest {
 
         assertTrue(filter.matches(entry)); // Should not filter out anything if not configured
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testMatchBatchKeepsMatchingEntriesInOrder() {
+        RegexFilter filter = new RegexFilter();
+        filter.setField("message");
+        filter.setRegex("error");
+
+        String[] messages = {"error one", "fine", null, "ERROR two", "ok", "last error"};
+        LogEntry[] batch = new LogEntry[messages.length];
+        for (int i = 0; i < messages.length; i++) {
+            batch[i] = new LogEntry();
+            batch[i].setMessage(messages[i]);
+        }
+
+        int matched = filter.matchBatch(batch, batch.length);
+        assertEquals(matched, 3);
+        assertEquals(batch[0].getMessage(), "error one");
+        assertEquals(batch[1].getMessage(), "ERROR two");
+        assertEquals(batch[2].getMessage(), "last error");
+    }
+
+    @Test
+    public void testMatchBatchOnEncodedField() {
+        RegexFilter filter = new RegexFilter();
+        filter.setField("method");
+        filter.setRegex("^(POST|PUT)$");
+
+        String[] methods = {"GET", "POST", "GET", "put", "POST"};
+        FieldDictionaries dictionaries = new FieldDictionaries();
+        LogEntry[] batch = new LogEntry[methods.length + 1];
+        for (int i = 0; i < methods.length; i++) {
+            CompactLogEntry entry = new CompactLogEntry(dictionaries);
+            entry.addAttribute("method", methods[i], 0, methods[i].length());
+            batch[i] = entry;
+        }
+        batch[methods.length] = new LogEntry();
+        batch[methods.length].addAttribute("method", "PUT");
+
+        LogFilter copy = filter.copy();
+        assertNotSame(copy, filter);
+        int matched = copy.matchBatch(batch, batch.length);
+        assertEquals(matched, 4);
+        assertEquals(batch[0].getAttribute("method"), "POST");
+        assertEquals(batch[1].getAttribute("method"), "put");
+        assertEquals(batch[2].getAttribute("method"), "POST");
+        assertEquals(batch[3].getAttribute("method"), "PUT");
+    }
+
+    @Test
+    public void testVerdictsAreKeptPerDictionaries() {
+        RegexFilter filter = new RegexFilter();
+        filter.setField("method");
+        filter.setRegex("POST");
+        CompactLogEntry post = new CompactLogEntry(new FieldDictionaries());
+        post.addAttribute("method", "POST", 0, 4);
+        assertEquals(filter.matchBatch(new LogEntry[]{post}, 1), 1);
+
+        // Another run gives GET the code POST has in the first one
+        CompactLogEntry get = new CompactLogEntry(new FieldDictionaries());
+        get.addAttribute("method", "GET", 0, 3);
+        assertEquals(get.getCode("method"), post.getCode("method"));
+        assertEquals(filter.matchBatch(new LogEntry[]{get}, 1), 0);
+        assertEquals(filter.matchBatch(new LogEntry[]{post, get}, 2), 1);
+    }
+
+    @Test
+    public void testEventPredicateLooksForLiteral() {
+        RegexFilter filter = new RegexFilter();
+        filter.setField("message");
+        filter.setRegex("Timeout");
+        Predicate<CharSequence> predicate = filter.newEventPredicate(new SpringBootLogParser());
+        assertNotNull(predicate);
+        assertTrue(predicate.test("2025-09-18 16:10:00 [main] ERROR com.example.App - Read TIMEOUT"));
+        assertFalse(predicate.test("2025-09-18 16:10:00 [main] INFO com.example.App - Started"));
+
+        filter.setRegex("time.*out");
+        predicate = filter.newEventPredicate(new SpringBootLogParser());
+        assertFalse(predicate.test("2025-09-18 16:10:00 [main] INFO com.example.App - Started"));
+        assertTrue(predicate.test("2025-09-18 16:10:00 [main] INFO com.example.App - Took 3 times"));
+
+        filter.setRegex("\\d+");
+        assertNull(filter.newEventPredicate(new SpringBootLogParser()));
+    }
+
+    @Test
+    public void testNoEventPredicateForDerivedFields() {
+        RegexFilter filter = new RegexFilter();
+        filter.setField("message");
+        filter.setRegex("Status");
+        assertNull(filter.newEventPredicate(new ApacheAccessLogParser())); // The message is built from the request
+
+        filter.setField("path");
+        assertNotNull(filter.newEventPredicate(new ApacheAccessLogParser()));
+        filter.setField("source");
+        assertNull(filter.newEventPredicate(new ApacheAccessLogParser()));
+    }
+
+    @Test
+    public void testLiteralScreeningKeepsRegexResults() {
+        String[] messages = {"Read timeout", "TIME OUT", "Timed out", "NullPointerException", "Fatal ERROR", "ok"};
+        for (String regex : new String[]{".*timeout.*", "Exception|Error", "time.*out", "^fatal"}) {
+            RegexFilter filter = new RegexFilter();
+            filter.setField("message");
+            filter.setRegex(regex);
+            Pattern pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+            for (String message : messages) {
+                LogEntry entry = new LogEntry();
+                entry.setMessage(message);
+                assertEquals(filter.matches(entry), pattern.matcher(message).find(), regex + " on " + message);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.logframework.filter;
+
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.testng.Assert.*;
+
+public class RequiredLiteralsTest {
+
+    private static final List<String> VALUES = List.of(
+            "", "Connection timeout after 30s", "READ TIMEOUT", "time out", "NullPointerException at line 3",
+            "Fatal error", "errors: 0", "GET /api/users", "GET /api/orders?id=7", "a.b", "axb", "Straße", "STRASSE",
+            "ERROR: disk full", "warning", "x+y", "tab\there", "status=500 in 12ms", "user42 logged in");
+
+    @Test
+    public void testLiteralRegexesAreExact() {
+        assertLiterals("timeout", List.of("timeout"), true);
+        assertLiterals(".*timeout.*", List.of("timeout"), true);
+        assertLiterals("Exception|Error", List.of("exception", "error"), true);
+        assertLiterals("(Exception|Error)", List.of("exception", "error"), true);
+        assertLiterals(".*(?:Timeout|Refused).*", List.of("timeout", "refused"), true);
+        assertLiterals("a\\.b", List.of("a.b"), true);
+        assertLiterals("/api/", List.of("/api/"), true);
+    }
+
+    @Test
+    public void testRequiredLiteralsOfOtherRegexes() {
+        assertLiterals("^ERROR:", List.of("error:"), false);
+        assertLiterals("time.*out", List.of("time"), false);
+        assertLiterals("user\\d+ logged in", List.of(" logged in"), false);
+        assertLiterals("status=5\\d\\d", List.of("status=5"), false);
+        assertLiterals("errors?", List.of("error"), false);
+        assertLiterals("x+y", List.of("x"), false);
+        assertLiterals("ab{2}c", List.of("ab"), false);
+        assertLiterals("GET /api/(users|orders)", List.of("get /api/"), false);
+        assertLiterals("\\bwarn(ing)?\\b|fatal", List.of("warn", "fatal"), false);
+        assertLiterals("\\x41BC|\\u0041bc", List.of("bc"), false);
+    }
+
+    @Test
+    public void testRegexesWithoutRequiredLiterals() {
+        assertNull(RequiredLiterals.of(".*"));
+        assertNull(RequiredLiterals.of("\\d+"));
+        assertNull(RequiredLiterals.of("error|\\d+"));
+        assertNull(RequiredLiterals.of("[a-z]+"));
+        assertNull(RequiredLiterals.of("(timeout)?"));
+        assertNull(RequiredLiterals.of("(?-i)Timeout"), "Inline flags are not analyzed");
+        assertNull(RequiredLiterals.of("(?!error)warn"), "Lookarounds are not analyzed");
+        assertNull(RequiredLiterals.of("\\Q.*\\E"));
+        assertNull(RequiredLiterals.of(""));
+    }
+
+    @Test
+    public void testFoundInAgreesWithTheRegex() {
+        List<String> regexes = List.of("timeout", ".*TIMEOUT.*", "Exception|Error", "(Exception|Error)", "a\\.b",
+                "^ERROR:", "time.*out", "user\\d+ logged in", "status=5\\d\\d", "errors?", "x+y", "straße",
+                "GET /api/(users|orders)", "\\bwarn(ing)?\\b|fatal", "in", "out|in|tab");
+        for (String regex : regexes) {
+            Pattern pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+            RequiredLiterals literals = RequiredLiterals.of(regex);
+            assertNotNull(literals, regex);
+            for (String value : VALUES) {
+                boolean matches = pattern.matcher(value).find();
+                boolean found = literals.foundIn(value);
+                if (matches) {
+                    assertTrue(found, regex + " on '" + value + "'");
+                }
+                if (literals.isExact()) {
+                    assertEquals(found, matches, regex + " on '" + value + "'");
+                }
+            }
+        }
+    }
+
+    private static void assertLiterals(String regex, List<String> expected, boolean exact) {
+        RequiredLiterals literals = RequiredLiterals.of(regex);
+        assertNotNull(literals, regex);
+        assertEquals(literals.getLiterals(), expected, regex);
+        assertEquals(literals.isExact(), exact, regex);
+    }
+}
@@ -1,9 +1,12 @@
 package com.logframework.filter;
 
 import com.logframework.model.LogEntry;
+import com.logframework.parser.ApacheAccessLogParser;
+import com.logframework.parser.JsonLogParser;
 import org.testng.annotations.Test;
 
 import java.time.OffsetDateTime;
+import java.util.function.Predicate;
 
 import static org.testng.Assert.*;
 
@@ -78,4 +81,48 @@ public class TimeRangeFilterTest {
 
         assertFalse(filter.matches(entry));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testMatchBatchMatchesSingleEntryChecks() {
+        TimeRangeFilter filter = new TimeRangeFilter();
+        filter.setStartTime("2025-09-18T16:00:00.250Z");
+        filter.setEndTime("2025-09-18T18:00:00Z");
+
+        String[] timestamps = {
+                "2025-09-18T16:00:00.249Z", "2025-09-18T16:00:00.250Z", "2025-09-18T17:00:00+02:00",
+                "2025-09-18T19:30:00+02:00", "2025-09-18T18:00:00Z", "2025-09-18T18:00:00.001Z", null
+        };
+        LogEntry[] batch = new LogEntry[timestamps.length];
+        int expected = 0;
+        for (int i = 0; i < timestamps.length; i++) {
+            batch[i] = new LogEntry();
+            batch[i].setTimestamp(timestamps[i] != null ? OffsetDateTime.parse(timestamps[i]) : null);
+            if (filter.matches(batch[i])) {
+                expected++;
+            }
+        }
+
+        assertEquals(expected, 3);
+        assertEquals(filter.matchBatch(batch, batch.length), expected);
+        assertEquals(batch[0].getTimestamp(), OffsetDateTime.parse("2025-09-18T16:00:00.250Z"));
+        assertEquals(batch[1].getTimestamp(), OffsetDateTime.parse("2025-09-18T19:30:00+02:00"));
+        assertEquals(batch[2].getTimestamp(), OffsetDateTime.parse("2025-09-18T18:00:00Z"));
+    }
+
+    @Test
+    public void testEventPredicateReadsTimestampAhead() {
+        TimeRangeFilter filter = new TimeRangeFilter();
+        filter.setStartTime("2025-09-18T16:00:00.500Z");
+        filter.setEndTime("2025-09-18T18:00:00Z");
+        Predicate<CharSequence> predicate = filter.newEventPredicate(new ApacheAccessLogParser());
+        assertNotNull(predicate);
+        assertFalse(predicate.test("10.0.0.1 - - [18/Sep/2025:15:59:59 +0000] \"GET / HTTP/1.1\" 200 1"));
+        assertTrue(predicate.test("10.0.0.1 - - [18/Sep/2025:16:00:00 +0000] \"GET / HTTP/1.1\" 200 1")); // Boundary second
+        assertTrue(predicate.test("10.0.0.1 - - [18/Sep/2025:19:30:00 +0200] \"GET / HTTP/1.1\" 200 1"));
+        assertFalse(predicate.test("10.0.0.1 - - [18/Sep/2025:18:00:01 +0000] \"GET / HTTP/1.1\" 200 1"));
+        assertTrue(predicate.test("not an access log line"));
+
+        assertNull(filter.newEventPredicate(new JsonLogParser()));
+        assertNull(new TimeRangeFilter().newEventPredicate(new ApacheAccessLogParser()));
+    }
+}
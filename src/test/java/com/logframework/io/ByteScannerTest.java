@@ -0,0 +1,75 @@
+package com.logframework.io;
+
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.testng.Assert.*;
+
+public class ByteScannerTest {
+
+    @Test
+    public void testScannersAgreeWithSimpleLoop() {
+        Random random = new Random(42);
+        byte[] bytes = new byte[301];
+        for (int i = 0; i < bytes.length; i++) {
+            // Mostly letters, some delimiters and a few non-ASCII bytes
+            int r = random.nextInt(100);
+            bytes[i] = r < 3 ? (byte) '\n' : r < 6 ? (byte) '"' : r < 7 ? (byte) 0xC3 : (byte) ('a' + r % 26);
+        }
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes);
+        ByteBuffer[] buffers = {
+                ByteBuffer.wrap(bytes),
+                ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN),
+                direct,
+                direct.duplicate().order(ByteOrder.LITTLE_ENDIAN)
+        };
+        for (ByteScanner scanner : new ByteScanner[] {new SwarByteScanner(), ByteScanner.get()}) {
+            for (ByteBuffer buffer : buffers) {
+                for (int from = 0; from < 70; from += 7) {
+                    for (int to = from; to <= bytes.length; to += 13) {
+                        for (byte value : new byte[] {'\n', '"', (byte) 0xC3, 0}) {
+                            assertEquals(scanner.indexOf(buffer, from, to, value), indexOf(bytes, from, to, value),
+                                    scanner.getName() + " " + from + ".." + to);
+                        }
+                        assertEquals(scanner.isAscii(buffer, from, to), isAscii(bytes, from, to));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testIndexOfInLines() throws Exception {
+        String text = "GET \"/a b\" HTTP/1.1";
+        assertEquals(ByteScanner.indexOf(text, '"', 0, text.length()), 4);
+        assertEquals(ByteScanner.indexOf(text, '"', 5, text.length()), 9);
+        assertEquals(ByteScanner.indexOf(text, '"', 10, text.length()), -1);
+
+        AsciiLine line = new AsciiLine();
+        line.set(ByteBuffer.wrap(("xx" + text).getBytes("US-ASCII")), 2, text.length());
+        assertEquals(ByteScanner.indexOf(line, '"', 5, text.length()), 9);
+        assertEquals(ByteScanner.indexOf(line, '"', 5, 9), -1);
+        assertEquals(ByteScanner.indexOf(line, 'é', 0, text.length()), -1);
+    }
+
+    private static int indexOf(byte[] bytes, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isAscii(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,51 @@
+package com.logframework.io;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.testng.Assert.*;
+
+public class EventBufferTest {
+
+    @Test
+    public void testCopiesEventsOutOfReusedBuffers() throws Exception {
+        String text = "GET \"/a\"\nPOST /b\nGET /café\n";
+        EventBuffer buffer = new EventBuffer(4);
+        try (StreamLineReader reader = new StreamLineReader(
+                new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), 16)) {
+            CharSequence line;
+            while ((line = reader.readLine()) != null) {
+                buffer.add(line);
+            }
+        }
+        StringBuilder reused = new StringBuilder("multi\nline");
+        buffer.add(reused);
+        reused.setLength(0);
+
+        assertTrue(buffer.isFull());
+        CharSequence[] events = buffer.getEvents();
+        assertEquals(events[0].toString(), "GET \"/a\"");
+        assertEquals(ByteScanner.indexOf(events[0], '"', 5, events[0].length()), 7);
+        assertEquals(events[1].toString(), "POST /b");
+        assertEquals(events[2].toString(), "GET /café");
+        assertEquals(events[3].toString(), "multi\nline");
+
+        buffer.clear();
+        assertEquals(buffer.size(), 0);
+        buffer.add("after clear");
+        assertEquals(buffer.getEvents()[0].toString(), "after clear");
+    }
+
+    @Test
+    public void testGrowsForLongEvents() {
+        EventBuffer buffer = new EventBuffer(2);
+        String first = "x".repeat(40_000);
+        String second = "y".repeat(100_000);
+        buffer.add(first);
+        buffer.add(second);
+        assertEquals(buffer.getEvents()[0].toString(), first);
+        assertEquals(buffer.getEvents()[1].toString(), second);
+    }
+}
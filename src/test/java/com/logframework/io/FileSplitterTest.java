@@ -0,0 +1,97 @@
+package com.logframework.io;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.testng.Assert.*;
+
+public class FileSplitterTest {
+
+    private Path logFile;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        logFile = Files.createTempFile("splitter", ".log");
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(logFile);
+    }
+
+    @Test
+    public void testSegmentsEndOnNewlines() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            content.append("line number ").append(i).append('\n');
+        }
+        Files.writeString(logFile, content);
+
+        List<FileSegment> segments = FileSplitter.split(logFile.toString(), 0, 100, null);
+        assertTrue(segments.size() > 1, "File should be split into several segments.");
+
+        long expectedStart = 0;
+        int lineCount = 0;
+        for (FileSegment segment : segments) {
+            assertEquals(segment.getStart(), expectedStart, "Segments should be contiguous.");
+            expectedStart = segment.getEnd();
+            try (LineReader reader = segment.openLineReader()) {
+                CharSequence line;
+                while ((line = reader.readLine()) != null) {
+                    assertEquals(line.toString(), "line number " + lineCount++);
+                }
+            }
+        }
+        assertEquals(expectedStart, Files.size(logFile));
+        assertEquals(lineCount, 100);
+    }
+
+    @Test
+    public void testSegmentsStartOnEventStart() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            content.append("2025-09-18 16:00:0").append(i % 10).append(" [main] ERROR app - failure ").append(i).append('\n');
+            content.append("java.lang.IllegalStateException: boom\n");
+            content.append("\tat com.myapp.Service.run(Service.java:10)\n");
+        }
+        Files.writeString(logFile, content);
+
+        Pattern startPattern = Pattern.compile("^\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2} \\[");
+        List<FileSegment> segments = FileSplitter.split(logFile.toString(), 0, 150,
+                line -> startPattern.matcher(line).find());
+        assertTrue(segments.size() > 1, "File should be split into several segments.");
+
+        for (FileSegment segment : segments) {
+            try (LineReader reader = segment.openLineReader()) {
+                assertTrue(startPattern.matcher(reader.readLine()).find(),
+                        "Every segment should start with an event start line: " + segment);
+            }
+        }
+    }
+
+    @Test
+    public void testSmallFileIsSingleSegment() throws Exception {
+        Files.writeString(logFile, "first\nsecond\n");
+
+        List<FileSegment> segments = FileSplitter.split(logFile.toString(), 6, 1024, null);
+        assertEquals(segments.size(), 1);
+        assertEquals(segments.get(0).getStart(), 6);
+        assertEquals(segments.get(0).getEnd(), 13);
+    }
+
+    @Test
+    public void testReadSample() throws Exception {
+        Files.writeString(logFile, "\n  \r\nbanner line\r\nnext\nlast\n");
+
+        assertEquals(FileSplitter.readSample(logFile.toString(), Long.MAX_VALUE, 2),
+                List.of("", "  ", "banner line", "next"));
+        assertEquals(FileSplitter.readSample(logFile.toString(), 18, 10), List.of("", "  ", "banner line"));
+        assertEquals(FileSplitter.readSample(logFile.toString(), 0, 10), List.of());
+    }
+}
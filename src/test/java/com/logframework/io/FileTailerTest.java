@@ -0,0 +1,98 @@
+package com.logframework.io;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+public class FileTailerTest {
+
+    private Path directory;
+    private Path logFile;
+    private final List<String> events = new ArrayList<>();
+
+    private final FileTailer.Listener listener = new FileTailer.Listener() {
+        @Override
+        public void onLine(CharSequence line) {
+            events.add(line.toString());
+        }
+
+        @Override
+        public void onRestart(String reason) {
+            events.add("<" + reason + ">");
+        }
+    };
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("tailer");
+        logFile = directory.resolve("app.log");
+        events.clear();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private void append(String content) throws Exception {
+        Files.writeString(logFile, content, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Test
+    public void testReadsOnlyAppendedCompleteLines() throws Exception {
+        try (FileTailer tailer = new FileTailer(logFile.toString())) {
+            assertEquals(tailer.poll(listener), 0, "Missing file should be ignored.");
+
+            append("one\ntwo\nthr");
+            tailer.poll(listener);
+            assertEquals(events, List.of("one", "two"));
+            assertEquals(tailer.getPosition(), 8);
+
+            append("ee\nfour\n");
+            tailer.poll(listener);
+            assertEquals(events, List.of("one", "two", "three", "four"));
+
+            assertEquals(tailer.poll(listener), 0);
+        }
+    }
+
+    @Test
+    public void testRestartsAfterTruncation() throws Exception {
+        try (FileTailer tailer = new FileTailer(logFile.toString())) {
+            append("old line one\nold line two\n");
+            tailer.poll(listener);
+
+            Files.writeString(logFile, "new\n");
+            tailer.poll(listener);
+            assertEquals(events, List.of("old line one", "old line two", "<truncated>", "new"));
+        }
+    }
+
+    @Test
+    public void testDrainsOldFileOnRotation() throws Exception {
+        try (FileTailer tailer = new FileTailer(logFile.toString())) {
+            append("first\n");
+            tailer.poll(listener);
+
+            append("last before rotation\npartial");
+            Files.move(logFile, directory.resolve("app.log.1"));
+            append("after rotation\n");
+            tailer.poll(listener);
+
+            assertEquals(events, List.of("first", "last before rotation", "partial", "<rotated>", "after rotation"));
+        }
+    }
+}
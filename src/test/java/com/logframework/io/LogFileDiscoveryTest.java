@@ -0,0 +1,119 @@
+package com.logframework.io;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.*;
+
+public class LogFileDiscoveryTest {
+
+    private Path root;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        root = Files.createTempDirectory("discovery");
+        write("small.log", 10);
+        write("notes.md", 50);
+        write("app/big.log", 300);
+        write("app/old.log.gz", 200);
+        write("app/nested/deeper/medium.txt", 100);
+        write("archive/ancient.log", 400);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private void write(String relative, int size) throws Exception {
+        Path file = root.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[size]);
+    }
+
+    private List<String> relative(List<String> paths) {
+        List<String> relative = new ArrayList<>();
+        for (String path : paths) {
+            relative.add(root.relativize(Path.of(path)).toString().replace('\\', '/'));
+        }
+        return relative;
+    }
+
+    @Test
+    public void testRecursiveLargestFirst() throws Exception {
+        List<String> files = relative(new LogFileDiscovery().discover(root));
+        assertEquals(files, List.of("archive/ancient.log", "app/big.log", "app/old.log.gz",
+                "app/nested/deeper/medium.txt", "small.log"));
+    }
+
+    @Test
+    public void testNonRecursive() throws Exception {
+        LogFileDiscovery discovery = new LogFileDiscovery();
+        discovery.setRecursive(false);
+        assertEquals(relative(discovery.discover(root)), List.of("small.log"));
+    }
+
+    @Test
+    public void testIncludeAndExcludeGlobs() throws Exception {
+        LogFileDiscovery discovery = new LogFileDiscovery();
+        discovery.setIncludes(List.of("*.log", "app/**/*.txt"));
+        discovery.setExcludes(List.of("archive", "big.*"));
+        assertEquals(relative(discovery.discover(root)), List.of("app/nested/deeper/medium.txt", "small.log"));
+    }
+
+    @Test
+    public void testModificationTimeWindow() throws Exception {
+        Instant now = Instant.now();
+        Files.setLastModifiedTime(root.resolve("archive/ancient.log"), FileTime.from(now.minus(Duration.ofDays(30))));
+        Files.setLastModifiedTime(root.resolve("app/big.log"), FileTime.from(now.minus(Duration.ofHours(2))));
+
+        LogFileDiscovery discovery = new LogFileDiscovery();
+        discovery.setMaxAge(Duration.ofDays(1));
+        discovery.setMinAge(Duration.ofHours(1));
+        assertEquals(relative(discovery.discover(root)), List.of("app/big.log"));
+
+        discovery.setMinAge(null);
+        assertFalse(relative(discovery.discover(root)).contains("archive/ancient.log"));
+    }
+
+    @Test
+    public void testParallelWalkFindsEveryFile() throws Exception {
+        for (int d = 0; d < 20; d++) {
+            for (int f = 0; f < 10; f++) {
+                write("many/dir" + d + "/sub/file" + f + ".log", d * 10 + f + 1);
+            }
+        }
+        LogFileDiscovery discovery = new LogFileDiscovery();
+        discovery.setThreads(4);
+        discovery.setIncludes(List.of("many/**"));
+        List<String> files = relative(discovery.discover(root));
+        assertEquals(files.size(), 200);
+        assertEquals(files.get(0), "many/dir19/sub/file9.log");
+        assertEquals(files.get(199), "many/dir0/sub/file0.log");
+    }
+
+    @Test
+    public void testParseDuration() {
+        assertEquals(LogFileDiscovery.parseDuration("90s"), Duration.ofSeconds(90));
+        assertEquals(LogFileDiscovery.parseDuration("15m"), Duration.ofMinutes(15));
+        assertEquals(LogFileDiscovery.parseDuration("24h"), Duration.ofHours(24));
+        assertEquals(LogFileDiscovery.parseDuration("7d"), Duration.ofDays(7));
+        assertEquals(LogFileDiscovery.parseDuration("PT2H"), Duration.ofHours(2));
+        assertNull(LogFileDiscovery.parseDuration(" "));
+    }
+}
@@ -0,0 +1,107 @@
+package com.logframework.io;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.testng.Assert.*;
+
+public class LogInputsTest {
+
+    private Path directory;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("log-inputs");
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private Map<String, List<String>> readSources(Path file) throws Exception {
+        Map<String, List<String>> sources = new LinkedHashMap<>();
+        LogInputs.read(file.toString(), (sourceName, reader) -> {
+            List<String> lines = new ArrayList<>();
+            CharSequence line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line.toString());
+            }
+            sources.put(sourceName, lines);
+        });
+        return sources;
+    }
+
+    private static byte[] gzip(String content) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void testReadsPlainFile() throws Exception {
+        Path file = Files.writeString(directory.resolve("app.log"), "a\nb\n");
+        assertEquals(readSources(file), Map.of(file.toString(), List.of("a", "b")));
+    }
+
+    @Test
+    public void testReadsMultiMemberGzip() throws Exception {
+        Path file = directory.resolve("app.log.gz");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            out.write(gzip("first\nsecond\n"));
+            out.write(gzip("third\n"));
+        }
+        assertEquals(readSources(file), Map.of(file.toString(), List.of("first", "second", "third")));
+    }
+
+    @Test
+    public void testReadsEachZipEntryAsSource() throws Exception {
+        Path file = directory.resolve("bundle.zip");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(file))) {
+            zip.putNextEntry(new ZipEntry("rotated/"));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("rotated/app.log.1"));
+            zip.write("one\ntwo\n".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("rotated/app.log.2.gz"));
+            zip.write(gzip("three\n"));
+            zip.closeEntry();
+        }
+
+        Map<String, List<String>> sources = readSources(file);
+        assertEquals(sources.size(), 2);
+        assertEquals(sources.get(file + "!/rotated/app.log.1"), List.of("one", "two"));
+        assertEquals(sources.get(file + "!/rotated/app.log.2.gz"), List.of("three"));
+    }
+
+    @Test
+    public void testSupportedExtensions() {
+        assertTrue(LogInputs.isSupported(Path.of("logs/access.log")));
+        assertTrue(LogInputs.isSupported(Path.of("logs/access.log.GZ")));
+        assertTrue(LogInputs.isSupported(Path.of("logs/bundle.zip")));
+        assertFalse(LogInputs.isSupported(Path.of("logs/notes.md")));
+        assertTrue(LogInputs.isCompressed("logs/access.log.gz"));
+        assertFalse(LogInputs.isCompressed("logs/access.log"));
+    }
+}
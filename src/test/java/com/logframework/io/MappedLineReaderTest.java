@@ -0,0 +1,101 @@
+package com.logframework.io;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+public class MappedLineReaderTest {
+
+    private Path logFile;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        logFile = Files.createTempFile("mapped", ".log");
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(logFile);
+    }
+
+    private List<String> readAll(MappedLineReader reader) throws Exception {
+        List<String> lines = new ArrayList<>();
+        try (reader) {
+            CharSequence line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line.toString());
+            }
+        }
+        return lines;
+    }
+
+    @Test
+    public void testReadsLinesWithAllTerminators() throws Exception {
+        Files.writeString(logFile, "first\r\nsecond\n\nlast without newline");
+
+        List<String> lines = readAll(new MappedLineReader(logFile.toString()));
+        assertEquals(lines, List.of("first", "second", "", "last without newline"));
+    }
+
+    @Test
+    public void testDecodesUtf8AndReplacesMalformedBytes() throws Exception {
+        byte[] utf8 = "café ok\n".getBytes(StandardCharsets.UTF_8);
+        byte[] malformed = {'b', 'a', 'd', (byte) 0xC3, '\n', 'n', 'e', 'x', 't', '\n'};
+        byte[] content = new byte[utf8.length + malformed.length];
+        System.arraycopy(utf8, 0, content, 0, utf8.length);
+        System.arraycopy(malformed, 0, content, utf8.length, malformed.length);
+        Files.write(logFile, content);
+
+        List<String> lines = readAll(new MappedLineReader(logFile.toString()));
+        assertEquals(lines, List.of("café ok", "bad�", "next"));
+    }
+
+    @Test
+    public void testAsciiViewSupportsSubSequence() throws Exception {
+        Files.writeString(logFile, "GET /api/users HTTP/1.1\n");
+
+        try (MappedLineReader reader = new MappedLineReader(logFile.toString())) {
+            CharSequence line = reader.readLine();
+            assertEquals(line.length(), 23);
+            assertEquals(line.charAt(4), '/');
+            assertEquals(line.subSequence(4, 14).toString(), "/api/users");
+            assertEquals(reader.getPosition(), 24);
+            assertNull(reader.readLine());
+        }
+    }
+
+    @Test
+    public void testLinesAcrossSmallWindows() throws Exception {
+        StringBuilder content = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            String line = "entry-" + i + "-" + "x".repeat(i % 17) + (i % 5 == 0 ? "ü" : "");
+            expected.add(line);
+            content.append(line).append('\n');
+        }
+        Files.writeString(logFile, content);
+
+        assertEquals(readAll(new MappedLineReader(logFile.toString(), 0, Long.MAX_VALUE, 8)), expected);
+    }
+
+    @Test
+    public void testReadsByteRange() throws Exception {
+        Files.writeString(logFile, "one\ntwo\nthree\n");
+
+        List<String> lines = readAll(new MappedLineReader(logFile.toString(), 4, 14));
+        assertEquals(lines, List.of("two", "three"));
+    }
+
+    @Test
+    public void testEmptyFile() throws Exception {
+        assertTrue(readAll(new MappedLineReader(logFile.toString())).isEmpty());
+    }
+}
@@ -0,0 +1,46 @@
+package com.logframework.io;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+public class StreamLineReaderTest {
+
+    private List<String> readAll(String content, int bufferSize) throws Exception {
+        List<String> lines = new ArrayList<>();
+        try (StreamLineReader reader = new StreamLineReader(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), bufferSize)) {
+            CharSequence line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line.toString());
+            }
+        }
+        return lines;
+    }
+
+    @Test
+    public void testReadsLines() throws Exception {
+        assertEquals(readAll("first\r\nsecond\n\nlast", 1024), List.of("first", "second", "", "last"));
+    }
+
+    @Test
+    public void testLinesLongerThanBuffer() throws Exception {
+        String longLine = "ö".repeat(40) + "x".repeat(100);
+        assertEquals(readAll("a\n" + longLine + "\nb\n", 16), List.of("a", longLine, "b"));
+    }
+
+    @Test
+    public void testPositionCountsConsumedBytes() throws Exception {
+        try (StreamLineReader reader = new StreamLineReader(
+                new ByteArrayInputStream("one\ntwo\nthree\n".getBytes(StandardCharsets.UTF_8)), 4)) {
+            reader.readLine();
+            reader.readLine();
+            assertEquals(reader.getPosition(), 8);
+        }
+    }
+}
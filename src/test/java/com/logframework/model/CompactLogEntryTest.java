@@ -0,0 +1,98 @@
+package com.logframework.model;
+
+import org.testng.annotations.Test;
+
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+public class CompactLogEntryTest {
+
+    @Test
+    public void testTimestampAsNumbers() {
+        CompactLogEntry entry = new CompactLogEntry();
+        assertFalse(entry.hasTimestamp());
+        assertNull(entry.getTimestamp());
+
+        OffsetDateTime timestamp = OffsetDateTime.parse("2025-09-18T16:10:00.250+02:00");
+        entry.setTimestamp(timestamp);
+        assertTrue(entry.hasTimestamp());
+        assertEquals(entry.getTimestamp(), timestamp);
+        assertEquals(entry.getEpochSecond(), timestamp.toEpochSecond());
+        assertEquals(entry.getNano(), 250_000_000);
+        assertEquals(entry.getOffsetSeconds(), 7200);
+    }
+
+    @Test
+    public void testTypedSlotsBehaveLikeAttributes() {
+        CompactLogEntry entry = new CompactLogEntry();
+        entry.setStatus(503);
+        entry.setSize(6568);
+        entry.setPath("/api/orders");
+        entry.addAttribute("method", "GET");
+
+        assertEquals(entry.getAttribute("status"), 503);
+        assertEquals(entry.getAttribute("size"), 6568);
+        assertEquals(entry.getAttribute("path"), "/api/orders");
+        assertEquals(entry.getAttribute("method"), "GET");
+        assertNull(entry.getAttribute("referrer"));
+
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("status", 503);
+        expected.put("size", 6568);
+        expected.put("path", "/api/orders");
+        expected.put("method", "GET");
+        assertEquals(entry.getAttributes(), expected);
+        assertEquals(expected, entry.getAttributes());
+    }
+
+    @Test
+    public void testValuesKeepTheirType() {
+        CompactLogEntry entry = new CompactLogEntry();
+        entry.setSize(5_000_000_000L);
+        assertEquals(entry.getAttribute("size"), 5_000_000_000L);
+
+        entry.addAttribute("size", 12L);
+        assertEquals(entry.getAttribute("size"), 12L);
+        assertEquals(entry.getSize(), 12);
+
+        // Values the slots cannot hold are kept as they are
+        entry.addAttribute("status", "-");
+        assertEquals(entry.getAttribute("status"), "-");
+        assertEquals(entry.getStatus(), -1);
+        entry.addAttribute("status", 200);
+        assertEquals(entry.getAttribute("status"), 200);
+        assertEquals(entry.getAttributes().size(), 2);
+    }
+
+    @Test
+    public void testAttributeMapIsLive() {
+        CompactLogEntry entry = new CompactLogEntry();
+        Map<String, Object> attributes = entry.getAttributes();
+        attributes.put("path", "/a");
+        attributes.put("thread", "main");
+        attributes.put("logger", "com.example.App");
+        attributes.put("multiline", true);
+        attributes.put("empty", null);
+
+        assertEquals(entry.getPath(), "/a");
+        assertTrue(attributes.containsKey("empty"));
+        assertEquals(attributes.remove("thread"), "main");
+        assertEquals(attributes.keySet().toString(), "[path, logger, multiline, empty]");
+
+        for (Iterator<String> keys = attributes.keySet().iterator(); keys.hasNext(); ) {
+            if (!keys.next().equals("logger")) {
+                keys.remove();
+            }
+        }
+        assertEquals(attributes, Map.of("logger", "com.example.App"));
+        assertNull(entry.getPath());
+
+        entry.setAttributes(Map.of("status", 404));
+        assertEquals(entry.getStatus(), 404);
+        assertEquals(attributes.size(), 1);
+    }
+}
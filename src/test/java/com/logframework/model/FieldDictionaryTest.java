@@ -0,0 +1,92 @@
+package com.logframework.model;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.testng.Assert.*;
+
+public class FieldDictionaryTest {
+
+    @Test
+    public void testEncodesValuesToStableCodes() {
+        FieldDictionaries dictionaries = new FieldDictionaries();
+        FieldDictionary dictionary = dictionaries.forField("thread");
+        int main = dictionary.encode("[main]", 1, 5);
+        int worker = dictionary.encode("worker-1");
+
+        assertNotEquals(main, worker);
+        assertEquals(dictionary.encode("main"), main);
+        assertEquals(dictionary.value(main), "main");
+        assertSame(dictionary.value(dictionary.encode(new StringBuilder("main"))), dictionary.value(main));
+        assertSame(dictionaries.forField("thread"), dictionary);
+    }
+
+    @Test
+    public void testOnlyLowCardinalityFieldsAreEncoded() {
+        FieldDictionaries dictionaries = new FieldDictionaries();
+        assertTrue(FieldDictionary.isEncoded("level"));
+        assertTrue(FieldDictionary.isEncoded("method"));
+        assertFalse(FieldDictionary.isEncoded("path"));
+        assertNull(dictionaries.forField("message"));
+        assertSame(dictionaries.forField("level"), dictionaries.getLevel());
+        assertEquals(dictionaries.forField("method").getField(), "method");
+    }
+
+    @Test
+    public void testStopsGrowingWhenFull() {
+        FieldDictionary dictionary = new FieldDictionaries().forField("logger");
+        for (int i = 0; i < FieldDictionary.MAX_VALUES; i++) {
+            dictionary.encode("com.example.Class" + i);
+        }
+        assertEquals(dictionary.encode("one.more.Logger"), -1);
+        assertEquals(dictionary.size(), FieldDictionary.MAX_VALUES);
+    }
+
+    @Test
+    public void testRunsHaveTheirOwnValuesButShareStandardLevels() {
+        FieldDictionaries first = new FieldDictionaries();
+        FieldDictionaries second = new FieldDictionaries();
+        first.forField("thread").encode("pool-1-thread-1");
+        first.getLevel().encode("NOTICE");
+
+        assertEquals(second.forField("thread").size(), 0);
+        assertEquals(second.getLevel().size(), FieldDictionary.STANDARD_LEVELS.size());
+        assertEquals(second.forField("thread").encode("main"), 0);
+        for (String level : FieldDictionary.STANDARD_LEVELS) {
+            assertEquals(second.getLevel().encode(level), first.getLevel().encode(level));
+            assertEquals(first.getLevel().encode(level), FieldDictionary.STANDARD_LEVELS.indexOf(level));
+        }
+    }
+
+    @Test
+    public void testConcurrentEncodingAgreesOnCodes() throws Exception {
+        FieldDictionary dictionary = new FieldDictionaries().forField("protocol");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(executor.submit(() -> {
+                    int[] codes = new int[200];
+                    for (int i = 0; i < codes.length; i++) {
+                        codes[i] = dictionary.encode("HTTP/" + i);
+                    }
+                    return codes;
+                }));
+            }
+            int[] first = results.get(0).get();
+            for (Future<int[]> result : results) {
+                assertEquals(result.get(), first);
+            }
+            for (int i = 0; i < first.length; i++) {
+                assertEquals(dictionary.value(first[i]), "HTTP/" + i);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.logframework.model;
+
+import org.testng.annotations.Test;
+
+import java.time.OffsetDateTime;
+
+import static org.testng.Assert.*;
+
+public class LogBatchTest {
+
+    @Test
+    public void testColumnsHoldTheEntry() {
+        FieldDictionaries dictionaries = new FieldDictionaries();
+        CompactLogEntry entry = new CompactLogEntry(dictionaries);
+        OffsetDateTime timestamp = OffsetDateTime.parse("2025-09-18T16:10:00.250+02:00");
+        entry.setTimestamp(timestamp);
+        entry.setLevel("ERROR", 0, 5);
+        entry.addAttribute("method", "GET", 0, 3);
+        entry.setStatus(503);
+        entry.setSize(6568);
+        entry.setPath("/api/orders");
+        entry.setMessage("GET /api/orders - Status 503");
+        entry.setSource("access.log");
+
+        LogBatch batch = new LogBatch(4);
+        int row = batch.add(entry);
+        entry.reset();
+        batch.add(entry);
+
+        assertEquals(batch.getTimestamp(row), timestamp);
+        assertEquals(batch.getEpochSecond(row), timestamp.toEpochSecond());
+        assertEquals(batch.getLevel(row), "ERROR");
+        assertSame(batch.getDictionaries(), dictionaries);
+        assertEquals(dictionaries.getLevel().value(batch.getLevelCode(row)), "ERROR");
+        assertEquals(batch.getMethod(row), "GET");
+        assertTrue(batch.getMethodCode(row) >= 0);
+        assertEquals(batch.getStatus(row), 503);
+        assertEquals(batch.getSize(row), 6568);
+        assertEquals(batch.getSource(row), "access.log");
+
+        LogBatch.Text text = new LogBatch.Text();
+        assertTrue(batch.getPath(row, text));
+        assertEquals(text.toString(), "/api/orders");
+        assertTrue(batch.getMessage(row, text));
+        assertEquals(text.toString(), "GET /api/orders - Status 503");
+
+        // The reset entry has no fields
+        assertFalse(batch.hasTimestamp(1));
+        assertNull(batch.getLevel(1));
+        assertEquals(batch.getLevelCode(1), -1);
+        assertEquals(batch.getStatus(1), -1);
+        assertFalse(batch.getPath(1, text));
+        assertFalse(batch.getMessage(1, text));
+
+        // Codes of other dictionaries mean other values in this batch
+        CompactLogEntry other = new CompactLogEntry(new FieldDictionaries());
+        other.setLevel("ERROR", 0, 5);
+        int otherRow = batch.add(other);
+        assertEquals(batch.getLevel(otherRow), "ERROR");
+        assertEquals(batch.getLevelCode(otherRow), -1);
+
+        batch.clear();
+        assertNull(batch.getDictionaries());
+    }
+
+    @Test
+    public void testSelectionAndClear() {
+        LogBatch batch = new LogBatch(3);
+        for (String level : new String[] {"INFO", "WARN", "ERROR"}) {
+            LogEntry entry = new LogEntry();
+            entry.setLevel(level);
+            entry.setMessage(level.toLowerCase() + " message");
+            batch.add(entry);
+        }
+        assertTrue(batch.isFull());
+        assertEquals(batch.getSelectedCount(), 3);
+        assertEquals(batch.getSelection()[2], 2);
+
+        batch.getSelection()[0] = 2;
+        batch.setSelectedCount(1);
+        assertEquals(batch.getLevel(batch.getSelection()[0]), "ERROR");
+
+        batch.clear();
+        assertEquals(batch.size(), 0);
+        assertEquals(batch.getSelectedCount(), 0);
+        assertThrows(IllegalStateException.class, () -> {
+            for (int i = 0; i < 4; i++) {
+                batch.add(new LogEntry());
+            }
+        });
+    }
+}
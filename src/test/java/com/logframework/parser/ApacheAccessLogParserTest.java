@@ -0,0 +1,117 @@
+package com.logframework.parser;
+
+import com.logframework.model.LogEntry;
+import org.testng.annotations.Test;
+
+import java.time.OffsetDateTime;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.testng.Assert.*;
+
+public class ApacheAccessLogParserTest {
+
+    private static final String COMBINED = "192.168.2.243 - frank [18/Sep/2025:16:10:00 +0200] "
+            + "\"GET /api/orders?id=1 HTTP/1.1\" 503 6568 \"https://example.com/shop?q=a b\" \"curl/7.68.0 (x)\"";
+
+    private final ApacheAccessLogParser parser = new ApacheAccessLogParser();
+
+    @Test
+    public void testCombinedFormat() {
+        assertTrue(parser.canParse(COMBINED));
+        LogEntry entry = parser.parse(COMBINED);
+
+        assertEquals(entry.getTimestamp(), OffsetDateTime.parse("2025-09-18T16:10:00+02:00"));
+        assertEquals(entry.getLevel(), "ERROR");
+        assertEquals(entry.getMessage(), "GET /api/orders?id=1 - Status 503");
+        assertEquals(entry.getAttributes().get("ip"), "192.168.2.243");
+        assertEquals(entry.getAttributes().get("method"), "GET");
+        assertEquals(entry.getAttributes().get("path"), "/api/orders?id=1");
+        assertEquals(entry.getAttributes().get("protocol"), "HTTP/1.1");
+        assertEquals(entry.getAttributes().get("status"), 503);
+        assertEquals(entry.getAttributes().get("size"), 6568);
+        assertEquals(entry.getAttributes().get("referrer"), "https://example.com/shop?q=a b");
+        assertEquals(entry.getAttributes().get("userAgent"), "curl/7.68.0 (x)");
+        assertFalse(entry.getAttributes().containsKey("vhost"));
+        assertFalse(entry.getAttributes().containsKey("responseTimeMicros"));
+    }
+
+    @Test
+    public void testCommonFormatWithoutSize() {
+        LogEntry entry = parser.parse("10.0.0.1 - - [18/Sep/2025:16:10:00 +0000] \"POST /login HTTP/1.0\" 404 -");
+
+        assertEquals(entry.getLevel(), "WARN");
+        assertEquals(entry.getAttributes().get("size"), 0);
+        assertEquals(entry.getAttributes().get("protocol"), "HTTP/1.0");
+        assertFalse(entry.getAttributes().containsKey("referrer"));
+        assertFalse(entry.getAttributes().containsKey("userAgent"));
+    }
+
+    @Test
+    public void testVhostAndResponseTime() {
+        LogEntry entry = parser.parse("shop.example.com:443 " + COMBINED + " 1532");
+
+        assertEquals(entry.getAttributes().get("vhost"), "shop.example.com:443");
+        assertEquals(entry.getAttributes().get("ip"), "192.168.2.243");
+        assertEquals(entry.getAttributes().get("responseTimeMicros"), 1532);
+        assertEquals(entry.getAttributes().get("userAgent"), "curl/7.68.0 (x)");
+
+        entry = parser.parse("10.0.0.1 - - [18/Sep/2025:16:10:00 +0000] \"GET / HTTP/1.1\" 200 12 87\r");
+        assertEquals(entry.getAttributes().get("responseTimeMicros"), 87);
+        assertEquals(entry.getAttributes().get("path"), "/");
+    }
+
+    @Test
+    public void testPathEndsAtFirstProtocol() {
+        LogEntry entry = parser.parse("10.0.0.1 - - [18/Sep/2025:16:10:00 +0000] "
+                + "\"GET /a b HTTP/1.1\" 200 1 \"-\" \"-\"");
+        assertEquals(entry.getAttributes().get("path"), "/a b");
+        assertEquals(entry.getAttributes().get("referrer"), "-");
+    }
+
+    @Test
+    public void testRejectsOtherFormats() {
+        assertFalse(parser.canParse(""));
+        assertFalse(parser.canParse("2025-01-01 10:00:00 [main] INFO com.example.App - Started"));
+        assertFalse(parser.canParse("{\"level\":\"INFO\"}"));
+        assertFalse(parser.canParse("10.0.0.1 - [18/Sep/2025:16:10:00 +0000] \"GET / HTTP/1.1\" 200 1"));
+        assertFalse(parser.canParse("10.0.0.1 - - [18/Sep/2025:16:10:00 +0000] \"get / HTTP/1.1\" 200 1"));
+        assertFalse(parser.canParse("10.0.0.1 - - [18/Sep/2025:16:10:00 +0000] \"GET / HTTP/1.1\" 20 1"));
+        assertFalse(parser.canParse("10.0.0.1 - - [18/Sep/2025:16:10:00 +0000] \"GET / HTTP/1.1\" 200 1 \"-\""));
+        assertNull(parser.parse("10.0.0.1 - - [18/Sep/2025:16:10:00] \"GET / HTTP/1.1\" 200 1"));
+    }
+
+    @Test
+    public void testExtractsOnlyRequiredFields() {
+        ApacheAccessLogParser projected = new ApacheAccessLogParser();
+        projected.setRequiredFields(Set.of("path", "level"));
+        LogEntry entry = projected.parse(COMBINED);
+
+        assertEquals(entry.getLevel(), "ERROR");
+        assertEquals(entry.getAttributes().keySet(), Set.of("path"));
+        assertNull(entry.getTimestamp());
+        assertNull(entry.getMessage());
+
+        projected.setRequiredFields(Set.of("message"));
+        entry = projected.parse(COMBINED);
+        assertEquals(entry.getMessage(), "GET /api/orders?id=1 - Status 503");
+    }
+
+    @Test
+    public void testTimestampCacheCarriesOverBetweenCalls() throws Exception {
+        String template = "10.0.0.1 - - [%s] \"GET / HTTP/1.1\" 200 1";
+        assertEquals(parser.parse(String.format(template, "18/Sep/2025:16:10:00 +0200")).getTimestamp(),
+                OffsetDateTime.parse("2025-09-18T16:10:00+02:00"));
+        assertEquals(parser.parse(String.format(template, "18/Sep/2025:16:10:07 +0200")).getTimestamp(),
+                OffsetDateTime.parse("2025-09-18T16:10:07+02:00"));
+        assertEquals(parser.parse(String.format(template, "18/Sep/2025:16:11:07 +0000")).getTimestamp(),
+                OffsetDateTime.parse("2025-09-18T16:11:07Z"));
+
+        // Another thread decodes with its own cache
+        LogEntry other = CompletableFuture.supplyAsync(
+                () -> parser.parse(String.format(template, "19/Sep/2025:01:02:03 +0000"))).get();
+        assertEquals(other.getTimestamp(), OffsetDateTime.parse("2025-09-19T01:02:03Z"));
+        assertEquals(parser.parse(String.format(template, "18/Sep/2025:16:11:07 +0000")).getTimestamp(),
+                OffsetDateTime.parse("2025-09-18T16:11:07Z"));
+    }
+}
@@ -0,0 +1,113 @@
+package com.logframework.parser;
+
+import com.logframework.model.FieldDictionaries;
+import com.logframework.model.LogEntry;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+public class FormatDetectorTest {
+
+    private static final String APACHE =
+            "10.0.0.1 - - [18/Sep/2025:16:10:00 +0000] \"GET /api/users HTTP/1.1\" 500 512";
+    private static final String JSON =
+            "{\"timestamp\":\"2025-01-01T10:00:00Z\",\"level\":\"WARN\",\"message\":\"Slow query\"}";
+    private static final String SPRING = "2025-01-01 10:00:00 [main] INFO com.example.App - Started";
+
+    private final JsonLogParser json = new JsonLogParser();
+    private final ApacheAccessLogParser apache = new ApacheAccessLogParser();
+    private final SpringBootLogParser spring = new SpringBootLogParser();
+    private final FormatDetector detector = new FormatDetector(List.of(json, apache, spring));
+
+    @Test
+    public void testSkipsBannerLines() {
+        assertSame(detector.detect(null, List.of("", "=== access log of web-1 ===", APACHE, APACHE)), apache);
+        assertNull(detector.detect(null, List.of("banner", "  ")));
+    }
+
+    @Test
+    public void testUniformSampleSelectsParserDirectly() {
+        assertSame(detector.detect(null, List.of(SPRING, "java.lang.IllegalStateException: boom",
+                "\tat com.example.App.main(App.java:10)", SPRING)), spring);
+    }
+
+    @Test
+    public void testMixedSampleRoutesPerEvent() {
+        LogParser parser = detector.detect(null, List.of(APACHE, JSON, APACHE));
+
+        assertTrue(parser instanceof RoutingParser);
+        assertEquals(((RoutingParser) parser).getMembers(), List.of(apache, json));
+        assertEquals(parser.parse(JSON).getLevel(), "WARN");
+        assertEquals(parser.parse(APACHE).getLevel(), "ERROR");
+        assertNull(parser.parse("not a log line"));
+
+        CharSequence[] events = {APACHE, JSON, "garbage", APACHE};
+        LogEntry[] entries = new LogEntry[events.length];
+        parser.parseBatch(events, events.length, entries, new FieldDictionaries());
+        assertEquals(entries[0].getAttributes().get("path"), "/api/users");
+        assertEquals(entries[1].getMessage(), "Slow query");
+        assertNull(entries[2]);
+        assertEquals(entries[3].getLevel(), "ERROR");
+    }
+
+    @Test
+    public void testMixedMultiLineStartsEventAtOtherFormat() {
+        LogParser parser = detector.detect(null, List.of(SPRING, JSON, SPRING));
+
+        assertTrue(parser.isMultiLine());
+        var startLine = parser.getStartLinePredicate();
+        assertTrue(startLine.test(SPRING));
+        assertTrue(startLine.test(JSON));
+        assertFalse(startLine.test("\tat com.example.App.main(App.java:10)"));
+    }
+
+    @Test
+    public void testCachesDecisionBySignature() {
+        FormatDetector cached = new FormatDetector(List.of(json, apache, spring));
+        LogParser first = cached.detect("/var/log/app-2025-01-01.log", List.of(JSON, APACHE));
+        assertTrue(first instanceof RoutingParser);
+
+        // Same signature and a line the cached router accepts: the decision is reused
+        assertSame(cached.detect("/var/log/app-2025-01-02.log.gz", List.of(APACHE)), first);
+
+        // The cached decision does not fit, so the file is detected again
+        assertSame(cached.detect("/var/log/app-2025-01-03.log", List.of(SPRING)), spring);
+    }
+
+    @Test
+    public void testCachedSingleFormatIsDetectedAgainWhenSampleMixes() {
+        FormatDetector cached = new FormatDetector(List.of(json, apache, spring));
+        assertSame(cached.detect("/logs/app-2025-01-01.log", List.of(JSON, JSON)), json);
+
+        // The cached JSON parser accepts one line, but the Spring Boot lines would be dropped
+        LogParser parser = cached.detect("/logs/app-2025-01-02.log", List.of(SPRING, SPRING, SPRING, JSON));
+        assertTrue(parser instanceof RoutingParser);
+        assertEquals(((RoutingParser) parser).getMembers(), List.of(spring, json));
+
+        // Lines no parser claims do not invalidate the cached decision
+        assertSame(cached.detect("/logs/app-2025-01-03.log", List.of("banner", SPRING, JSON)), parser);
+    }
+
+    @Test
+    public void testSignature() {
+        assertEquals(FormatDetector.signature("/var/log/app-2025-01-01.log.gz"), "/var/log/app-#-#-#.log");
+        assertEquals(FormatDetector.signature("/var/log/access.log.12"), "/var/log/access.log");
+        assertEquals(FormatDetector.signature("/tmp/logs.zip!/web/access.log"), "web/access.log");
+    }
+
+    @Test
+    public void testPrefixTestsAcceptWhatParsersAccept() {
+        for (String line : List.of(APACHE, JSON, SPRING, "  " + JSON)) {
+            for (LogParser parser : List.of(json, apache, spring)) {
+                if (parser.canParse(line)) {
+                    assertTrue(parser.mightParse(line), parser.getParserName() + " rejects " + line);
+                }
+            }
+        }
+        assertFalse(json.mightParse(APACHE));
+        assertFalse(spring.mightParse(APACHE));
+        assertFalse(apache.mightParse(JSON));
+    }
+}
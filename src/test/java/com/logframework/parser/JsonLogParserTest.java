@@ -0,0 +1,62 @@
+package com.logframework.parser;
+
+import com.logframework.model.LogEntry;
+import org.testng.annotations.Test;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.Set;
+
+import static org.testng.Assert.*;
+
+public class JsonLogParserTest {
+
+    private static final String RECORD = "{ \"timestamp\": \"2025-09-18T16:15:01.123Z\", \"level\": \"INFO\", "
+            + "\"message\": \"Started\", \"pid\": 4567, \"ratio\": 0.5, \"ok\": true, \"user\": null, "
+            + "\"context\": {\"a\": [1, 2]}, \"tags\": [\"x\"], \"host\": \"app-01\" }";
+
+    @Test
+    public void testParsesAllFields() {
+        JsonLogParser parser = new JsonLogParser();
+        assertTrue(parser.canParse(RECORD));
+        LogEntry entry = parser.parse(RECORD);
+
+        assertEquals(entry.getTimestamp(), OffsetDateTime.parse("2025-09-18T16:15:01.123Z"));
+        assertEquals(entry.getLevel(), "INFO");
+        assertEquals(entry.getMessage(), "Started");
+        // Values are kept as text like JsonNode.asText() did
+        assertEquals(entry.getAttributes().get("pid"), "4567");
+        assertEquals(entry.getAttributes().get("ratio"), "0.5");
+        assertEquals(entry.getAttributes().get("ok"), "true");
+        assertEquals(entry.getAttributes().get("user"), "null");
+        assertEquals(entry.getAttributes().get("context"), "");
+        assertEquals(entry.getAttributes().get("tags"), "");
+        assertEquals(entry.getAttributes().get("host"), "app-01");
+        assertEquals(entry.getAttributes().size(), 7);
+    }
+
+    @Test
+    public void testSkipsFieldsOutsideProjection() {
+        JsonLogParser parser = new JsonLogParser();
+        parser.setRequiredFields(Set.of("level", "host"));
+        LogEntry entry = parser.parse(RECORD);
+
+        assertEquals(entry.getLevel(), "INFO");
+        assertNull(entry.getTimestamp());
+        assertNull(entry.getMessage());
+        assertEquals(entry.getAttributes(), Map.of("host", "app-01"));
+
+        parser.setRequiredFields(null);
+        assertEquals(parser.parse(RECORD).getAttributes().size(), 7);
+    }
+
+    @Test
+    public void testRejectsInvalidRecords() {
+        JsonLogParser parser = new JsonLogParser();
+        assertFalse(parser.canParse("{\"level\": \"INFO\""));
+        assertFalse(parser.canParse("[1, 2]"));
+        assertFalse(parser.canParse("2025-01-01 10:00:00 [main] INFO com.example.App - Started"));
+        assertNull(parser.parse("{\"level\": \"INFO\", \"timestamp\": \"yesterday\"}"));
+        assertNull(parser.parse("{\"level\": "));
+    }
+}
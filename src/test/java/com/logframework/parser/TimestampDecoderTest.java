@@ -0,0 +1,71 @@
+package com.logframework.parser;
+
+import org.testng.annotations.Test;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+
+import static org.testng.Assert.*;
+
+public class TimestampDecoderTest {
+
+    private static void assertDecodesLikeFormatter(TimestampDecoder decoder, String text) {
+        OffsetDateTime expected = decoder.getLayout() == TimestampDecoder.Layout.LOCAL_UTC
+                ? LocalDateTime.parse(text, decoder.getLayout().getFormatter()).atOffset(ZoneOffset.UTC)
+                : OffsetDateTime.parse(text, decoder.getLayout().getFormatter());
+        assertEquals(decoder.decode(text), expected, text);
+    }
+
+    @Test
+    public void testIsoOffset() {
+        TimestampDecoder decoder = new TimestampDecoder(TimestampDecoder.Layout.ISO_OFFSET);
+        assertDecodesLikeFormatter(decoder, "2025-01-01T10:00:00Z");
+        assertDecodesLikeFormatter(decoder, "2025-01-01T10:00:01.5Z");
+        assertDecodesLikeFormatter(decoder, "2025-01-01T10:00:01.123456789+05:30");
+        assertDecodesLikeFormatter(decoder, "2025-01-01T10:00:01-08:00");
+        assertDecodesLikeFormatter(decoder, "2024-02-29T23:59:59Z");
+        // Forms only the formatter handles
+        assertDecodesLikeFormatter(decoder, "2025-01-01T10:00Z");
+        assertDecodesLikeFormatter(decoder, "2025-01-01t10:00:00Z");
+    }
+
+    @Test
+    public void testApache() {
+        TimestampDecoder decoder = new TimestampDecoder(TimestampDecoder.Layout.APACHE);
+        assertDecodesLikeFormatter(decoder, "18/Sep/2025:16:10:00 +0000");
+        assertDecodesLikeFormatter(decoder, "18/Sep/2025:16:10:07 +0000");
+        assertDecodesLikeFormatter(decoder, "18/Sep/2025:16:10:07 -0130");
+        assertDecodesLikeFormatter(decoder, "01/Dec/1999:00:00:00 +1400");
+    }
+
+    @Test
+    public void testLocalUtc() {
+        TimestampDecoder decoder = new TimestampDecoder(TimestampDecoder.Layout.LOCAL_UTC);
+        assertDecodesLikeFormatter(decoder, "2025-01-01 10:00:00");
+        assertDecodesLikeFormatter(decoder, "2025-01-01 10:59:59");
+        assertDecodesLikeFormatter(decoder, "2025-12-31 23:00:00");
+    }
+
+    @Test
+    public void testReusesValueWithinSecond() {
+        TimestampDecoder decoder = new TimestampDecoder(TimestampDecoder.Layout.APACHE);
+        OffsetDateTime first = decoder.decode("[18/Sep/2025:16:10:00 +0000]", 1, 27);
+        assertSame(decoder.decode("18/Sep/2025:16:10:00 +0000"), first);
+        assertNotEquals(decoder.decode("18/Sep/2025:16:10:00 +0100"), first);
+        assertEquals(decoder.decode("18/Sep/2025:16:11:00 +0000"), first.plusMinutes(1));
+    }
+
+    @Test
+    public void testInvalidTimestampsFail() {
+        TimestampDecoder decoder = new TimestampDecoder(TimestampDecoder.Layout.ISO_OFFSET);
+        decoder.decode("2025-02-28T10:00:00Z");
+        assertThrows(DateTimeParseException.class, () -> decoder.decode("2025-02-30T10:00:00Z"));
+        assertThrows(DateTimeParseException.class, () -> decoder.decode("2025-02-28T10:00:61Z"));
+        assertThrows(DateTimeParseException.class, () -> decoder.decode("2025-02-28T10:00:00"));
+        assertThrows(DateTimeParseException.class, () -> decoder.decode("not a timestamp"));
+        assertThrows(DateTimeParseException.class,
+                () -> new TimestampDecoder(TimestampDecoder.Layout.APACHE).decode("18/Sept/2025:16:10:00 +0000"));
+    }
+}
@@ -0,0 +1,172 @@
+package com.logframework.parser.format;
+
+import com.logframework.model.LogEntry;
+import com.logframework.parser.ApacheAccessLogParser;
+import com.logframework.parser.LogParser;
+import com.logframework.pipeline.SourceProcessor;
+import org.testng.annotations.Test;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+import static org.testng.Assert.*;
+
+public class LogFormatCompilerTest {
+
+    private static final String NGINX_COMBINED = "$remote_addr - $remote_user [$time_local] \"$request\" "
+            + "$status $body_bytes_sent \"$http_referer\" \"$http_user_agent\" $request_time";
+    private static final String NGINX_LINE = "10.0.0.1 - alice [18/Sep/2025:16:10:00 +0200] \"GET /api/users?id=1 HTTP/1.1\" "
+            + "503 512 \"-\" \"curl/7.68.0 (x86_64)\" 0.042";
+
+    private static final String LOGBACK = "%d{yyyy-MM-dd HH:mm:ss.SSS} [%15.15thread] %-5level %logger{36} - %msg%n";
+
+    @Test
+    public void testNginxFieldsAreTyped() {
+        CompiledFormatParser parser = LogFormatCompiler.compile("nginx", NGINX_COMBINED, false);
+        assertTrue(parser.canParse(NGINX_LINE));
+        LogEntry entry = parser.parse(NGINX_LINE);
+
+        assertEquals(entry.getTimestamp(), OffsetDateTime.parse("2025-09-18T16:10:00+02:00"));
+        assertEquals(entry.getLevel(), "ERROR", "The level is derived from the status");
+        assertEquals(entry.getMessage(), NGINX_LINE);
+        assertEquals(entry.getAttributes().get("remote_addr"), "10.0.0.1");
+        assertEquals(entry.getAttributes().get("remote_user"), "alice");
+        assertEquals(entry.getAttributes().get("method"), "GET");
+        assertEquals(entry.getAttributes().get("path"), "/api/users?id=1");
+        assertEquals(entry.getAttributes().get("protocol"), "HTTP/1.1");
+        assertEquals(entry.getAttributes().get("status"), 503);
+        assertEquals(entry.getAttributes().get("body_bytes_sent"), 512L);
+        assertEquals(entry.getAttributes().get("http_user_agent"), "curl/7.68.0 (x86_64)");
+        assertEquals(entry.getAttributes().get("request_time"), 0.042);
+    }
+
+    @Test
+    public void testNginxRejectsOtherLines() {
+        CompiledFormatParser parser = LogFormatCompiler.compile("nginx", NGINX_COMBINED, false);
+        assertFalse(parser.canParse(NGINX_LINE.replace(" 503 ", " abc ")), "status must be a number");
+        assertFalse(parser.canParse(NGINX_LINE.replace("18/Sep", "18/Foo")), "the timestamp must be valid");
+        assertFalse(parser.canParse(NGINX_LINE + " extra"));
+        assertFalse(parser.canParse("2025-01-01 10:00:00 [main] INFO com.example.App - Started"));
+        assertFalse(parser.canParse(""));
+        assertNull(parser.parse("{\"level\":\"INFO\"}"));
+    }
+
+    @Test
+    public void testVerbatimFieldsAndTimestampReader() {
+        CompiledFormatParser parser = LogFormatCompiler.compile("nginx", NGINX_COMBINED, false);
+        assertTrue(parser.isVerbatim("http_user_agent"));
+        assertTrue(parser.isVerbatim("path"));
+        assertTrue(parser.isVerbatim("message"));
+        assertFalse(parser.isVerbatim("status"));
+        assertFalse(parser.isVerbatim("level"), "The level is derived from the status");
+
+        ToLongFunction<CharSequence> timestamps = parser.newTimestampReader();
+        assertEquals(timestamps.applyAsLong(NGINX_LINE), OffsetDateTime.parse("2025-09-18T16:10:00+02:00").toEpochSecond());
+        assertEquals(timestamps.applyAsLong("not a line"), LogParser.UNKNOWN_SECOND);
+        assertNull(LogFormatCompiler.compile("plain", "$remote_addr $status", false).newTimestampReader());
+    }
+
+    @Test
+    public void testExplicitTypesAndMissingValues() {
+        CompiledFormatParser parser = LogFormatCompiler.compile("custom",
+                "${ts:timestamp:yyyy/MM/dd HH:mm:ss} ${latency:long}ms ${ok:string} $status", false);
+        LogEntry entry = parser.parse("2025/01/02 03:04:05 17ms yes -");
+
+        assertEquals(entry.getTimestamp(), OffsetDateTime.parse("2025-01-02T03:04:05Z"));
+        assertEquals(entry.getAttributes().get("latency"), 17L);
+        assertEquals(entry.getAttributes().get("ok"), "yes");
+        assertFalse(entry.getAttributes().containsKey("status"), "\"-\" leaves the value out");
+        assertNull(entry.getLevel());
+    }
+
+    @Test
+    public void testLogbackLayout() {
+        CompiledFormatParser parser = LogFormatCompiler.compile("app", LOGBACK, false);
+        LogEntry entry = parser.parse("2025-01-01 10:00:00.250 [           main] WARN  com.example.App - Disk  almost full");
+
+        assertEquals(entry.getTimestamp(), OffsetDateTime.parse("2025-01-01T10:00:00.250Z"));
+        assertEquals(entry.getLevel(), "WARN");
+        assertEquals(entry.getAttributes().get("thread"), "main");
+        assertEquals(entry.getAttributes().get("logger"), "com.example.App");
+        assertEquals(entry.getMessage(), "Disk  almost full");
+    }
+
+    @Test
+    public void testMultiLineEvents() {
+        CompiledFormatParser parser = LogFormatCompiler.compile("app", LOGBACK, true);
+        assertTrue(parser.isMultiLine());
+
+        List<LogEntry> entries = new ArrayList<>();
+        SourceProcessor processor = new SourceProcessor("test", parser,
+                (sourceName, eventParser, event) -> entries.add(eventParser.parse(event)));
+        processor.accept("2025-01-01 10:00:00.000 [main] ERROR com.example.App - Failed");
+        processor.accept("java.lang.IllegalStateException: boom");
+        processor.accept("\tat com.example.App.main(App.java:10)");
+        processor.accept("2025-01-01 10:00:01.000 [main] INFO  com.example.App - Recovered");
+        processor.flush();
+
+        assertEquals(entries.size(), 2);
+        assertEquals(entries.get(0).getLevel(), "ERROR");
+        assertEquals(entries.get(0).getMessage(),
+                "Failed\njava.lang.IllegalStateException: boom\n\tat com.example.App.main(App.java:10)");
+        assertEquals(entries.get(1).getMessage(), "Recovered");
+    }
+
+    @Test
+    public void testProjection() {
+        CompiledFormatParser parser = LogFormatCompiler.compile("nginx", NGINX_COMBINED, false);
+        parser.setRequiredFields(Set.of("path", "level"));
+        LogEntry entry = parser.parse(NGINX_LINE);
+
+        assertEquals(entry.getLevel(), "ERROR");
+        assertEquals(entry.getAttributes().keySet(), Set.of("path"));
+        assertNull(entry.getTimestamp());
+        assertNull(entry.getMessage());
+    }
+
+    @Test
+    public void testMatchesBuiltInApacheParser() {
+        String pattern = "$remote_addr $ident $remote_user [$time_local] \"$request\" $status $size "
+                + "\"$referrer\" \"$userAgent\"";
+        CompiledFormatParser compiled = LogFormatCompiler.compile("apache", pattern, false);
+        String line = "192.168.2.243 - - [18/Sep/2025:16:10:00 +0000] \"GET /api/orders HTTP/1.1\" 200 6568 "
+                + "\"https://example.com/shop?q=a b\" \"Mozilla/5.0 (X11; Linux x86_64)\"";
+        LogEntry expected = new ApacheAccessLogParser().parse(line);
+        LogEntry actual = compiled.parse(line);
+
+        assertEquals(actual.getTimestamp(), expected.getTimestamp());
+        assertEquals(actual.getLevel(), expected.getLevel());
+        for (String field : List.of("method", "path", "protocol", "status", "referrer", "userAgent")) {
+            assertEquals(actual.getAttributes().get(field), expected.getAttributes().get(field), field);
+        }
+    }
+
+    @Test
+    public void testInvalidPatterns() {
+        assertThrows(IllegalArgumentException.class, () -> LogFormatCompiler.compile("x", "$a$b", false));
+        assertThrows(IllegalArgumentException.class, () -> LogFormatCompiler.compile("x", "no fields", false));
+        assertThrows(IllegalArgumentException.class, () -> LogFormatCompiler.compile("x", "${a:blob}", false));
+        assertThrows(IllegalArgumentException.class, () -> LogFormatCompiler.compile("x", "%msg - %level", false));
+        assertThrows(IllegalArgumentException.class, () -> LogFormatCompiler.compile("x", "%d{yyyy-bb} %msg", false));
+    }
+
+    @Test
+    public void testTimeOnlyTimestampIsRejected() {
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> LogFormatCompiler.compile(
+                "console", "%d{HH:mm:ss.SSS} [%thread] %-5level %logger{36} - %msg%n", false));
+        assertTrue(e.getMessage().contains("needs both a date and a time"), e.getMessage());
+        assertThrows(IllegalArgumentException.class,
+                () -> LogFormatCompiler.compile("x", "${day:timestamp:yyyy-MM-dd} $msg", false));
+    }
+
+    @Test
+    public void testSyntaxDetection() {
+        assertEquals(LogFormatCompiler.detectSyntax(NGINX_COMBINED), LogFormatCompiler.Syntax.NGINX);
+        assertEquals(LogFormatCompiler.detectSyntax(LOGBACK), LogFormatCompiler.Syntax.LOGBACK);
+        assertEquals(LogFormatCompiler.fixedWidth("yyyy-MM-dd HH:mm:ss"), 19);
+        assertEquals(LogFormatCompiler.fixedWidth("dd MMMM yyyy"), -1);
+    }
+}
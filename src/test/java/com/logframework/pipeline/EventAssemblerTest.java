@@ -0,0 +1,78 @@
+package com.logframework.pipeline;
+
+import com.logframework.parser.SpringBootLogParser;
+import com.logframework.util.CharSequences;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+public class EventAssemblerTest {
+
+    private static final String START = "2025-01-01 10:00:00 [main] ERROR com.example.App - Failed";
+
+    private static EventAssembler newAssembler() {
+        return new EventAssembler("test", line -> CharSequences.startsWithShape(line, "####-##-## ##:##:## ["));
+    }
+
+    @Test
+    public void testStartLineShape() {
+        EventAssembler assembler = newAssembler();
+        assertTrue(assembler.isStartLine(START));
+        assertFalse(assembler.isStartLine("\tat com.example.App.main(App.java:10)"));
+        assertFalse(assembler.isStartLine("2025-01-0X 10:00:00 [main] INFO"));
+        assertFalse(assembler.isStartLine("2025-01-01"));
+    }
+
+    @Test
+    public void testJoinsLinesAndTrims() {
+        EventAssembler assembler = newAssembler();
+        assertFalse(assembler.hasEvent());
+        assembler.append(START);
+        assembler.append("\tat com.example.App.main(App.java:10)");
+        assembler.append("   ");
+        assertTrue(assembler.hasEvent());
+        assertEquals(assembler.event().toString(), START + "\n\tat com.example.App.main(App.java:10)");
+
+        assembler.clear();
+        assertFalse(assembler.hasEvent());
+        assembler.append("  " + START);
+        assertEquals(assembler.event().toString(), START);
+    }
+
+    @Test
+    public void testTruncatesAtLimits() {
+        EventAssembler assembler = newAssembler();
+        assembler.setLimits(1000, 3);
+        for (int i = 0; i < 10; i++) {
+            assembler.append("line" + i);
+        }
+        assertEquals(assembler.event().toString(), "line0\nline1\nline2");
+
+        assembler.clear();
+        assembler.setLimits(8, 100);
+        assembler.append("abcde");
+        assembler.append("fghij");
+        assembler.append("klmno");
+        assertEquals(assembler.event().toString(), "abcde\nfg");
+    }
+
+    @Test
+    public void testSourceProcessorGroupsStackTraces() {
+        List<String> events = new ArrayList<>();
+        SourceProcessor processor = new SourceProcessor("test", new SpringBootLogParser(),
+                (sourceName, parser, event) -> events.add(event.toString()));
+        processor.accept(START);
+        processor.accept("\tat com.example.App.main(App.java:10)");
+        processor.accept("2025-01-01 10:00:01 [main] INFO  com.example.App - Recovered");
+        assertTrue(processor.hasPendingEvent());
+        processor.flush();
+
+        assertEquals(events, List.of(
+                START + "\n\tat com.example.App.main(App.java:10)",
+                "2025-01-01 10:00:01 [main] INFO  com.example.App - Recovered"));
+        assertEquals(new SpringBootLogParser().parse(events.get(0)).getAttributes().get("multiline"), true);
+    }
+}
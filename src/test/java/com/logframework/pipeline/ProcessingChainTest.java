@@ -0,0 +1,324 @@
+package com.logframework.pipeline;
+
+import com.logframework.aggregator.ErrorRateOverTimeAggregator;
+import com.logframework.aggregator.LogAggregator;
+import com.logframework.aggregator.LogLevelCountAggregator;
+import com.logframework.aggregator.TopEndpointsAggregator;
+import com.logframework.dto.ResultDTO;
+import com.logframework.filter.LogFilter;
+import com.logframework.filter.RegexFilter;
+import com.logframework.filter.TimeRangeFilter;
+import com.logframework.model.FieldDictionaries;
+import com.logframework.model.LogEntry;
+import com.logframework.parser.ApacheAccessLogParser;
+import com.logframework.parser.LogParser;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.testng.Assert.*;
+
+public class ProcessingChainTest {
+
+    @Test
+    public void testRequiredFieldsAreTheUnion() {
+        RegexFilter filter = new RegexFilter();
+        filter.setField("userAgent");
+        filter.setRegex("curl");
+        List<LogFilter> filters = List.of(filter);
+        List<LogAggregator> aggregators = List.of(new LogLevelCountAggregator(), new TopEndpointsAggregator());
+
+        assertEquals(new ProcessingChain(filters, aggregators).getRequiredFields(), Set.of("userAgent", "level", "path"));
+        assertEquals(new ProcessingChain(List.of(), List.of()).getRequiredFields(), Set.of());
+    }
+
+    @Test
+    public void testUndeclaredFieldsKeepEverything() {
+        LogAggregator custom = new LogAggregator() {
+            @Override
+            public void process(LogEntry entry) {
+            }
+
+            @Override
+            public ResultDTO getResult() {
+                return null;
+            }
+        };
+        ProcessingChain chain = new ProcessingChain(List.of(), List.of(new LogLevelCountAggregator(), custom));
+        assertNull(chain.getRequiredFields());
+    }
+
+    @Test
+    public void testReusedEntriesGiveTheSameResults() {
+        List<String> lines = List.of(
+                "10.0.0.1 - - [18/Sep/2025:16:10:00 +0000] \"GET /api/users HTTP/1.1\" 500 512",
+                "10.0.0.2 - - [18/Sep/2025:16:10:01 +0000] \"GET /health HTTP/1.1\" 200 2",
+                "not an access log line",
+                "10.0.0.3 - - [18/Sep/2025:16:10:02 +0000] \"POST /api/orders HTTP/1.1\" 404 0",
+                "10.0.0.4 - - [18/Sep/2025:16:10:03 +0000] \"GET /api/users HTTP/1.1\" 503 128",
+                "10.0.0.5 - - [18/Sep/2025:16:10:04 +0000] \"GET /api/users HTTP/1.1\" 200 64");
+
+        List<List<String>> expected = run(lines, false);
+        assertEquals(run(lines, true), expected);
+        assertEquals(expected, List.of(List.of("ERROR", "2"), List.of("WARN", "1")));
+    }
+
+    @Test
+    public void testRetainingAggregatorDisablesReuse() {
+        List<LogEntry> kept = new ArrayList<>();
+        LogAggregator retaining = new LogAggregator() {
+            @Override
+            public void process(LogEntry entry) {
+                kept.add(entry);
+            }
+
+            @Override
+            public ResultDTO getResult() {
+                return null;
+            }
+        };
+        ProcessingChain chain = new ProcessingChain(List.of(), List.of(new LogLevelCountAggregator(), retaining), 2);
+        chain.setReuseEntries(true);
+        assertFalse(chain.isReusingEntries());
+
+        ApacheAccessLogParser parser = new ApacheAccessLogParser();
+        chain.accept("a.log", parser, "10.0.0.1 - - [18/Sep/2025:16:10:00 +0000] \"GET /a HTTP/1.1\" 200 1");
+        chain.accept("a.log", parser, "10.0.0.1 - - [18/Sep/2025:16:10:00 +0000] \"GET /b HTTP/1.1\" 200 1");
+        chain.accept("a.log", parser, "10.0.0.1 - - [18/Sep/2025:16:10:00 +0000] \"GET /c HTTP/1.1\" 200 1");
+        chain.flush();
+        assertEquals(kept.size(), 3);
+        assertEquals(kept.get(0).getAttribute("path"), "/a");
+    }
+
+    @Test
+    public void testColumnarEngineGivesTheSameResults() {
+        List<String> lines = List.of(
+                "10.0.0.1 - - [18/Sep/2025:15:59:59 +0000] \"GET /api/users HTTP/1.1\" 500 512",
+                "10.0.0.2 - - [18/Sep/2025:16:10:01 +0000] \"GET /api/users HTTP/1.1\" 200 2",
+                "10.0.0.3 - - [18/Sep/2025:16:10:02 +0000] \"POST /api/orders HTTP/1.1\" 404 0",
+                "not an access log line",
+                "10.0.0.4 - - [18/Sep/2025:16:10:03 +0000] \"GET /api/users HTTP/1.1\" 503 128",
+                "10.0.0.5 - - [18/Sep/2025:17:10:04 +0000] \"GET /health HTTP/1.1\" 503 64",
+                "10.0.0.6 - - [18/Sep/2025:17:10:05 +0000] \"DELETE /api/users HTTP/1.1\" 200 64");
+
+        List<List<List<String>>> rows = runAll(lines, false, true);
+        assertEquals(runAll(lines, true, true), rows);
+        assertEquals(rows.get(1), List.of(List.of("/api/users", "3"), List.of("/api/orders", "1")));
+    }
+
+    @Test
+    public void testColumnarEngineNeedsSupportFromEveryStage() {
+        RegexFilter filter = new RegexFilter();
+        filter.setField("userAgent");
+        filter.setRegex("curl");
+        ProcessingChain chain = new ProcessingChain(List.of(filter), List.of(new LogLevelCountAggregator()));
+        chain.setColumnar(true);
+        assertFalse(chain.isColumnar());
+
+        filter.setField("message");
+        chain.setColumnar(true);
+        assertTrue(chain.isColumnar());
+    }
+
+    @Test
+    public void testSelectiveFilterMovesFirst() {
+        LogFilter slow = entry -> {
+            long end = System.nanoTime() + 20_000;
+            while (System.nanoTime() < end) {
+                Thread.onSpinWait();
+            }
+            return true;
+        };
+        LogFilter selective = entry -> "ERROR".equals(entry.getLevel());
+        ProcessingChain chain = new ProcessingChain(List.of(slow, selective), List.of(new LogLevelCountAggregator()));
+        assertEquals(chain.getFilterOrder(), List.of(slow, selective));
+
+        LogEntry[] entries = new LogEntry[2];
+        for (int batch = 0; batch < AdaptiveFilterOrder.SAMPLE_INTERVAL * AdaptiveFilterOrder.REORDER_INTERVAL; batch++) {
+            entries[0] = new LogEntry(null, "INFO", "started", "app.log");
+            entries[1] = new LogEntry(null, "ERROR", "failed", "app.log");
+            assertEquals(chain.matchBatch(entries, 2), 1);
+            assertEquals(entries[0].getMessage(), "failed");
+        }
+        assertEquals(chain.getFilterOrder(), List.of(selective, slow));
+    }
+
+    @Test
+    public void testFixedFilterOrder() {
+        LogFilter first = entry -> true;
+        LogFilter second = entry -> false;
+        ProcessingChain chain = new ProcessingChain(List.of(first, second), List.of(new LogLevelCountAggregator()));
+        chain.setAdaptiveFilterOrder(false);
+        LogEntry[] entries = new LogEntry[1];
+        for (int batch = 0; batch < AdaptiveFilterOrder.SAMPLE_INTERVAL * AdaptiveFilterOrder.REORDER_INTERVAL; batch++) {
+            entries[0] = new LogEntry(null, "INFO", "started", "app.log");
+            assertEquals(chain.matchBatch(entries, 1), 0);
+        }
+        assertEquals(chain.getFilterOrder(), List.of(first, second));
+    }
+
+    @Test
+    public void testPrefilteredEventsGiveTheSameResults() {
+        List<String> lines = List.of(
+                "10.0.0.1 - - [18/Sep/2025:15:59:59 +0000] \"GET /api/users HTTP/1.1\" 500 512",
+                "10.0.0.2 - - [18/Sep/2025:16:00:00 +0000] \"GET /api/users HTTP/1.1\" 200 2",
+                "10.0.0.3 - - [18/Sep/2025:16:10:02 +0000] \"POST /api/orders HTTP/1.1\" 404 0",
+                "10.0.0.4 - - [18/Sep/2025:16:10:03 +0000] \"GET /health HTTP/1.1\" 200 2",
+                "10.0.0.5 - - [18/Sep/2025:16:10:04 -0100] \"GET /API/users HTTP/1.1\" 503 64");
+
+        assertEquals(runAll(lines, false, true), runAll(lines, false, false));
+        assertEquals(runAll(lines, true, true), runAll(lines, false, false));
+    }
+
+    @Test
+    public void testEachChainEncodesThroughItsOwnDictionaries() {
+        List<LogEntry> entries = new ArrayList<>();
+        LogAggregator collector = new LogAggregator() {
+            @Override
+            public void process(LogEntry entry) {
+                entries.add(entry);
+            }
+
+            @Override
+            public ResultDTO getResult() {
+                return null;
+            }
+        };
+        ProcessingChain chain = new ProcessingChain(List.of(), List.of(collector));
+        ProcessingChain other = new ProcessingChain(List.of(), List.of(collector));
+        assertNotSame(other.getDictionaries(), chain.getDictionaries());
+        assertSame(chain.withFilterCopies().getDictionaries(), chain.getDictionaries());
+
+        String line = "10.0.0.1 - - [18/Sep/2025:16:10:00 +0000] \"PATCH /a HTTP/1.1\" 200 1";
+        chain.accept("a.log", new ApacheAccessLogParser(), line);
+        chain.flush();
+        assertSame(entries.get(0).getDictionaries(), chain.getDictionaries());
+        int code = entries.get(0).getCode("method");
+        assertEquals(chain.getDictionaries().forField("method").value(code), "PATCH");
+        assertEquals(other.getDictionaries().forField("method").size(), 0);
+    }
+
+    @Test
+    public void testRowEngineParsesEventsInBatchesPerSource() {
+        LogLevelCountAggregator levels = new LogLevelCountAggregator();
+        List<String> batches = new ArrayList<>();
+        LogParser parser = new ApacheAccessLogParser() {
+            @Override
+            public void parseBatch(CharSequence[] events, int count, LogEntry[] entries,
+                                   FieldDictionaries dictionaries) {
+                batches.add(String.valueOf(count));
+                super.parseBatch(events, count, entries, dictionaries);
+            }
+        };
+        List<String> sources = new ArrayList<>();
+        LogAggregator sourceCollector = new LogAggregator() {
+            @Override
+            public void process(LogEntry entry) {
+                sources.add(entry.getSource());
+            }
+
+            @Override
+            public ResultDTO getResult() {
+                return null;
+            }
+        };
+        ProcessingChain chain = new ProcessingChain(List.of(), List.of(levels, sourceCollector), 2);
+        String line = "10.0.0.1 - - [18/Sep/2025:16:10:00 +0000] \"GET /a HTTP/1.1\" 500 1";
+        chain.accept("a.log", parser, line);
+        chain.accept("a.log", parser, line);
+        chain.accept("a.log", parser, "not an access log line");
+        chain.accept("b.log", parser, line); // Parses the rest of a.log first
+        assertEquals(batches, List.of("2", "1"));
+        chain.flush();
+
+        assertEquals(batches, List.of("2", "1", "1"));
+        assertEquals(sources, List.of("a.log", "a.log", "b.log"));
+        assertEquals(levels.getResult().getData(), List.of(List.of("ERROR", "3")));
+    }
+
+    @Test
+    public void testEventsThatCannotMatchAreNotParsed() {
+        RegexFilter filter = new RegexFilter();
+        filter.setField("path");
+        filter.setRegex("/api/");
+        ProcessingChain chain = new ProcessingChain(List.of(filter), List.of(new LogLevelCountAggregator()));
+        List<CharSequence> parsed = new ArrayList<>();
+        LogParser parser = new ApacheAccessLogParser() {
+            @Override
+            public void parseBatch(CharSequence[] events, int count, LogEntry[] entries,
+                                   FieldDictionaries dictionaries) {
+                for (int i = 0; i < count; i++) {
+                    parsed.add(events[i].toString());
+                }
+                super.parseBatch(events, count, entries, dictionaries);
+            }
+        };
+        String health = "10.0.0.1 - - [18/Sep/2025:16:10:00 +0000] \"GET /health HTTP/1.1\" 200 1";
+        String users = "10.0.0.1 - - [18/Sep/2025:16:10:00 +0000] \"GET /api/users HTTP/1.1\" 200 1";
+        chain.accept("a.log", parser, health);
+        chain.accept("a.log", parser, users);
+        chain.flush();
+        assertEquals(parsed, List.of(users));
+
+        CharSequence[] events = {health, users, health};
+        assertEquals(chain.matchEvents(parser, events, events.length), 1);
+        assertEquals(events[0], users);
+
+        chain.setPrefilterEvents(false);
+        chain.accept("a.log", parser, health);
+        chain.flush();
+        assertEquals(parsed, List.of(users, health));
+    }
+
+    /**
+     * Runs the lines through time range and path filters and three aggregators, in batches of
+     * two, and returns the results of the aggregators.
+     */
+    private static List<List<List<String>>> runAll(List<String> lines, boolean columnar, boolean prefilterEvents) {
+        TimeRangeFilter timeRange = new TimeRangeFilter();
+        timeRange.setStartTime("2025-09-18T16:00:00Z");
+        RegexFilter path = new RegexFilter();
+        path.setField("path");
+        path.setRegex("^/api/");
+        LogLevelCountAggregator levels = new LogLevelCountAggregator();
+        TopEndpointsAggregator endpoints = new TopEndpointsAggregator();
+        endpoints.setTopN(5);
+        ErrorRateOverTimeAggregator errorRate = new ErrorRateOverTimeAggregator();
+        ProcessingChain chain = new ProcessingChain(List.of(timeRange, path), List.of(levels, endpoints, errorRate), 2);
+        chain.setColumnar(columnar);
+        assertEquals(chain.isColumnar(), columnar);
+        chain.setPrefilterEvents(prefilterEvents);
+
+        LogParser parser = new ApacheAccessLogParser();
+        parser.setRequiredFields(chain.getRequiredFields());
+        for (String line : lines) {
+            chain.accept("access.log", parser, line);
+        }
+        chain.flush();
+        return List.of(levels.getResult().getData(), endpoints.getResult().getData(), errorRate.getResult().getData());
+    }
+
+    /**
+     * Runs the lines through an access log parser, a level filter and a level counter, in
+     * batches of two so that recycled entries are overwritten between batches.
+     */
+    private static List<List<String>> run(List<String> lines, boolean reuseEntries) {
+        RegexFilter filter = new RegexFilter();
+        filter.setField("level");
+        filter.setRegex("ERROR|WARN");
+        LogLevelCountAggregator aggregator = new LogLevelCountAggregator();
+        ProcessingChain chain = new ProcessingChain(List.of(filter), List.of(aggregator), 2);
+        chain.setReuseEntries(reuseEntries);
+        assertEquals(chain.isReusingEntries(), reuseEntries);
+
+        LogParser parser = new ApacheAccessLogParser();
+        parser.setRequiredFields(chain.getRequiredFields());
+        for (String line : lines) {
+            chain.accept("access.log", parser, line);
+        }
+        chain.flush();
+        return aggregator.getResult().getData();
+    }
+}
@@ -0,0 +1,94 @@
+package com.logframework.pipeline;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class RingBufferTest {
+
+    @Test
+    public void testOfferAndPollInOrder() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        assertEquals(buffer.capacity(), 4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4), "A full buffer should reject elements");
+        assertEquals(buffer.size(), 4);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(buffer.poll(), Integer.valueOf(i));
+        }
+        assertNull(buffer.poll(), "An empty buffer should return null");
+        assertEquals(buffer.getMaxDepth(), 4);
+    }
+
+    @Test
+    public void testCapacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(new RingBuffer<>(5).capacity(), 8);
+        assertEquals(new RingBuffer<>(1).capacity(), 2);
+    }
+
+    @Test
+    public void testWrapsAround() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(2);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(buffer.offer(i));
+            assertEquals(buffer.poll(), Integer.valueOf(i));
+        }
+    }
+
+    @Test
+    public void testManyProducersAndConsumers() throws Exception {
+        int producers = 4;
+        int consumers = 3;
+        int perProducer = 20_000;
+        RingBuffer<Integer> buffer = new RingBuffer<>(16);
+        ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+        try {
+            for (int p = 0; p < producers; p++) {
+                int base = p * perProducer;
+                executor.submit(() -> {
+                    for (int i = 1; i <= perProducer; i++) {
+                        buffer.put(base + i);
+                    }
+                    return null;
+                });
+            }
+            int total = producers * perProducer;
+            int perConsumer = total / consumers;
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int c = 0; c < consumers; c++) {
+                int count = c == consumers - 1 ? total - perConsumer * (consumers - 1) : perConsumer;
+                results.add(executor.submit(() -> {
+                    long[] sumAndCount = new long[2];
+                    for (int i = 0; i < count; i++) {
+                        sumAndCount[0] += buffer.take();
+                        sumAndCount[1]++;
+                    }
+                    return sumAndCount;
+                }));
+            }
+
+            long sum = 0;
+            long count = 0;
+            for (Future<long[]> result : results) {
+                long[] sumAndCount = result.get(30, TimeUnit.SECONDS);
+                sum += sumAndCount[0];
+                count += sumAndCount[1];
+            }
+            assertEquals(count, total);
+            assertEquals(sum, (long) total * (total + 1) / 2, "Every element should be taken exactly once");
+            assertNull(buffer.poll());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.logframework.util;
+
+import org.testng.annotations.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class VirtualThreadsTest {
+
+    @Test
+    public void testAvailabilityFollowsRuntimeVersion() {
+        assertEquals(VirtualThreads.isAvailable(), Runtime.version().feature() >= 21);
+    }
+
+    @Test
+    public void testExecutorRunsTasksWhenAvailable() throws Exception {
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor();
+        if (!VirtualThreads.isAvailable()) {
+            assertNull(executor, "No executor should be created without virtual threads");
+            return;
+        }
+        try {
+            assertEquals(executor.submit(() -> 42).get(10, TimeUnit.SECONDS), Integer.valueOf(42));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}